@@ -1,5 +1,4 @@
 import java.util.Random;
-import java.util.ArrayList;
 
 /**
  * Uma classe abstrata que representa as características comuns
@@ -15,8 +14,25 @@ public abstract class Animal implements Actor {
     // Um gerador de números aleatórios compartilhado.
     private static final Random rand = RandomGenerator.getRandom();
     
-    // A idade do animal.
-    private int age;
+    // Identificador da espécie na SpeciesRegistry (lido uma vez na criação).
+    private final int speciesId;
+    
+    // Identificador único do animal na simulação (em ordem de criação).
+    private final int id;
+    
+    // Próximo identificador de animal a ser atribuído.
+    private static int nextId;
+    
+    // Passo em que o animal nasceu (a idade é calculada sob demanda).
+    private int birthStep;
+    
+    // Passo da última refeição e nível de comida logo após ela
+    // (o nível atual é calculado sob demanda: cai um por passo).
+    private int mealStep;
+    private int foodAtMeal;
+    
+    // Passo em que o animal morre de velhice ou de fome, se nada mudar.
+    private int expiryStep;
     
     // Se o animal está vivo ou não.
     private boolean alive;
@@ -24,20 +40,107 @@ public abstract class Animal implements Actor {
     // A localização do animal.
     private Location location;
     
+    // Campo em que o animal foi posicionado por último (mantém o hash de estado em dia).
+    private Field placedIn;
+    
     // Referência ao sistema de clima (para efeitos sazonais)
     private static WeatherSystem weatherSystem;
+    
+    // Densidades por espécie para o modo de capacidade de suporte (null = desligado)
+    private static DensityMap densityMap;
+    
+    // Raio da vizinhança usada no cálculo de densidade
+    private static int densityRadius;
+    
+    // Densidade local (fração de células) na qual a procriação para por completo
+    private static double carryingCapacity;
+    
+    // Índice espacial dos animais vivos, usado pelos caçadores rastreadores (pode ser null)
+    private static SpatialIndex spatialIndex;
+    
+    // Passo atual da simulação, compartilhado por todos os animais.
+    private static int currentStep;
+    
+    // Roda de temporização onde as mortes previstas são agendadas (pode ser null).
+    private static TimingWheel<Animal> deathWheel;
+    
+    // Registro das trajetórias, avisado das mortes (pode ser null).
+    private static TrajectoryTracer tracer;
+    
+    // Buffer compartilhado para as células de uma ninhada (vizinhança 3x3).
+    private static final int[] litterCells = new int[9];
 
     /**
-     * Cria um novo animal.
+     * Cria um novo animal. Recém-nascidos começam com o estômago cheio;
+     * com idade aleatória, o nível de comida também é sorteado, entre
+     * minRandomFood e minRandomFood + getMaxFoodValue() - 1. A morte é
+     * agendada uma única vez, já com o nível inicial.
      *
      * @param randomAge Se true, o animal terá uma idade aleatória.
+     * @param speciesId O identificador da espécie na SpeciesRegistry.
+     * @param minRandomFood O menor nível de comida sorteado com idade aleatória.
      */
-    public Animal(boolean randomAge) {
-        age = 0;
+    public Animal(boolean randomAge, int speciesId, int minRandomFood) {
+        this.speciesId = speciesId;
+        this.id = nextId++;
         alive = true;
+        int age = 0;
         if (randomAge) {
             age = rand.nextInt(getMaxAge());
         }
+        birthStep = currentStep - age;
+        // Comida sorteada depois da idade (mesma ordem de sorteios de antes)
+        mealStep = currentStep;
+        foodAtMeal = randomAge ? minRandomFood + rand.nextInt(getMaxFoodValue()) : getMaxFoodValue();
+        scheduleExpiry();
+    }
+
+    /**
+     * Define o passo atual da simulação para todos os animais.
+     * Idade e fome são derivadas deste relógio, sem escrita por animal.
+     *
+     * @param step O passo atual.
+     */
+    public static void setCurrentStep(int step) {
+        currentStep = step;
+    }
+
+    /**
+     * Reinicia a numeração dos animais, para que a mesma semente dê os
+     * mesmos identificadores.
+     */
+    public static void resetIds() {
+        nextId = 0;
+    }
+
+    /**
+     * Define o registro de trajetórias avisado quando um animal morre.
+     *
+     * @param trajectoryTracer O registro, ou null.
+     */
+    public static void setTracer(TrajectoryTracer trajectoryTracer) {
+        tracer = trajectoryTracer;
+    }
+
+    /**
+     * Define a roda de temporização onde as mortes por velhice e fome são
+     * agendadas, para que o simulador as processe em lote.
+     *
+     * @param wheel A roda de temporização, ou null.
+     */
+    public static void setDeathWheel(TimingWheel<Animal> wheel) {
+        deathWheel = wheel;
+    }
+
+    /**
+     * Mata o animal se o passo previsto para sua morte chegou.
+     * Usado pelo simulador ao processar a roda de temporização; eventos
+     * antigos (de antes de uma refeição) são ignorados.
+     */
+    public void expireIfDue() {
+        if (alive && currentStep >= expiryStep) {
+            setDead(getAge() > getMaxAge() ? DeathCause.OLD_AGE : DeathCause.STARVATION);
+        }
     }
 
     /**
@@ -50,6 +153,31 @@ public abstract class Animal implements Actor {
         weatherSystem = weather;
     }
 
+    /**
+     * Liga o modo de capacidade de suporte: a probabilidade de procriação cai
+     * linearmente com a densidade da própria espécie no raio dado, chegando
+     * a zero na densidade 'capacity'. Passe null para desligar.
+     *
+     * @param density As tabelas de densidade atualizadas pelo simulador.
+     * @param radius O raio da vizinhança considerada.
+     * @param capacity A densidade (0.0 a 1.0) em que a procriação para.
+     */
+    public static void setDensityMap(DensityMap density, int radius, double capacity) {
+        densityMap = density;
+        densityRadius = radius;
+        carryingCapacity = capacity;
+    }
+
+    /**
+     * Define o índice espacial mantido por todos os animais.
+     * A partir daí, nascimentos, movimentos e mortes atualizam o índice.
+     *
+     * @param index O índice espacial, ou null para desligar.
+     */
+    public static void setSpatialIndex(SpatialIndex index) {
+        spatialIndex = index;
+    }
+
     /**
      * Implementação do método da interface Actor.
      * Executa a ação principal do animal no passo atual.
@@ -60,63 +188,88 @@ public abstract class Animal implements Actor {
      */
     @Override
     public void act(Field currentField, Field updatedField, java.util.List<Actor> newActors) {
-        incrementAge();
+        actAndBreed(currentField, updatedField, newActors);
+    }
+
+    /**
+     * Método de compatibilidade - mantém interface antiga para o simulador
+     * Usa nome diferente para evitar conflito de type erasure.
+     * Os filhotes são anexados diretamente à lista fornecida, sem listas
+     * intermediárias; o simulador passa a própria lista da população.
+     *
+     * @param currentField O campo atual.
+     * @param updatedField O campo atualizado.
+     * @param newAnimals Lista para adicionar novos animais.
+     */
+    public void actWithAnimals(Field currentField, Field updatedField, java.util.List<Animal> newAnimals) {
+        actAndBreed(currentField, updatedField, newAnimals);
+    }
+
+    /**
+     * Lógica comum de um passo: envelhece, procria e se move.
+     * Nenhuma lista é alocada; nascimentos vão direto para o buffer do chamador.
+     *
+     * @param currentField O campo atual.
+     * @param updatedField O campo atualizado.
+     * @param births Buffer do passo onde os filhotes são anexados.
+     */
+    private void actAndBreed(Field currentField, Field updatedField, java.util.List<? super Animal> births) {
+        // Velhice e fome: apenas uma comparação com o relógio (nenhuma escrita)
+        expireIfDue();
         if (isAlive()) {
-            java.util.List<Animal> newAnimals = new ArrayList<>();
-            giveBirth(newAnimals, updatedField);
-            
-            for (Animal animal : newAnimals) {
-                newActors.add(animal);
-            }
+            giveBirth(births, updatedField);
             
             Location newLocation = findNextLocation(currentField, updatedField);
             if (newLocation != null) {
                 setLocation(newLocation);
                 updatedField.place(this, newLocation);
             } else {
-                setDead();
+                setDead(DeathCause.OVERCROWDING);
             }
         }
     }
 
     /**
-     * Método de compatibilidade - mantém interface antiga para o simulador
-     * Usa nome diferente para evitar conflito de type erasure
-     *
-     * @param currentField O campo atual.
-     * @param updatedField O campo atualizado.
-     * @param newAnimals Lista para adicionar novos animais.
+     * @return O identificador único do animal (em ordem de criação).
      */
-    public void actWithAnimals(Field currentField, Field updatedField, java.util.List<Animal> newAnimals) {
-        java.util.List<Actor> newActors = new ArrayList<>();
-        act(currentField, updatedField, newActors);
-        
-        for (Actor actor : newActors) {
-            if (actor instanceof Animal) {
-                newAnimals.add((Animal) actor);
-            }
-        }
+    public final int getId() {
+        return id;
+    }
+
+    /**
+     * @return O identificador compacto desta espécie na SpeciesRegistry.
+     */
+    public final int getSpeciesId() {
+        return speciesId;
     }
 
     /**
      * @return A idade máxima para esta espécie.
      */
-    public abstract int getMaxAge();
+    public final int getMaxAge() {
+        return SpeciesRegistry.getMaxAge(speciesId);
+    }
 
     /**
      * @return A idade de procriação para esta espécie.
      */
-    public abstract int getBreedingAge();
+    public final int getBreedingAge() {
+        return SpeciesRegistry.getBreedingAge(speciesId);
+    }
 
     /**
      * @return A probabilidade de procriação (0.0 a 1.0).
      */
-    public abstract double getBreedingProbability();
+    public final double getBreedingProbability() {
+        return SpeciesRegistry.getBreedingProbability(speciesId);
+    }
 
     /**
      * @return O tamanho máximo da ninhada.
      */
-    public abstract int getMaxLitterSize();
+    public final int getMaxLitterSize() {
+        return SpeciesRegistry.getMaxLitterSize(speciesId);
+    }
 
     /**
      * Encontra a próxima localização para onde o animal deve se mover.
@@ -143,37 +296,100 @@ public abstract class Animal implements Actor {
      * @param newAnimals Lista para adicionar os novos animais.
      * @param field O campo onde os novos animais serão colocados.
      */
-    private void giveBirth(java.util.List<Animal> newAnimals, Field field) {
+    private void giveBirth(java.util.List<? super Animal> newAnimals, Field field) {
         // Calcula quantos filhotes serão gerados neste passo
         int births = breed();
+        if (births == 0) {
+            return;
+        }
         
-        // Para cada filhote a ser gerado...
-        for (int b = 0; b < births; b++) {
-            // Procura uma localização adjacente livre próxima ao animal pai/mãe
-            Location loc = field.freeAdjacentLocation(getLocation());
+        // Busca de uma só vez até 'births' células livres ao redor do pai/mãe.
+        // Se houver menos células que filhotes, o excedente não nasce (superlotação).
+        int free = field.freeAdjacentLocations(getLocation(), litterCells, births);
+        int width = field.getWidth();
+        
+        // Para cada célula livre encontrada...
+        for (int b = 0; b < free; b++) {
+            Location loc = new Location(litterCells[b] / width, litterCells[b] % width);
+            // Cria um novo animal jovem (sem idade aleatória)
+            Animal young = createYoung(false, field, loc);
             
-            // Se encontrou uma localização livre...
-            if (loc != null) {
-                // Cria um novo animal jovem (sem idade aleatória)
-                Animal young = createYoung(false, field, loc);
-                
-                // Se o animal jovem foi criado com sucesso...
-                if (young != null) {
-                    // Adiciona o novo animal à lista de animais a serem inseridos na simulação
-                    newAnimals.add(young);
-                }
+            // Se o animal jovem foi criado com sucesso...
+            if (young != null) {
+                // Adiciona o novo animal à lista de animais a serem inseridos na simulação
+                newAnimals.add(young);
             }
-            // Se não encontrou localização livre, o filhote não nasce (superlotação)
         }
     }
 
     /**
-     * Aumenta a idade. Isso pode resultar na morte do animal.
+     * @return A idade atual do animal, derivada do passo de nascimento.
+     */
+    public int getAge() {
+        return currentStep - birthStep;
+    }
+
+    /**
+     * @return O passo em que o animal morre de velhice ou de fome, se nada mudar.
+     */
+    public int getExpiryStep() {
+        return expiryStep;
+    }
+
+    /**
+     * @return O nível de comida atual, derivado da última refeição.
+     */
+    protected int getFoodLevel() {
+        return foodAtMeal - (currentStep - mealStep);
+    }
+
+    /**
+     * Define o nível de comida a partir do passo atual.
+     * Reagenda a morte por fome.
+     *
+     * @param level O novo nível de comida.
      */
-    private void incrementAge() {
-        age++;
-        if (age > getMaxAge()) {
-            setDead();
+    protected void setFoodLevel(int level) {
+        mealStep = currentStep;
+        foodAtMeal = level;
+        scheduleExpiry();
+        if (placedIn != null) {
+            placedIn.rehash(this);  // O estado mudou: atualiza a contribuição ao hash
+        }
+    }
+
+    /**
+     * @return Os marcos de tempo do estado do animal (passo de nascimento e
+     *         passo em que passaria fome) combinados, para o StateHash. Não
+     *         mudam com o passar dos passos, só quando o animal come.
+     */
+    long getStateKey() {
+        long starvation = (long) mealStep + foodAtMeal;
+        return ((long) birthStep << 32) ^ starvation;
+    }
+
+    /**
+     * Registra o campo em que o animal acabou de ser posicionado.
+     * Chamado pelo Field.
+     *
+     * @param field O campo.
+     */
+    void setPlacedIn(Field field) {
+        placedIn = field;
+    }
+
+    /**
+     * Calcula o passo da morte (velhice ou fome, o que vier antes) e o
+     * agenda na roda de temporização, se houver.
+     * Velhice: morre quando a idade passa de getMaxAge().
+     * Fome: morre quando o nível de comida chega a zero.
+     */
+    private void scheduleExpiry() {
+        long starvation = (long) mealStep + foodAtMeal;
+        long oldAge = (long) birthStep + getMaxAge() + 1;
+        expiryStep = (int) Math.min(Math.min(starvation, oldAge), Integer.MAX_VALUE);
+        if (deathWheel != null && alive) {
+            deathWheel.schedule(this, expiryStep);
         }
     }
 
@@ -198,6 +414,12 @@ public abstract class Animal implements Actor {
             probability *= currentSeason.getBreedingFactor();
         }
         
+        // No modo de capacidade de suporte, vizinhanças cheias procriam menos
+        if (densityMap != null) {
+            double density = densityMap.getDensity(speciesId, location, densityRadius);
+            probability *= Math.max(0.0, 1.0 - density / carryingCapacity);
+        }
+        
         // Verifica se o animal pode procriar E se passou no teste de probabilidade
         if (canBreed() && rand.nextDouble() <= probability) {
             // Gera um número aleatório de filhotes entre 1 e o tamanho máximo da ninhada
@@ -214,14 +436,32 @@ public abstract class Animal implements Actor {
      * @return true se o animal pode procriar.
      */
     private boolean canBreed() {
-        return age >= getBreedingAge();
+        return getAge() >= getBreedingAge();
     }
 
     /**
-     * Marca o animal como morto (por exemplo, por velhice ou fome).
+     * Marca o animal como morto, sem causa conhecida.
      */
     public void setDead() {
+        setDead(DeathCause.UNKNOWN);
+    }
+
+    /**
+     * Marca o animal como morto (por exemplo, por velhice ou fome).
+     *
+     * @param cause A causa da morte.
+     */
+    public void setDead(DeathCause cause) {
+        if (alive && tracer != null) {
+            tracer.recordDeath(this, currentStep, cause);  // Última posição da trajetória
+        }
+        if (alive && spatialIndex != null) {
+            spatialIndex.move(this, location, null);  // Sai do índice espacial
+        }
         alive = false;
+        if (placedIn != null) {
+            placedIn.rehash(this);  // Morto não contribui para o hash
+        }
     }
 
     /**
@@ -241,6 +481,9 @@ public abstract class Animal implements Actor {
      */
     @Override
     public void setLocation(Location location) {
+        if (alive && spatialIndex != null) {
+            spatialIndex.move(this, this.location, location);  // Mantém o índice espacial em dia
+        }
         this.location = location;
     }
 
@@ -251,7 +494,7 @@ public abstract class Animal implements Actor {
      * @param col A coordenada horizontal.
      */
     public void setLocation(int row, int col) {
-        this.location = new Location(row, col);
+        setLocation(new Location(row, col));
     }
 
     /**
@@ -262,8 +505,17 @@ public abstract class Animal implements Actor {
         return location;
     }
 
+    /**
+     * @return A capacidade máxima do estômago desta espécie.
+     */
+    public final int getMaxFoodValue() {
+        return SpeciesRegistry.getMaxFoodValue(speciesId);
+    }
+
     /**
      * @return O valor nutricional deste animal quando for comido.
      */
-    public abstract int getFoodValue();
+    public final int getFoodValue() {
+        return SpeciesRegistry.getFoodValue(speciesId);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,595 @@
+import java.util.Arrays;
+
+/**
+ * Motor de simulação de campo médio por coortes de idade, para populações
+ * grandes demais para a simulação indivíduo a indivíduo.
+ *
+ * O mapa é dividido em blocos de tileSize x tileSize células; cada bloco
+ * guarda, por espécie, quantos animais há em cada balde de idade. Um passo
+ * sorteia em lote (distribuição binomial) as mortes por
+ * velhice, a predação, a fome dos predadores, os nascimentos e a migração
+ * para os blocos vizinhos, com os mesmos parâmetros de espécie da
+ * SpeciesRegistry e os mesmos fatores de estação. O custo de um passo
+ * cresce com blocos x baldes de idade, e não com o número de animais.
+ *
+ * Aproximações em relação ao motor por agentes: a idade máxima é
+ * arredondada para o tamanho do balde; cada predador come no máximo uma
+ * presa por passo, com chance dada pela densidade de presas no bloco; a
+ * fome é uma taxa de morte em vez de um estômago por indivíduo; não há
+ * caçadores, rastros nem grama. Em mapas pequenos os totais por espécie
+ * podem ser comparados com os do motor por agentes (ver fromField).
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class CohortSimulator {
+
+    // Número máximo de baldes de idade por espécie
+    private static final int MAX_BUCKETS = 16;
+
+    // Vizinhos de uma célula: um predador encontra presa em qualquer um deles
+    private static final int NEIGHBOUR_CELLS = 8;
+
+    // Ordem de criação da população inicial (a mesma do simulador por passos)
+    private static final String[] CREATION_ORDER = {"Fox", "Rabbit", "Buffalo", "Lion"};
+
+    // Geometria dos blocos
+    private final int tileSize;
+    private final int tileRows;
+    private final int tileCols;
+    private final int tileCount;
+
+    // Células transitáveis de cada bloco (lotação máxima)
+    private final int[] capacity;
+
+    // Blocos vizinhos (norte, sul, oeste, leste) de cada bloco; -1 se não houver
+    private final int[] neighbours;
+
+    // Chance de um animal sair do seu bloco em um passo
+    private final double leaveProbability;
+
+    // Baldes de idade por espécie: largura (em passos) e quantidade
+    private final int speciesCount;
+    private final int[] bucketWidth;
+    private final int[] bucketCount;
+
+    // Contagens por espécie: [espécie][bloco * baldes + posição do balde].
+    // A posição do balde é o índice do balde de nascimento módulo o número
+    // de baldes, de modo que envelhecer não move nenhuma contagem.
+    private int[][] counts;
+    private int[][] nextCounts;
+
+    // Totais, reprodutores, pais e filhotes de um bloco durante o passo (reutilizados)
+    private final int[] totals;
+    private final int[] breeders;
+    private final long[] parents;
+    private final long[] young;
+
+    // Animais em cada bloco depois dos nascimentos (usado na migração)
+    private final int[] occupancy;
+
+    // Fração de células livres de cada bloco na migração (reutilizada)
+    private final double[] vacancy;
+
+    // Sistema de clima e contador de passos
+    private final WeatherSystem weatherSystem;
+    private int step;
+
+    /**
+     * Cria o motor com uma população inicial aleatória, usando as
+     * probabilidades de criação de cada espécie.
+     *
+     * @param terrainMap O terreno (linhas x colunas).
+     * @param tileSize O lado de cada bloco, em células.
+     */
+    public CohortSimulator(TerrainType[][] terrainMap, int tileSize) {
+        this(terrainMap, tileSize, true);
+    }
+
+    /**
+     * Cria o motor a partir de um campo do motor por agentes, contando cada
+     * animal vivo no balde da sua idade. Usado para validar os dois motores
+     * partindo do mesmo estado.
+     *
+     * @param field O campo de origem.
+     * @param tileSize O lado de cada bloco, em células.
+     * @return O motor de coortes com a mesma população.
+     */
+    public static CohortSimulator fromField(Field field, int tileSize) {
+        TerrainType[][] terrainMap = new TerrainType[field.getDepth()][field.getWidth()];
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                terrainMap[row][col] = field.getTerrainAt(row, col);
+            }
+        }
+        CohortSimulator cohorts = new CohortSimulator(terrainMap, tileSize, false);
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                Actor actor = field.getObjectAt(row, col);
+                if (actor instanceof Animal && actor.isAlive()) {
+                    Animal animal = (Animal) actor;
+                    int tile = (row / tileSize) * cohorts.tileCols + col / tileSize;
+                    cohorts.add(animal.getSpeciesId(), tile, -animal.getAge(), 1);
+                }
+            }
+        }
+        return cohorts;
+    }
+
+    /**
+     * Cria o motor sobre o terreno dado, opcionalmente com população inicial.
+     */
+    private CohortSimulator(TerrainType[][] terrainMap, int tileSize, boolean populate) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tamanho de bloco inválido: " + tileSize);
+        }
+        int depth = terrainMap.length;
+        int width = terrainMap[0].length;
+        this.tileSize = tileSize;
+        tileRows = (depth + tileSize - 1) / tileSize;
+        tileCols = (width + tileSize - 1) / tileSize;
+        tileCount = tileRows * tileCols;
+
+        // Lotação de cada bloco: suas células transitáveis
+        capacity = new int[tileCount];
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                if (terrainMap[row][col].isTraversable()) {
+                    capacity[(row / tileSize) * tileCols + col / tileSize]++;
+                }
+            }
+        }
+
+        // Vizinhos ortogonais; blocos sem células transitáveis não recebem ninguém
+        neighbours = new int[tileCount * 4];
+        for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+            for (int tileCol = 0; tileCol < tileCols; tileCol++) {
+                int tile = tileRow * tileCols + tileCol;
+                neighbours[tile * 4] = neighbourTile(tileRow - 1, tileCol);
+                neighbours[tile * 4 + 1] = neighbourTile(tileRow + 1, tileCol);
+                neighbours[tile * 4 + 2] = neighbourTile(tileRow, tileCol - 1);
+                neighbours[tile * 4 + 3] = neighbourTile(tileRow, tileCol + 1);
+            }
+        }
+
+        // Um passo aleatório na vizinhança 3x3 cruza a borda do bloco, em
+        // cada eixo, com chance 2/(3 * tileSize)
+        double stayPerAxis = 1.0 - 2.0 / (3.0 * tileSize);
+        leaveProbability = 1.0 - stayPerAxis * stayPerAxis;
+
+        // Baldes de idade: no máximo MAX_BUCKETS, cobrindo de 0 a maxAge
+        speciesCount = SpeciesRegistry.getSpeciesCount();
+        bucketWidth = new int[speciesCount];
+        bucketCount = new int[speciesCount];
+        counts = new int[speciesCount][];
+        nextCounts = new int[speciesCount][];
+        for (int s = 0; s < speciesCount; s++) {
+            int lifespan = SpeciesRegistry.getMaxAge(s) + 1;
+            bucketWidth[s] = (lifespan + MAX_BUCKETS - 1) / MAX_BUCKETS;
+            bucketCount[s] = (lifespan + bucketWidth[s] - 1) / bucketWidth[s];
+            counts[s] = new int[tileCount * bucketCount[s]];
+            nextCounts[s] = new int[tileCount * bucketCount[s]];
+        }
+        totals = new int[speciesCount];
+        breeders = new int[speciesCount];
+        parents = new long[speciesCount];
+        young = new long[speciesCount];
+        occupancy = new int[tileCount];
+        vacancy = new double[tileCount];
+
+        weatherSystem = new WeatherSystem();
+        step = 0;
+
+        if (populate) {
+            populate();
+        }
+    }
+
+    /**
+     * @return O índice do bloco dado, ou -1 se estiver fora do mapa ou não
+     *         tiver células transitáveis.
+     */
+    private int neighbourTile(int tileRow, int tileCol) {
+        if (tileRow < 0 || tileRow >= tileRows || tileCol < 0 || tileCol >= tileCols) {
+            return -1;
+        }
+        int tile = tileRow * tileCols + tileCol;
+        return capacity[tile] > 0 ? tile : -1;
+    }
+
+    /**
+     * Sorteia a população inicial de cada bloco. Cada célula transitável
+     * recebe no máximo um animal, com as probabilidades em cascata do
+     * simulador por passos; as idades são uniformes em [0, maxAge). Os
+     * animais de cada espécie são divididos entre os baldes de idade de uma
+     * vez (multinomial pelo número de idades de cada balde), com custo
+     * proporcional a blocos x baldes e não ao número de animais.
+     */
+    private void populate() {
+        // Probabilidade de cada espécie por célula, seguindo a cascata
+        int[] ids = new int[CREATION_ORDER.length];
+        double[] cellProbability = new double[CREATION_ORDER.length];
+        double notYet = 1.0;
+        for (int i = 0; i < CREATION_ORDER.length; i++) {
+            ids[i] = SpeciesRegistry.idOf(CREATION_ORDER[i]);
+            double p = SpeciesRegistry.getCreationProbability(ids[i]);
+            cellProbability[i] = notYet * p;
+            notYet *= 1.0 - p;
+        }
+
+        // Quantas idades de [0, maxAge) caem em cada balde de cada espécie
+        int[][] ageWeights = new int[speciesCount][];
+        for (int s = 0; s < speciesCount; s++) {
+            ageWeights[s] = new int[bucketCount[s]];
+            for (int age = 0; age < SpeciesRegistry.getMaxAge(s); age++) {
+                ageWeights[s][slotOf(s, -age)]++;
+            }
+        }
+
+        for (int tile = 0; tile < tileCount; tile++) {
+            // Divisão multinomial das células do bloco entre as espécies
+            long cells = capacity[tile];
+            double mass = 1.0;
+            for (int i = 0; i < ids.length && cells > 0; i++) {
+                long n = RandomGenerator.binomial(cells, cellProbability[i] / mass);
+                cells -= n;
+                mass -= cellProbability[i];
+                addUniformAges(ids[i], tile, n, ageWeights[ids[i]]);
+            }
+        }
+    }
+
+    /**
+     * Divide animais de idades uniformes entre os baldes do bloco: cada
+     * balde recebe uma binomial do que resta, com a fração das idades
+     * restantes que caem nele.
+     */
+    private void addUniformAges(int species, int tile, long amount, int[] ageWeights) {
+        int base = tile * bucketCount[species];
+        long remainingAges = SpeciesRegistry.getMaxAge(species);
+        for (int slot = 0; slot < ageWeights.length && amount > 0; slot++) {
+            if (ageWeights[slot] == 0) {
+                continue;
+            }
+            long n = RandomGenerator.binomial(amount, (double) ageWeights[slot] / remainingAges);
+            remainingAges -= ageWeights[slot];
+            amount -= n;
+            counts[species][base + slot] += (int) n;
+        }
+    }
+
+    /**
+     * Soma animais nascidos no passo dado ao balde correspondente.
+     */
+    private void add(int species, int tile, int birthStep, int amount) {
+        counts[species][tile * bucketCount[species] + slotOf(species, birthStep)] += amount;
+    }
+
+    /**
+     * @return A posição, no vetor de baldes, dos nascidos no passo dado.
+     */
+    private int slotOf(int species, int birthStep) {
+        return Math.floorMod(Math.floorDiv(birthStep, bucketWidth[species]), bucketCount[species]);
+    }
+
+    /**
+     * Executa a simulação pelo número de passos dado.
+     *
+     * @param numSteps Número de passos a simular.
+     */
+    public void simulate(int numSteps) {
+        for (int i = 0; i < numSteps; i++) {
+            simulateOneStep();
+        }
+    }
+
+    /**
+     * Executa um passo: velhice, predação e fome, nascimentos e migração.
+     */
+    public void simulateOneStep() {
+        step++;
+        weatherSystem.advanceTime();
+        double seasonFactor = weatherSystem.getCurrentSeason().getBreedingFactor();
+
+        // Velhice: ao abrir um balde novo, o balde mais antigo (que ocupa a
+        // mesma posição) morre inteiro
+        for (int s = 0; s < speciesCount; s++) {
+            if (step % bucketWidth[s] == 0) {
+                int slot = slotOf(s, step);
+                int buckets = bucketCount[s];
+                int[] c = counts[s];
+                for (int tile = 0; tile < tileCount; tile++) {
+                    c[tile * buckets + slot] = 0;
+                }
+            }
+        }
+
+        for (int tile = 0; tile < tileCount; tile++) {
+            if (capacity[tile] == 0) {
+                continue;
+            }
+            countTile(tile);
+            prey(tile);
+            countTile(tile);  // Totais e reprodutores depois da predação
+            breed(tile, seasonFactor);
+        }
+
+        migrate();
+    }
+
+    /**
+     * Preenche totals e breeders para o bloco dado.
+     */
+    private void countTile(int tile) {
+        for (int s = 0; s < speciesCount; s++) {
+            int buckets = bucketCount[s];
+            int width = bucketWidth[s];
+            int current = Math.floorDiv(step, width);
+            int breedingAge = SpeciesRegistry.getBreedingAge(s);
+            int[] c = counts[s];
+            int base = tile * buckets;
+            int total = 0;
+            int adults = 0;
+            for (int k = 0; k < buckets; k++) {
+                // k = idade do balde em baldes; idade média dos membros
+                int n = c[base + Math.floorMod(current - k, buckets)];
+                if (n == 0) {
+                    continue;
+                }
+                total += n;
+                double meanAge = k * width + Math.floorMod(step, width) - (width - 1) / 2.0;
+                if (meanAge >= breedingAge) {
+                    adults += n;
+                }
+            }
+            totals[s] = total;
+            breeders[s] = adults;
+        }
+    }
+
+    /**
+     * Predação e fome no bloco: cada predador come uma presa com a chance de
+     * haver presa em alguma das suas células vizinhas; os que não comem
+     * morrem de fome a uma taxa que os mata, em média, em maxFoodValue passos.
+     */
+    private void prey(int tile) {
+        for (int s = 0; s < speciesCount; s++) {
+            int diet = SpeciesRegistry.getDietMask(s);
+            if (diet == 0 || totals[s] == 0) {
+                continue;
+            }
+            int available = 0;
+            for (int d = 0; d < speciesCount; d++) {
+                if ((diet & (1 << d)) != 0) {
+                    available += totals[d];
+                }
+            }
+            double density = Math.min(1.0, (double) available / capacity[tile]);
+            double eatChance = 1.0 - Math.pow(1.0 - density, NEIGHBOUR_CELLS);
+
+            // Presas mortas, divididas entre as espécies da dieta pela abundância
+            long kills = Math.min(available, RandomGenerator.binomial(totals[s], eatChance));
+            for (int d = 0; d < speciesCount && kills > 0; d++) {
+                if ((diet & (1 << d)) == 0 || totals[d] == 0) {
+                    continue;
+                }
+                long killed = Math.min(totals[d],
+                        RandomGenerator.binomial(kills, (double) totals[d] / available));
+                available -= totals[d];
+                if (available == 0) {
+                    killed = Math.min(totals[d], kills);  // Última espécie leva o restante
+                }
+                removeUniformly(d, tile, (int) killed);
+                totals[d] -= (int) killed;
+                kills -= killed;
+            }
+
+            // Fome dos predadores que não comeram
+            double hunger = (1.0 - eatChance) / SpeciesRegistry.getMaxFoodValue(s);
+            int[] c = counts[s];
+            int base = tile * bucketCount[s];
+            for (int k = 0; k < bucketCount[s]; k++) {
+                if (c[base + k] > 0) {
+                    c[base + k] -= (int) RandomGenerator.binomial(c[base + k], hunger);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove do bloco a quantidade dada de animais da espécie, sorteando os
+     * baldes de idade proporcionalmente à sua população.
+     */
+    private void removeUniformly(int species, int tile, int amount) {
+        int[] c = counts[species];
+        int base = tile * bucketCount[species];
+        long remaining = totals[species];
+        for (int k = 0; k < bucketCount[species] && amount > 0; k++) {
+            int n = c[base + k];
+            if (n == 0) {
+                continue;
+            }
+            int taken = remaining == n ? amount
+                    : (int) Math.min(n, RandomGenerator.binomial(amount, (double) n / remaining));
+            taken = Math.min(taken, n);
+            c[base + k] -= taken;
+            amount -= taken;
+            remaining -= n;
+        }
+    }
+
+    /**
+     * Nascimentos no bloco: cada reprodutor procria com a probabilidade da
+     * espécie vezes o fator da estação, com ninhadas de 1 a maxLitterSize.
+     * Os filhotes precisam de células livres vizinhas ao pai; se não houver
+     * para todos, cada pai fica com uma parte igual das células livres (ele
+     * ocupa as da sua vizinhança), independentemente do tamanho da ninhada.
+     */
+    private void breed(int tile, double seasonFactor) {
+        int occupied = 0;
+        long wanted = 0;
+        long allParents = 0;
+        for (int s = 0; s < speciesCount; s++) {
+            occupied += totals[s];
+            parents[s] = 0;
+            young[s] = 0;
+            if (breeders[s] > 0) {
+                double probability = Math.min(1.0, SpeciesRegistry.getBreedingProbability(s) * seasonFactor);
+                parents[s] = RandomGenerator.binomial(breeders[s], probability);
+                young[s] = litters(s, parents[s]);
+            }
+            wanted += young[s];
+            allParents += parents[s];
+        }
+        long free = Math.max(0, capacity[tile] - occupied);
+        for (int s = 0; s < speciesCount && allParents > 0; s++) {
+            long born = young[s];
+            if (wanted > free) {
+                // Divisão das células livres restantes pelo número de pais
+                long share = parents[s] == allParents ? free
+                        : RandomGenerator.binomial(free, (double) parents[s] / allParents);
+                born = Math.min(born, share);
+            }
+            allParents -= parents[s];
+            free -= born;
+            occupied += (int) born;
+            if (born > 0) {
+                add(s, tile, step, (int) born);
+            }
+        }
+        occupancy[tile] = occupied;
+    }
+
+    /**
+     * @return O número de filhotes das ninhadas dos pais dados, limitado a
+     *         uma célula vizinha por filhote.
+     */
+    private long litters(int species, long parentCount) {
+        if (parentCount == 0) {
+            return 0;
+        }
+        // Soma de ninhadas uniformes em [1, maxLitterSize]
+        int maxLitter = SpeciesRegistry.getMaxLitterSize(species);
+        long total;
+        if (parentCount < 16) {
+            total = 0;
+            for (long i = 0; i < parentCount; i++) {
+                total += RandomGenerator.nextInt(maxLitter) + 1;
+            }
+        } else {
+            double mean = parentCount * (maxLitter + 1) / 2.0;
+            double variance = parentCount * (maxLitter * (double) maxLitter - 1) / 12.0;
+            total = Math.max(0, Math.round(mean + Math.sqrt(variance)
+                    * RandomGenerator.getRandom().nextGaussian()));
+        }
+        return Math.min(total, parentCount * NEIGHBOUR_CELLS);
+    }
+
+    /**
+     * Migração: de cada balde, os que saem do bloco são divididos entre os
+     * quatro vizinhos. Um animal só entra em célula livre, então cada um
+     * consegue entrar no vizinho com a fração de células livres dele; quem
+     * iria para fora do mapa, para um bloco intransitável ou não encontrou
+     * lugar fica onde está.
+     */
+    private void migrate() {
+        for (int tile = 0; tile < tileCount; tile++) {
+            vacancy[tile] = capacity[tile] > 0
+                ? Math.max(0.0, 1.0 - (double) occupancy[tile] / capacity[tile]) : 0.0;
+        }
+        for (int s = 0; s < speciesCount; s++) {
+            int buckets = bucketCount[s];
+            int[] c = counts[s];
+            int[] next = nextCounts[s];
+            Arrays.fill(next, 0);
+            for (int tile = 0; tile < tileCount; tile++) {
+                int base = tile * buckets;
+                for (int k = 0; k < buckets; k++) {
+                    int n = c[base + k];
+                    if (n == 0) {
+                        continue;
+                    }
+                    int leaving = (int) RandomGenerator.binomial(n, leaveProbability);
+                    next[base + k] += n - leaving;
+                    for (int direction = 0; direction < 4 && leaving > 0; direction++) {
+                        int share = direction == 3 ? leaving
+                                : (int) RandomGenerator.binomial(leaving, 1.0 / (4 - direction));
+                        leaving -= share;
+                        int target = neighbours[tile * 4 + direction];
+                        int moved = target < 0 ? 0 : (int) RandomGenerator.binomial(share, vacancy[target]);
+                        next[base + k] += share - moved;
+                        if (moved > 0) {
+                            next[target * buckets + k] += moved;
+                        }
+                    }
+                }
+            }
+            // Troca os vetores: as contagens novas se tornam as atuais
+            counts[s] = next;
+            nextCounts[s] = c;
+        }
+    }
+
+    /**
+     * @param species O identificador da espécie.
+     * @return A população total da espécie.
+     */
+    public long getPopulation(int species) {
+        long total = 0;
+        for (int n : counts[species]) {
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * @param species O identificador da espécie.
+     * @param tileRow A linha do bloco.
+     * @param tileCol A coluna do bloco.
+     * @return A população da espécie no bloco.
+     */
+    public int getPopulation(int species, int tileRow, int tileCol) {
+        int buckets = bucketCount[species];
+        int base = (tileRow * tileCols + tileCol) * buckets;
+        int total = 0;
+        for (int k = 0; k < buckets; k++) {
+            total += counts[species][base + k];
+        }
+        return total;
+    }
+
+    /**
+     * @return O lado de cada bloco, em células.
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * @return O número de linhas de blocos.
+     */
+    public int getTileRows() {
+        return tileRows;
+    }
+
+    /**
+     * @return O número de colunas de blocos.
+     */
+    public int getTileCols() {
+        return tileCols;
+    }
+
+    /**
+     * @return O passo atual da simulação.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return A estação atual.
+     */
+    public Season getCurrentSeason() {
+        return weatherSystem.getCurrentSeason();
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Enumeração das causas de morte de um animal, registradas nas
+ * trajetórias (ver TrajectoryTracer).
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public enum DeathCause {
+    OLD_AGE("Velhice"),
+    STARVATION("Fome"),
+    EATEN("Predação"),
+    HUNTED("Caça"),
+    OVERCROWDING("Superlotação"), // Sem célula livre para onde ir
+    UNKNOWN("Desconhecida");
+
+    // Nome legível da causa para exibição
+    private final String name;
+
+    /**
+     * Construtor da causa.
+     *
+     * @param name Nome da causa em português.
+     */
+    DeathCause(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return O nome da causa.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
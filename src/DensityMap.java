@@ -0,0 +1,95 @@
+import java.util.stream.IntStream;
+
+/**
+ * Tabelas de soma acumulada (summed-area tables) da ocupação de cada espécie.
+ * Reconstruídas uma vez por passo a partir dos bitsets do campo, permitem
+ * contar quantos animais de uma espécie existem em qualquer retângulo com
+ * quatro leituras, independentemente do raio consultado.
+ * 
+ * A reconstrução é feita em duas passadas paralelas: somas por linha
+ * (linhas independentes) e depois somas por coluna (faixas de colunas
+ * independentes).
+ * 
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class DensityMap {
+    
+    // Número de colunas de cada faixa na passada vertical
+    private static final int COLUMN_BAND = 256;
+    
+    // Dimensões do campo
+    private final int depth, width;
+    
+    // Uma tabela por espécie com (depth + 1) x (width + 1) entradas;
+    // a entrada (r, c) guarda a contagem no retângulo [0, r) x [0, c)
+    private final int[][] tables;
+
+    /**
+     * Cria as tabelas (vazias) para um campo.
+     *
+     * @param depth A profundidade do campo.
+     * @param width A largura do campo.
+     */
+    public DensityMap(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        tables = new int[SpeciesRegistry.getSpeciesCount()][(depth + 1) * (width + 1)];
+    }
+
+    /**
+     * Reconstrói todas as tabelas a partir da ocupação atual do campo.
+     *
+     * @param field O campo atual.
+     */
+    public void rebuild(Field field) {
+        for (int species = 0; species < tables.length; species++) {
+            int[] table = tables[species];
+            int id = species;
+            // Passada 1: soma acumulada ao longo de cada linha
+            IntStream.range(0, depth).parallel().forEach(row -> {
+                int base = (row + 1) * (width + 1);
+                int sum = 0;
+                for (int col = 0; col < width; col++) {
+                    if (field.hasSpeciesAt(id, row, col)) {
+                        sum++;
+                    }
+                    table[base + col + 1] = sum;
+                }
+            });
+            // Passada 2: soma acumulada ao longo de cada coluna, por faixas
+            int bands = (width + COLUMN_BAND - 1) / COLUMN_BAND;
+            IntStream.range(0, bands).parallel().forEach(band -> {
+                int colEnd = Math.min((band + 1) * COLUMN_BAND, width) + 1;
+                for (int row = 2; row <= depth; row++) {
+                    int base = row * (width + 1);
+                    int above = base - (width + 1);
+                    for (int col = band * COLUMN_BAND + 1; col < colEnd; col++) {
+                        table[base + col] += table[above + col];
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Retorna a densidade de uma espécie no quadrado de raio dado em torno
+     * de uma célula (recortado nas bordas do campo).
+     *
+     * @param species O identificador da espécie.
+     * @param location O centro do quadrado.
+     * @param radius O raio (o quadrado tem lado 2 * raio + 1).
+     * @return A fração das células do quadrado ocupadas pela espécie (0.0 a 1.0).
+     */
+    public double getDensity(int species, Location location, int radius) {
+        int top = Math.max(0, location.getRow() - radius);
+        int left = Math.max(0, location.getCol() - radius);
+        int bottom = Math.min(depth, location.getRow() + radius + 1);
+        int right = Math.min(width, location.getCol() + radius + 1);
+        int[] table = tables[species];
+        int stride = width + 1;
+        int count = table[bottom * stride + right] - table[top * stride + right]
+                - table[bottom * stride + left] + table[top * stride + left];
+        return (double) count / ((bottom - top) * (right - left));
+    }
+}
@@ -0,0 +1,234 @@
+import java.util.function.Supplier;
+
+/**
+ * Compara dois motores de simulação passo a passo, a partir da mesma
+ * semente, e aponta o primeiro passo e a primeira célula em que eles
+ * divergem. Serve para provar que uma versão otimizada de um motor
+ * reproduz exatamente o motor de referência (Simulator).
+ *
+ * A comparação usa o hash de estado mantido pelo Field (ver StateHash):
+ * um número por passo, sem copiar o campo. Os motores compartilham o
+ * gerador de números aleatórios e o estado estático dos animais, então
+ * não podem avançar intercalados na mesma JVM; cada um é executado
+ * inteiro a partir da semente, guardando o hash de cada passo, e as
+ * sequências são comparadas. No primeiro passo diferente, os dois são
+ * executados de novo até esse passo para localizar a célula.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class DifferentialHarness {
+
+    /**
+     * Um motor que avança um passo por vez sobre um Field.
+     */
+    public interface Engine {
+        /**
+         * Avança um passo (um dia).
+         */
+        void step();
+
+        /**
+         * @return O campo com o estado atual.
+         */
+        Field getField();
+    }
+
+    /**
+     * O primeiro ponto em que os motores divergem.
+     */
+    public static final class Divergence {
+        private final int step;
+        private final int row, col;
+        private final int codeA, codeB;
+
+        Divergence(int step, int row, int col, int codeA, int codeB) {
+            this.step = step;
+            this.row = row;
+            this.col = col;
+            this.codeA = codeA;
+            this.codeB = codeB;
+        }
+
+        /**
+         * @return O passo da divergência (0 = estado inicial).
+         */
+        public int getStep() {
+            return step;
+        }
+
+        /**
+         * @return A linha da primeira célula diferente.
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * @return A coluna da primeira célula diferente.
+         */
+        public int getCol() {
+            return col;
+        }
+
+        @Override
+        public String toString() {
+            return "Divergência no passo " + step + ", célula (" + row + ", " + col + "): "
+                   + describe(codeA) + " contra " + describe(codeB);
+        }
+
+        /**
+         * @return O conteúdo de uma célula pelo código (ver TimelineRecorder).
+         */
+        private static String describe(int code) {
+            if (code == TimelineRecorder.EMPTY) {
+                return "vazia";
+            }
+            if (code == (TimelineRecorder.HUNTER & 0xFF)) {
+                return "caçador";
+            }
+            return SpeciesRegistry.getName(code - 1);
+        }
+    }
+
+    private final Supplier<Engine> factoryA;
+    private final Supplier<Engine> factoryB;
+    private final long seed;
+
+    /**
+     * Cria um comparador. As fábricas devem criar um motor novo a cada
+     * chamada; o gerador compartilhado é reiniciado com a semente antes.
+     *
+     * @param factoryA Cria o motor de referência.
+     * @param factoryB Cria o motor comparado.
+     * @param seed A semente das duas execuções.
+     */
+    public DifferentialHarness(Supplier<Engine> factoryA, Supplier<Engine> factoryB, long seed) {
+        this.factoryA = factoryA;
+        this.factoryB = factoryB;
+        this.seed = seed;
+    }
+
+    /**
+     * Executa os dois motores pelo número de passos dado.
+     *
+     * @param steps O número de passos.
+     * @return A primeira divergência, ou null se os estados coincidem em todos os passos.
+     */
+    public Divergence run(int steps) {
+        long[] hashesA = trace(factoryA, steps);
+        long[] hashesB = trace(factoryB, steps);
+        for (int s = 0; s <= steps; s++) {
+            if (hashesA[s] != hashesB[s]) {
+                return locate(s);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return O hash do estado inicial e de cada passo de uma execução.
+     */
+    private long[] trace(Supplier<Engine> factory, int steps) {
+        RandomGenerator.setSeed(seed);
+        Engine engine = factory.get();
+        long[] hashes = new long[steps + 1];
+        hashes[0] = engine.getField().getStateHash();
+        for (int s = 1; s <= steps; s++) {
+            engine.step();
+            hashes[s] = engine.getField().getStateHash();
+        }
+        return hashes;
+    }
+
+    /**
+     * Executa os dois motores de novo até o passo dado e procura a
+     * primeira célula (em ordem de linha) com contribuição diferente.
+     */
+    private Divergence locate(int step) {
+        byte[] codesA = null;
+        long[] cellsA = null;
+        Field fieldB = null;
+        for (int run = 0; run < 2; run++) {
+            RandomGenerator.setSeed(seed);
+            Engine engine = (run == 0 ? factoryA : factoryB).get();
+            for (int s = 1; s <= step; s++) {
+                engine.step();
+            }
+            Field field = engine.getField();
+            if (run == 0) {
+                // Guarda o estado de A antes de criar B (que altera o estado compartilhado)
+                codesA = new byte[field.getDepth() * field.getWidth()];
+                TimelineRecorder.captureCodes(field, codesA);
+                cellsA = new long[codesA.length];
+                for (int row = 0; row < field.getDepth(); row++) {
+                    for (int col = 0; col < field.getWidth(); col++) {
+                        cellsA[row * field.getWidth() + col] = field.getCellHash(row, col);
+                    }
+                }
+            } else {
+                fieldB = field;
+            }
+        }
+
+        int width = fieldB.getWidth();
+        byte[] codesB = new byte[codesA.length];
+        TimelineRecorder.captureCodes(fieldB, codesB);
+        for (int cell = 0; cell < codesA.length; cell++) {
+            int row = cell / width;
+            int col = cell % width;
+            if (cellsA[cell] != fieldB.getCellHash(row, col)) {
+                return new Divergence(step, row, col, codesA[cell] & 0xFF, codesB[cell] & 0xFF);
+            }
+        }
+        return new Divergence(step, -1, -1, 0, 0);  // Execuções não reproduzíveis com a mesma semente
+    }
+
+    /**
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param terrainMap O terreno.
+     * @param hunterCount Número de caçadores.
+     * @return Uma fábrica do motor por passos (Simulator) sem janela.
+     */
+    public static Supplier<Engine> stepEngine(int depth, int width, TerrainType[][] terrainMap, int hunterCount) {
+        return () -> {
+            Simulator simulator = new Simulator(depth, width, terrainMap, hunterCount);
+            return new Engine() {
+                @Override
+                public void step() {
+                    simulator.simulateOneStep();
+                }
+
+                @Override
+                public Field getField() {
+                    return simulator.getField();
+                }
+            };
+        };
+    }
+
+    /**
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param terrainMap O terreno.
+     * @param hunterCount Número de caçadores.
+     * @return Uma fábrica do motor orientado a eventos, avançando um dia por passo.
+     */
+    public static Supplier<Engine> eventEngine(int depth, int width, TerrainType[][] terrainMap, int hunterCount) {
+        return () -> {
+            EventSimulator simulator = new EventSimulator(depth, width, terrainMap, hunterCount);
+            return new Engine() {
+                @Override
+                public void step() {
+                    simulator.runUntil(Math.floor(simulator.getTime()) + 1);
+                }
+
+                @Override
+                public Field getField() {
+                    return simulator.getField();
+                }
+            };
+        };
+    }
+}
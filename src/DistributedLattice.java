@@ -0,0 +1,287 @@
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Executa o motor em reticulado dividido em faixas de linhas, cada uma em
+ * um processo (JVM) próprio, para mapas grandes demais para a banda de
+ * memória de um só processo. As faixas trocam as linhas de halo
+ * diretamente entre si (ver LatticeWorker); este coordenador só inicia os
+ * processos, apresenta as vizinhas e recolhe as populações de cada passo
+ * e o estado final.
+ *
+ * Tudo roda na interface local (localhost), então a execução distribuída
+ * pode ser conferida em uma só máquina: com a mesma semente, o resultado
+ * é idêntico ao do LatticeSimulator em um só processo (ver main).
+ *
+ * As faixas são retângulos de largura total: cortes só entre linhas
+ * mantêm cada linha de halo contígua na memória e cada faixa com no
+ * máximo duas vizinhas.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class DistributedLattice {
+
+    // Tempo máximo de espera pela conexão de todos os processos
+    private static final long STARTUP_TIMEOUT_MILLIS = 60_000;
+
+    private final String map;
+    private final int depth, width;
+    private final long seed;
+    private final int processes;
+    private final List<String> overrides;
+
+    // Resultados da última execução
+    private long[][] populations;  // [passo][espécie]
+    private byte[] finalState;     // Linhas no formato de LatticeSimulator.exportRow(STATE)
+
+    /**
+     * Cria uma execução distribuída.
+     *
+     * @param map O mapa ("GRASS_ONLY" ou arquivo em Mapas/).
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param seed Semente das decisões aleatórias.
+     * @param processes Número de faixas (processos).
+     */
+    public DistributedLattice(String map, int depth, int width, long seed, int processes) {
+        if (processes < 1 || processes > depth) {
+            throw new IllegalArgumentException("Número de processos inválido: " + processes);
+        }
+        this.map = map;
+        this.depth = depth;
+        this.width = width;
+        this.seed = seed;
+        this.processes = processes;
+        overrides = new ArrayList<>();
+    }
+
+    /**
+     * Altera um parâmetro das espécies em todas as faixas (ver SpeciesParameters.set).
+     *
+     * @param key A espécie e o parâmetro (ex. "Fox.breedingProbability").
+     * @param value O novo valor.
+     */
+    public void set(String key, double value) {
+        SpeciesParameters.fromRegistry().set(key, value);  // Valida antes de iniciar os processos
+        overrides.add(key + "=" + value);
+    }
+
+    /**
+     * @param k O índice da faixa (k = processos dá o fim da última).
+     * @param processes O número de faixas.
+     * @param depth A profundidade do campo.
+     * @return A primeira linha da faixa; as faixas diferem em no máximo uma linha.
+     */
+    static int firstRow(int k, int processes, int depth) {
+        return (int) ((long) depth * k / processes);
+    }
+
+    /**
+     * Inicia os processos, executa o número de passos dado e recolhe os
+     * resultados. Se algum processo falhar, os outros são encerrados.
+     *
+     * @param steps O número de passos.
+     * @throws IOException Se um processo falhar ou a comunicação for interrompida.
+     */
+    public void run(int steps) throws IOException {
+        int speciesCount = SpeciesParameters.fromRegistry().getSpeciesCount();
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        List<Process> workers = new ArrayList<>();
+        SocketChannel[] channels = new SocketChannel[processes];
+        try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress(loopback, 0))) {
+            int port = server.socket().getLocalPort();
+            for (int k = 0; k < processes; k++) {
+                workers.add(launch(port, k, steps));
+            }
+
+            // Apresentação: índice e porta de cada faixa
+            int[] ports = new int[processes];
+            ByteBuffer message = ByteBuffer.allocate(8);
+            for (int connected = 0; connected < processes; connected++) {
+                SocketChannel channel = accept(server, workers);
+                message.clear();
+                LatticeWorker.readFully(channel, message);
+                message.flip();
+                int index = message.getInt();
+                channels[index] = channel;
+                ports[index] = message.getInt();
+            }
+            for (int k = 0; k < processes; k++) {
+                message.clear();
+                message.putInt(k + 1 < processes ? ports[k + 1] : -1).flip();
+                LatticeWorker.writeFully(channels[k], message);
+            }
+
+            // Populações: a soma das faixas, passo a passo
+            populations = new long[steps + 1][speciesCount];
+            ByteBuffer counts = ByteBuffer.allocate(8 * speciesCount);
+            for (int step = 0; step <= steps; step++) {
+                for (SocketChannel channel : channels) {
+                    counts.clear();
+                    LatticeWorker.readFully(channel, counts);
+                    counts.flip();
+                    for (int id = 0; id < speciesCount; id++) {
+                        populations[step][id] += counts.getLong();
+                    }
+                }
+            }
+
+            // Estado final, faixa por faixa (as faixas estão em ordem de linha)
+            List<ByteBuffer> parts = new ArrayList<>();
+            int total = 0;
+            for (SocketChannel channel : channels) {
+                ByteBuffer length = ByteBuffer.allocate(4);
+                LatticeWorker.readFully(channel, length);
+                ByteBuffer part = ByteBuffer.allocate(length.flip().getInt());
+                LatticeWorker.readFully(channel, part);
+                parts.add(part.flip());
+                total += part.remaining();
+            }
+            ByteBuffer assembled = ByteBuffer.allocate(total);
+            for (ByteBuffer part : parts) {
+                assembled.put(part);
+            }
+            finalState = assembled.array();
+
+            for (Process worker : workers) {
+                if (worker.waitFor() != 0) {
+                    throw new IOException("Processo de faixa terminou com código " + worker.exitValue());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Execução distribuída interrompida", e);
+        } finally {
+            for (SocketChannel channel : channels) {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+            for (Process worker : workers) {
+                worker.destroy();  // Sem efeito nos que já terminaram
+            }
+        }
+    }
+
+    /**
+     * Inicia o processo de uma faixa com o mesmo Java e classpath deste.
+     */
+    private Process launch(int port, int k, int steps) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        String speciesFile = System.getProperty("simulador.especies");
+        if (speciesFile != null) {
+            command.add("-Dsimulador.especies=" + speciesFile);
+        }
+        command.add("LatticeWorker");
+        Collections.addAll(command, String.valueOf(port), String.valueOf(k), String.valueOf(processes), map,
+                           String.valueOf(depth), String.valueOf(width), String.valueOf(seed),
+                           String.valueOf(steps));
+        command.addAll(overrides);
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);  // Mensagens de carga do mapa
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        return builder.start();
+    }
+
+    /**
+     * Aceita a próxima conexão de faixa, sem esperar por processos que já morreram.
+     */
+    private static SocketChannel accept(ServerSocketChannel server, List<Process> workers) throws IOException {
+        server.configureBlocking(false);
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+        try (Selector selector = Selector.open()) {
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            while (System.currentTimeMillis() < deadline) {
+                SocketChannel channel = server.accept();
+                if (channel != null) {
+                    channel.configureBlocking(true);
+                    return channel;
+                }
+                for (Process worker : workers) {
+                    if (!worker.isAlive() && worker.exitValue() != 0) {
+                        throw new IOException("Processo de faixa falhou ao iniciar (código " + worker.exitValue() + ")");
+                    }
+                }
+                selector.select(100);
+                selector.selectedKeys().clear();
+            }
+        }
+        throw new IOException("Os processos de faixa não se conectaram a tempo");
+    }
+
+    /**
+     * @param step O passo (0 = estado inicial).
+     * @param speciesId O identificador da espécie.
+     * @return A população da espécie no passo dado da última execução.
+     */
+    public long getPopulation(int step, int speciesId) {
+        return populations[step][speciesId];
+    }
+
+    /**
+     * Compara a execução distribuída com a de um só processo. Argumentos
+     * opcionais: processos, passos, mapa, profundidade, largura e semente.
+     *
+     * @param args Os argumentos, na ordem acima.
+     * @throws IOException Se a execução distribuída falhar.
+     */
+    public static void main(String[] args) throws IOException {
+        int processes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        String map = args.length > 2 ? args[2] : "GRASS_ONLY";
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 400;
+        int width = args.length > 4 ? Integer.parseInt(args[4]) : 400;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 42;
+
+        DistributedLattice distributed = new DistributedLattice(map, depth, width, seed, processes);
+        long start = System.nanoTime();
+        distributed.run(steps);
+        long distributedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        TerrainType[][] terrain = Simulator.loadTerrain(depth, width, map, false);
+        start = System.nanoTime();
+        LatticeSimulator single = new LatticeSimulator(terrain, seed, SpeciesParameters.fromRegistry());
+        int speciesCount = SpeciesParameters.fromRegistry().getSpeciesCount();
+        int firstDifference = -1;
+        for (int step = 0; step <= steps && firstDifference < 0; step++) {
+            if (step > 0) {
+                single.simulateOneStep();
+            }
+            for (int id = 0; id < speciesCount; id++) {
+                if (single.getPopulation(id) != distributed.getPopulation(step, id)) {
+                    firstDifference = step;
+                }
+            }
+        }
+        long singleMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println(processes + " processos, " + steps + " passos, " + depth + "x" + width
+                           + ": distribuído " + distributedMillis + " ms, um processo " + singleMillis + " ms");
+        if (firstDifference >= 0) {
+            System.out.println("Populações diferentes a partir do passo " + firstDifference);
+            return;
+        }
+        ByteBuffer state = ByteBuffer.allocate(distributed.finalState.length);
+        for (int row = 0; row < depth; row++) {
+            single.exportRow(row, LatticeSimulator.STATE, state);
+        }
+        System.out.println(Arrays.equals(state.array(), distributed.finalState)
+                           ? "Resultados idênticos ao processo único"
+                           : "Estado final diferente do processo único");
+    }
+}
@@ -0,0 +1,622 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Executa lotes de réplicas do motor por passos em um conjunto de
+ * processos (JVMs) de trabalho, para que uma execução problemática (por
+ * exemplo, uma explosão de coelhos que estoura a memória) não derrube o
+ * lote inteiro.
+ *
+ * Cada processo (ver EnsembleWorker) executa uma réplica por vez, com o
+ * seu próprio limite de memória (-Xmx), e é reaproveitado pelas réplicas
+ * seguintes. As réplicas ficam em uma fila local; uma thread por processo
+ * retira a próxima, envia a especificação ao processo por um socket
+ * local e lê o resumo binário de volta. A saída padrão dos processos é
+ * descartada, então nem as mensagens do simulador nem as da própria JVM
+ * (como o aviso de falta de memória) se misturam com os resumos.
+ * Se o processo morrer (falta de
+ * memória ou outro erro) ou passar do tempo limite, a réplica é marcada
+ * como CRASHED ou TIMED_OUT e um processo novo é iniciado para as demais.
+ * Se um processo não conseguir nem se conectar, a vaga tenta de novo
+ * algumas vezes; esgotadas as tentativas, a réplica da vez também fica
+ * como CRASHED e o lote segue com os resultados que já tem.
+ *
+ * Cada réplica pode trazer parâmetros das espécies próprios, instalados
+ * na registry do processo só para ela, e o lote pode abortar cedo as
+ * réplicas cujo destino já está decidido (extinção, explosão ou regime);
+ * é assim que a SweepRunner varre parâmetros no motor por passos.
+ *
+ * As réplicas não são repetidas depois de uma falha: com a mesma semente,
+ * o motor é determinístico e falharia do mesmo jeito.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class EnsembleRunner {
+
+    /**
+     * Como terminou uma réplica.
+     */
+    public enum Outcome {
+        COMPLETED,  // Chegou ao número de passos pedido
+        COLLAPSED,  // Nenhum animal vivo antes do fim
+        CRASHED,    // O processo morreu (ex. sem memória)
+        TIMED_OUT,  // Passou do tempo limite e foi encerrado
+        STEADY,     // As populações entraram em regime (ver setSteadyStateDetection)
+        EXPLODED    // Campo cheio e sem predadores (ver setExplosionOccupancy)
+    }
+
+    /**
+     * Uma réplica a executar: mapa, caçadores, semente, passos e,
+     * opcionalmente, parâmetros das espécies diferentes dos da registry.
+     */
+    public static final class RunSpec {
+        private final String map;
+        private final int hunters;
+        private final long seed;
+        private final int steps;
+        private final String[] parameterKeys;
+        private final double[] parameterValues;
+
+        /**
+         * @param map O mapa ("GRASS_ONLY" ou arquivo em Mapas/).
+         * @param hunters O número de caçadores.
+         * @param seed A semente do gerador.
+         * @param steps O número de passos.
+         */
+        public RunSpec(String map, int hunters, long seed, int steps) {
+            this(map, hunters, seed, steps, new String[0], new double[0]);
+        }
+
+        /**
+         * @param map O mapa ("GRASS_ONLY" ou arquivo em Mapas/).
+         * @param hunters O número de caçadores.
+         * @param seed A semente do gerador.
+         * @param steps O número de passos.
+         * @param parameterKeys Parâmetros alterados, como "Fox.breedingProbability".
+         * @param parameterValues O valor de cada parâmetro alterado.
+         * @throws IllegalArgumentException Se algum parâmetro ou valor não
+         *         servir (ver SpeciesParameters.check).
+         */
+        public RunSpec(String map, int hunters, long seed, int steps,
+                       String[] parameterKeys, double[] parameterValues) {
+            if (parameterKeys.length != parameterValues.length) {
+                throw new IllegalArgumentException("Parâmetros e valores em números diferentes");
+            }
+            for (int k = 0; k < parameterKeys.length; k++) {
+                SpeciesParameters.check(parameterKeys[k], parameterValues[k]);
+            }
+            this.map = map;
+            this.hunters = hunters;
+            this.seed = seed;
+            this.steps = steps;
+            this.parameterKeys = parameterKeys.clone();
+            this.parameterValues = parameterValues.clone();
+        }
+
+        /**
+         * @return O mapa da réplica.
+         */
+        public String getMap() {
+            return map;
+        }
+
+        /**
+         * @return O número de caçadores.
+         */
+        public int getHunters() {
+            return hunters;
+        }
+
+        /**
+         * @return A semente da réplica.
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return O número de passos pedido.
+         */
+        public int getSteps() {
+            return steps;
+        }
+    }
+
+    /**
+     * O resumo de uma réplica.
+     */
+    public static final class Result {
+        private final RunSpec spec;
+        private final Outcome outcome;
+        private final int steps;
+        private final int[] populations;
+        private final int hunters;
+        private final int millis;
+
+        Result(RunSpec spec, Outcome outcome, int steps, int[] populations, int hunters, int millis) {
+            this.spec = spec;
+            this.outcome = outcome;
+            this.steps = steps;
+            this.populations = populations;
+            this.hunters = hunters;
+            this.millis = millis;
+        }
+
+        /**
+         * @return A réplica executada.
+         */
+        public RunSpec getSpec() {
+            return spec;
+        }
+
+        /**
+         * @return Como a réplica terminou.
+         */
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @return O número de passos executados (0 se o processo falhou).
+         */
+        public int getSteps() {
+            return steps;
+        }
+
+        /**
+         * @param speciesId O identificador da espécie.
+         * @return A população final da espécie (0 se o processo falhou).
+         */
+        public int getPopulation(int speciesId) {
+            return speciesId < populations.length ? populations[speciesId] : 0;
+        }
+
+        /**
+         * @return O número final de caçadores.
+         */
+        public int getHunters() {
+            return hunters;
+        }
+
+        /**
+         * @return O tempo da réplica no processo de trabalho, em milissegundos.
+         */
+        public int getMillis() {
+            return millis;
+        }
+    }
+
+    // Valores padrão
+    private static final int DEFAULT_SIZE = 50;             // Profundidade e largura do campo
+    private static final int DEFAULT_HEAP_MEGABYTES = 256;  // Memória máxima de cada processo
+
+    // Código de saída da JVM com -XX:+ExitOnOutOfMemoryError
+    private static final int OUT_OF_MEMORY_EXIT = 3;
+
+    // Tempo máximo para um processo novo se conectar
+    private static final long STARTUP_TIMEOUT_MILLIS = 60_000;
+
+    // Tentativas de iniciar um processo antes de dar a réplica como CRASHED
+    private static final int MAX_START_ATTEMPTS = 3;
+
+    private int workers;
+    private int heapMegabytes;
+    private long timeoutMillis;
+    private int depth, width;
+    private double explosionOccupancy;  // 0 = sem parada por explosão
+    private int steadyWindow;           // 0 = sem parada em regime
+    private double steadyTolerance;
+
+    /**
+     * Cria um executor com um processo por núcleo e sem tempo limite.
+     */
+    public EnsembleRunner() {
+        workers = Runtime.getRuntime().availableProcessors();
+        heapMegabytes = DEFAULT_HEAP_MEGABYTES;
+        depth = DEFAULT_SIZE;
+        width = DEFAULT_SIZE;
+    }
+
+    /**
+     * @param count O número de processos de trabalho.
+     */
+    public void setWorkers(int count) {
+        workers = Math.max(1, count);
+    }
+
+    /**
+     * @param megabytes A memória máxima (heap) de cada processo, e portanto de cada réplica.
+     */
+    public void setHeapLimit(int megabytes) {
+        heapMegabytes = Math.max(16, megabytes);
+    }
+
+    /**
+     * @param seconds O tempo máximo de uma réplica (0 = sem limite).
+     */
+    public void setRunTimeout(double seconds) {
+        timeoutMillis = (long) (Math.max(0, seconds) * 1000);
+    }
+
+    /**
+     * @param fieldDepth Profundidade do campo.
+     * @param fieldWidth Largura do campo.
+     */
+    public void setFieldSize(int fieldDepth, int fieldWidth) {
+        depth = fieldDepth;
+        width = fieldWidth;
+    }
+
+    /**
+     * Liga a parada das réplicas cuja população explode: com a fração dada
+     * das células transitáveis ocupada e nenhum predador vivo, nada mais
+     * reduz a população e a réplica termina como EXPLODED.
+     *
+     * @param occupancy A fração de ocupação (0 desliga).
+     */
+    public void setExplosionOccupancy(double occupancy) {
+        explosionOccupancy = Math.max(0, occupancy);
+    }
+
+    /**
+     * Liga a parada das réplicas que entram em regime (ver SteadyStateMonitor).
+     *
+     * @param window Passos de cada janela comparada (0 desliga).
+     * @param tolerance Diferença relativa aceita entre os ciclos de estações.
+     */
+    public void setSteadyStateDetection(int window, double tolerance) {
+        steadyWindow = Math.max(0, window);
+        steadyTolerance = tolerance;
+    }
+
+    /**
+     * Executa todas as réplicas nos processos de trabalho.
+     *
+     * @param specs As réplicas.
+     * @return Os resultados, na ordem das réplicas (ver run(List, Consumer)).
+     * @throws IOException Se o lote for interrompido.
+     */
+    public List<Result> run(List<RunSpec> specs) throws IOException {
+        return run(specs, result -> { });
+    }
+
+    /**
+     * Executa todas as réplicas nos processos de trabalho, avisando cada
+     * resultado assim que ele chega.
+     *
+     * @param specs As réplicas.
+     * @param listener Recebe cada resultado; é chamado pelas threads do
+     *                 conjunto, possivelmente ao mesmo tempo.
+     * @return Os resultados, na ordem das réplicas. Uma réplica cujo
+     *         processo não pôde ser iniciado (depois de MAX_START_ATTEMPTS
+     *         tentativas) é marcada como CRASHED, e o lote continua.
+     * @throws IOException Se o lote for interrompido.
+     */
+    public List<Result> run(List<RunSpec> specs, Consumer<Result> listener) throws IOException {
+        BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+        for (int i = 0; i < specs.size(); i++) {
+            queue.add(i);
+        }
+        Result[] results = new Result[specs.size()];
+        AtomicInteger finished = new AtomicInteger();
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ensemble-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        System.out.println("Lote: " + specs.size() + " réplicas em " + workers + " processos de "
+                           + heapMegabytes + " MB");
+
+        List<Slot> slots = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int k = 0; k < Math.min(workers, specs.size()); k++) {
+            Slot slot = new Slot(specs, queue, results, finished, watchdog, listener);
+            Thread thread = new Thread(slot, "ensemble-" + k);
+            slots.add(slot);
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.clear();  // Nenhuma réplica nova; as em curso são encerradas abaixo
+            throw new IOException("Lote interrompido", e);
+        } finally {
+            for (Slot slot : slots) {
+                slot.stop();
+            }
+            watchdog.shutdownNow();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Uma vaga do conjunto: um processo de trabalho (reiniciado quando
+     * morre) e a thread que lhe entrega as réplicas da fila.
+     */
+    private final class Slot implements Runnable {
+        private final List<RunSpec> specs;
+        private final BlockingQueue<Integer> queue;
+        private final Result[] results;
+        private final AtomicInteger finished;
+        private final ScheduledExecutorService watchdog;
+        private final Consumer<Result> listener;
+
+        private volatile Process process;
+        private Socket socket;
+        private DataOutputStream requests;
+        private DataInputStream replies;
+
+        Slot(List<RunSpec> specs, BlockingQueue<Integer> queue, Result[] results, AtomicInteger finished,
+             ScheduledExecutorService watchdog, Consumer<Result> listener) {
+            this.specs = specs;
+            this.queue = queue;
+            this.results = results;
+            this.finished = finished;
+            this.watchdog = watchdog;
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            Integer index;
+            while ((index = queue.poll()) != null) {
+                RunSpec spec = specs.get(index);
+                if (process == null && !startWithRetries()) {
+                    // Sem processo para esta réplica; a próxima tenta de novo
+                    results[index] = new Result(spec, Outcome.CRASHED, 0, new int[0], 0, 0);
+                    System.err.println("Réplica " + index + " (mapa " + spec.map + ", semente " + spec.seed
+                                       + "): CRASHED; o processo de trabalho não pôde ser iniciado");
+                } else {
+                    results[index] = execute(spec);
+                    if (results[index].outcome == Outcome.CRASHED || results[index].outcome == Outcome.TIMED_OUT) {
+                        System.err.println("Réplica " + index + " (mapa " + spec.map + ", semente " + spec.seed
+                                           + "): " + results[index].outcome + "; processo reiniciado");
+                    }
+                }
+                listener.accept(results[index]);
+                int done = finished.incrementAndGet();
+                if (done % 100 == 0 || done == specs.size()) {
+                    System.out.println("Lote: " + done + " de " + specs.size() + " réplicas concluídas");
+                }
+            }
+            stop();
+        }
+
+        /**
+         * Envia uma réplica ao processo e espera o resumo. Se o processo
+         * morrer no meio, o resumo registra a falha e o processo é descartado.
+         */
+        private Result execute(RunSpec spec) {
+            AtomicBoolean expired = new AtomicBoolean();
+            ScheduledFuture<?> timer = null;
+            Process current = process;
+            if (timeoutMillis > 0) {
+                timer = watchdog.schedule(() -> {
+                    expired.set(true);
+                    current.destroyForcibly();
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            try {
+                requests.writeByte(EnsembleWorker.RUN);
+                requests.writeUTF(spec.map);
+                requests.writeInt(depth);
+                requests.writeInt(width);
+                requests.writeInt(spec.hunters);
+                requests.writeLong(spec.seed);
+                requests.writeInt(spec.steps);
+                requests.writeInt(spec.parameterKeys.length);
+                for (int k = 0; k < spec.parameterKeys.length; k++) {
+                    requests.writeUTF(spec.parameterKeys[k]);
+                    requests.writeDouble(spec.parameterValues[k]);
+                }
+                requests.writeDouble(explosionOccupancy);
+                requests.writeInt(steadyWindow);
+                requests.writeDouble(steadyTolerance);
+                requests.flush();
+
+                int code = replies.readByte();
+                int steps = replies.readInt();
+                int speciesCount = replies.readInt();
+                if (code < 0 || code >= Outcome.values().length || speciesCount < 0 || speciesCount > 0xFF) {
+                    throw new IOException("Resumo inválido do processo de trabalho");
+                }
+                Outcome outcome = Outcome.values()[code];
+                int[] populations = new int[speciesCount];
+                for (int id = 0; id < populations.length; id++) {
+                    populations[id] = replies.readInt();
+                }
+                int hunters = replies.readInt();
+                int millis = replies.readInt();
+                return new Result(spec, outcome, steps, populations, hunters, millis);
+            } catch (IOException e) {
+                // O processo morreu (ou foi encerrado pelo tempo limite) no meio da réplica
+                discard();
+                if (waitForExit(current) == OUT_OF_MEMORY_EXIT) {
+                    System.err.println("Processo de trabalho sem memória (limite de " + heapMegabytes + " MB)");
+                }
+                return new Result(spec, expired.get() ? Outcome.TIMED_OUT : Outcome.CRASHED, 0, new int[0], 0, 0);
+            } finally {
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+            }
+        }
+
+        /**
+         * Tenta iniciar um processo até MAX_START_ATTEMPTS vezes.
+         *
+         * @return true se o processo se conectou.
+         */
+        private boolean startWithRetries() {
+            for (int attempt = 1; attempt <= MAX_START_ATTEMPTS; attempt++) {
+                try {
+                    start();
+                    return true;
+                } catch (IOException e) {
+                    discard();
+                    System.err.println("Falha ao iniciar o processo de trabalho (tentativa " + attempt + " de "
+                                       + MAX_START_ATTEMPTS + "): " + e.getMessage());
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Inicia um processo de trabalho com o mesmo Java e classpath deste
+         * e espera ele se conectar.
+         */
+        private void start() throws IOException {
+            try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                process = launch(server.getLocalPort());
+                server.setSoTimeout(1000);
+                long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+                while (socket == null) {
+                    try {
+                        socket = server.accept();
+                    } catch (SocketTimeoutException e) {
+                        if (!process.isAlive() || System.currentTimeMillis() > deadline) {
+                            discard();
+                            throw new IOException("O processo de trabalho não se conectou");
+                        }
+                    }
+                }
+            }
+            socket.setTcpNoDelay(true);
+            requests = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            replies = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        }
+
+        /**
+         * @return Um processo de trabalho que se conecta à porta dada.
+         */
+        private Process launch(int port) throws IOException {
+            List<String> command = new ArrayList<>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.add("-Xmx" + heapMegabytes + "m");
+            command.add("-XX:+ExitOnOutOfMemoryError");  // Morre em vez de continuar em estado incerto
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            String speciesFile = System.getProperty("simulador.especies");
+            if (speciesFile != null) {
+                command.add("-Dsimulador.especies=" + speciesFile);
+            }
+            command.add("EnsembleWorker");
+            command.add(String.valueOf(port));
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            return builder.start();
+        }
+
+        /**
+         * Esquece o processo atual (morto ou por matar) e fecha a conexão.
+         */
+        private void discard() {
+            Process current = process;
+            process = null;
+            if (current != null) {
+                current.destroyForcibly();  // Sem efeito se já morreu
+            }
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Nada a fazer: a conexão já está perdida
+                }
+                socket = null;
+            }
+        }
+
+        /**
+         * Encerra o processo de trabalho, se houver.
+         */
+        void stop() {
+            Process current = process;
+            if (current == null) {
+                return;
+            }
+            try {
+                requests.writeByte(EnsembleWorker.QUIT);
+                requests.flush();
+            } catch (IOException e) {
+                // O processo já morreu
+            }
+            if (waitForExit(current) == Integer.MIN_VALUE) {
+                current.destroyForcibly();
+            }
+            discard();
+        }
+
+        /**
+         * @return O código de saída do processo, ou Integer.MIN_VALUE se
+         *         ele não terminar em alguns segundos.
+         */
+        private int waitForExit(Process current) {
+            try {
+                return current.waitFor(5, TimeUnit.SECONDS) ? current.exitValue() : Integer.MIN_VALUE;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Integer.MIN_VALUE;
+            }
+        }
+    }
+
+    /**
+     * Executa um lote de réplicas e mostra quantas terminaram de cada
+     * forma. Argumentos opcionais: réplicas, passos, mapa, caçadores,
+     * processos e memória por processo (MB).
+     *
+     * @param args Os argumentos, na ordem acima.
+     * @throws IOException Se o lote for interrompido.
+     */
+    public static void main(String[] args) throws IOException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        String map = args.length > 2 ? args[2] : "GRASS_ONLY";
+        int hunters = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        EnsembleRunner runner = new EnsembleRunner();
+        if (args.length > 4) {
+            runner.setWorkers(Integer.parseInt(args[4]));
+        }
+        if (args.length > 5) {
+            runner.setHeapLimit(Integer.parseInt(args[5]));
+        }
+        List<RunSpec> specs = new ArrayList<>();
+        for (int r = 0; r < runs; r++) {
+            specs.add(new RunSpec(map, hunters, 42 + r, steps));
+        }
+        Map<Outcome, Integer> tally = new EnumMap<>(Outcome.class);
+        for (Result result : runner.run(specs)) {
+            tally.merge(result.getOutcome(), 1, Integer::sum);
+        }
+        System.out.println("Desfechos: " + tally);
+    }
+}
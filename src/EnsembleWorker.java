@@ -0,0 +1,157 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Processo de trabalho do EnsembleRunner: conecta-se ao coordenador por
+ * um socket local, recebe especificações de execução, executa cada uma no
+ * motor por passos sem janela e devolve um resumo binário. Uma execução
+ * por vez; se ela estourar a memória, só este processo morre.
+ * Os parâmetros das espécies alterados por uma execução são instalados
+ * na SpeciesRegistry só para ela; a seguinte parte da tabela original.
+ *
+ * Protocolo (DataInput/DataOutput, big-endian):
+ * pedido = RUN (byte), mapa (UTF), profundidade, largura, caçadores (int),
+ * semente (long), passos (int), número de parâmetros alterados (int),
+ * cada um como nome (UTF) e valor (double), ocupação de explosão
+ * (double, 0 = desligada), janela (int, 0 = desligada) e tolerância
+ * (double) da parada em regime; ou QUIT (byte).
+ * resposta = desfecho (byte), passos executados (int), número de espécies
+ * (int), população de cada espécie (int), caçadores (int), tempo em ms (int).
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class EnsembleWorker {
+
+    // Tipos de pedido
+    static final byte QUIT = 0;
+    static final byte RUN = 1;
+
+    /**
+     * Construtor privado - o processo só tem o método main.
+     */
+    private EnsembleWorker() {
+    }
+
+    /**
+     * Atende pedidos até receber QUIT ou a conexão ser fechada.
+     *
+     * @param args A porta local do coordenador.
+     * @throws IOException Se a comunicação com o coordenador falhar.
+     */
+    public static void main(String[] args) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+            socket.setTcpNoDelay(true);
+            serve(new DataInputStream(new BufferedInputStream(socket.getInputStream())),
+                  new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+        }
+    }
+
+    /**
+     * Executa os pedidos recebidos, um por vez.
+     */
+    private static void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        // Terrenos já carregados, por mapa e tamanho (o mesmo processo atende muitas execuções)
+        Map<String, TerrainType[][]> terrains = new HashMap<>();
+        // Parâmetros de partida; cada execução instala uma cópia com as suas alterações
+        SpeciesParameters defaults = SpeciesParameters.fromRegistry();
+        int speciesCount = defaults.getSpeciesCount();
+        while (true) {
+            byte request;
+            try {
+                request = in.readByte();
+            } catch (EOFException e) {
+                return;  // O coordenador fechou a conexão
+            }
+            if (request == QUIT) {
+                return;
+            }
+            String map = in.readUTF();
+            int depth = in.readInt();
+            int width = in.readInt();
+            int hunters = in.readInt();
+            long seed = in.readLong();
+            int steps = in.readInt();
+            SpeciesParameters parameters = defaults.copy();
+            for (int k = in.readInt(); k > 0; k--) {
+                parameters.set(in.readUTF(), in.readDouble());
+            }
+            double explosionOccupancy = in.readDouble();
+            int steadyWindow = in.readInt();
+            double steadyTolerance = in.readDouble();
+
+            long start = System.nanoTime();
+            TerrainType[][] terrain = terrains.computeIfAbsent(map + "@" + depth + "x" + width,
+                key -> Simulator.loadTerrain(depth, width, map, false));
+            SpeciesRegistry.install(parameters);
+            RandomGenerator.setSeed(seed);
+            Simulator simulator = new Simulator(depth, width, terrain, hunters);
+
+            long explosionLimit = explosionOccupancy > 0
+                ? (long) Math.ceil(explosionOccupancy * openCells(terrain)) : Long.MAX_VALUE;
+            SteadyStateMonitor monitor = steadyWindow > 0
+                ? new SteadyStateMonitor(speciesCount, steadyWindow, steadyTolerance) : null;
+            long[] populations = new long[speciesCount];
+            EnsembleRunner.Outcome outcome = EnsembleRunner.Outcome.COMPLETED;
+            while (simulator.getStep() < steps) {
+                if (!simulator.getStats().isViable(simulator.getField())) {
+                    outcome = EnsembleRunner.Outcome.COLLAPSED;
+                    break;
+                }
+                simulator.simulateOneStep();
+                Field field = simulator.getField();
+                long total = 0;
+                long predators = 0;
+                for (int id = 0; id < speciesCount; id++) {
+                    populations[id] = field.getSpeciesPopulation(id);
+                    total += populations[id];
+                    if (parameters.getDietMask(id) != 0) {
+                        predators += populations[id];
+                    }
+                }
+                if (total >= explosionLimit && predators == 0) {
+                    outcome = EnsembleRunner.Outcome.EXPLODED;
+                    break;
+                }
+                if (monitor != null && monitor.observe(populations)) {
+                    outcome = EnsembleRunner.Outcome.STEADY;
+                    break;
+                }
+            }
+
+            Field field = simulator.getField();
+            out.writeByte(outcome.ordinal());
+            out.writeInt(simulator.getStep());
+            out.writeInt(speciesCount);
+            for (int id = 0; id < speciesCount; id++) {
+                out.writeInt(field.getSpeciesPopulation(id));
+            }
+            out.writeInt(simulator.getHunters().size());
+            out.writeInt((int) ((System.nanoTime() - start) / 1_000_000));
+            out.flush();
+        }
+    }
+
+    /**
+     * @return O número de células transitáveis do terreno.
+     */
+    private static long openCells(TerrainType[][] terrain) {
+        long count = 0;
+        for (TerrainType[] row : terrain) {
+            for (TerrainType cell : row) {
+                if (cell.isTraversable()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,447 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Motor de simulação alternativo, orientado a eventos em tempo contínuo
+ * (agendamento "next-reaction", no estilo de Gillespie).
+ *
+ * Em vez de percorrer todos os atores a cada passo, cada ator tem um único
+ * evento na fila: a sua próxima ação (a intervalos exponenciais de média
+ * um dia) ou a sua morte por velhice ou fome, o que vier antes. As trocas
+ * de estação também são eventos agendados. Só os atores cujos eventos
+ * disparam são processados; caçadores que dormem em casa no inverno saem
+ * da fila até a primavera. Populações esparsas ou lentas custam, portanto,
+ * proporcionalmente ao número de eventos e não ao tamanho do mapa.
+ *
+ * Há um único campo, alterado no lugar: o ator sai da sua célula antes de
+ * agir e se reposiciona ao se mover. As camadas densas (rastros, grama,
+ * densidades) são processos por passo sobre a grade inteira e não são
+ * usadas neste motor; sem grama, os herbívoros nunca passam fome.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class EventSimulator {
+
+    // Constantes de Configuração
+    private static final int DEFAULT_WIDTH = 50;  // Largura padrão do campo em células
+    private static final int DEFAULT_DEPTH = 50;  // Profundidade padrão do campo em células
+    private static final double MEAN_ACTION_INTERVAL = 1.0;  // Tempo médio entre ações (um dia)
+
+    // Marcador do evento de troca de estação na fila
+    private static final Object SEASON_EVENT = new Object();
+
+    // Campos de Instância
+    private final Field field;                       // Único campo, alterado no lugar
+    private final IndexedEventQueue<Object> events;  // Próximo evento de cada ator e das estações
+    private final List<Hunter> hunters;              // Todos os caçadores
+    private final List<Hunter> sleepingHunters;      // Caçadores fora da fila (em casa no inverno)
+    private final List<Animal> births;               // Buffer reutilizável de filhotes de uma ação
+    private final WeatherSystem weatherSystem;       // Sistema que controla estações e clima
+    private final FieldStats stats;                  // Coletor de estatísticas populacionais
+    private final Random rand;                       // Gerador dos intervalos entre eventos
+    private SimulatorView view;                      // Interface gráfica (null no modo sem janela)
+    private FrameExporter exporter;                  // Exportação de imagens (null se desligada)
+    private SteadyStateMonitor steadyState;          // Parada em regime (null se desligada)
+    private long[] populations;                      // Buffer das populações por espécie
+    private double time;                             // Horário do último evento processado
+    private long eventCount;                         // Número de eventos processados
+    private int maxSteps;                            // Número de dias simulados por runLongSimulation
+    private boolean simulationRunning;               // Flag que indica se simulação está ativa
+
+    /**
+     * Constrói uma simulação com janela e tamanho padrão.
+     *
+     * @param mapFileName Nome do arquivo de mapa a ser carregado.
+     * @param hunterCount Número de caçadores a serem criados.
+     * @param useGrassOnly Se true, usa apenas terreno de grama.
+     */
+    public EventSimulator(String mapFileName, int hunterCount, boolean useGrassOnly) {
+        this(DEFAULT_DEPTH, DEFAULT_WIDTH,
+             Simulator.loadTerrain(DEFAULT_DEPTH, DEFAULT_WIDTH, mapFileName, useGrassOnly), hunterCount);
+        view = Simulator.createView(DEFAULT_DEPTH, DEFAULT_WIDTH);
+        showStatus();
+    }
+
+    /**
+     * Constrói uma simulação sem janela sobre o terreno dado.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param terrainMap O terreno da simulação.
+     * @param hunterCount Número de caçadores a serem criados.
+     */
+    public EventSimulator(int depth, int width, TerrainType[][] terrainMap, int hunterCount) {
+        field = new Field(depth, width, terrainMap);
+        events = new IndexedEventQueue<>();
+        hunters = new ArrayList<>();
+        sleepingHunters = new ArrayList<>();
+        births = new ArrayList<>();
+        weatherSystem = new WeatherSystem();
+        stats = new FieldStats();
+        rand = RandomGenerator.getRandom();
+        maxSteps = 500;
+
+        // Estado compartilhado dos animais: este motor não usa a roda de
+        // mortes nem os modos que dependem de estruturas por passo
+        Animal.setWeatherSystem(weatherSystem);
+        Animal.setDeathWheel(null);
+        Animal.setDensityMap(null, 0, 1.0);
+        Animal.setSpatialIndex(null);
+        Animal.setCurrentStep(0);
+
+        populate(hunterCount);
+        events.add(SEASON_EVENT, WeatherSystem.getSeasonDuration());
+    }
+
+    /**
+     * Popula o campo com animais e caçadores e agenda a primeira ação de cada um.
+     *
+     * @param hunterCount Número de caçadores a criar.
+     */
+    private void populate(int hunterCount) {
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                if (!field.getTerrainAt(row, col).isTraversable()) {
+                    continue;  // Só coloca animais em terrenos transitáveis
+                }
+                // Mesmas probabilidades de criação do simulador por passos
+                Animal animal = null;
+                if (rand.nextDouble() <= Fox.getCreationProbability()) {
+                    animal = new Fox(true);
+                } else if (rand.nextDouble() <= Rabbit.getCreationProbability()) {
+                    animal = new Rabbit(true);
+                } else if (rand.nextDouble() <= Buffalo.getCreationProbability()) {
+                    animal = new Buffalo(true);
+                } else if (rand.nextDouble() <= Lion.getCreationProbability()) {
+                    animal = new Lion(true);
+                }
+                if (animal != null) {
+                    animal.setLocation(row, col);
+                    field.place(animal, row, col);
+                    schedule(animal);
+                }
+            }
+        }
+
+        for (int i = 0; i < hunterCount; i++) {
+            Location home = field.randomFreeGrassLocation(rand);
+            if (home == null) {
+                break;  // Não há grama livre para mais casas
+            }
+            Hunter hunter = new Hunter(home, stats);
+            hunter.setHomeDistances(new HomeDistanceMap(field, home));
+            hunters.add(hunter);
+            field.placeHunter(hunter, home);
+            schedule(hunter);
+        }
+    }
+
+    /**
+     * Executa a simulação por um longo período (500 dias).
+     */
+    public void runLongSimulation() {
+        simulate(maxSteps);
+    }
+
+    /**
+     * Executa a simulação pelo número de dias dado, atualizando a janela
+     * (se houver) ao fim de cada dia. Para antes se a simulação não for
+     * mais viável.
+     *
+     * @param numSteps Número de dias a simular.
+     */
+    public void simulate(int numSteps) {
+        simulationRunning = true;
+        for (int i = 0; i < numSteps && simulationRunning && stats.isViable(field); i++) {
+            runUntil(Math.floor(time) + 1);
+            exportDay();
+            if (reachedSteadyState()) {
+                break;  // Populações em regime: o resto da execução não traria novidade
+            }
+            if (view != null) {
+                showStatus();
+                try {
+                    Thread.sleep(100);  // Pequena pausa para permitir visualização
+                } catch (InterruptedException e) {
+                    break;  // Sai do loop se a thread for interrompida
+                }
+            }
+        }
+        simulationRunning = false;
+    }
+
+    /**
+     * Liga a parada em regime: simulate() termina antes do número de dias
+     * pedido quando as populações de cada espécie se repetem de um ciclo
+     * de estações para o seguinte (ver SteadyStateMonitor).
+     *
+     * @param window Dias de cada janela comparada.
+     * @param tolerance Diferença relativa aceita entre os ciclos.
+     */
+    public void enableSteadyStateStop(int window, double tolerance) {
+        steadyState = new SteadyStateMonitor(SpeciesRegistry.getSpeciesCount(), window, tolerance);
+        populations = new long[SpeciesRegistry.getSpeciesCount()];
+    }
+
+    /**
+     * Passa as populações do dia ao monitor de regime, se ligado.
+     *
+     * @return true se as populações estão em regime.
+     */
+    private boolean reachedSteadyState() {
+        if (steadyState == null) {
+            return false;
+        }
+        for (int id = 0; id < populations.length; id++) {
+            populations[id] = field.getSpeciesPopulation(id);
+        }
+        return steadyState.observe(populations);
+    }
+
+    /**
+     * @return true se a última execução parou por ter entrado em regime.
+     */
+    public boolean isSteady() {
+        return steadyState != null && steadyState.isSteady();
+    }
+
+    /**
+     * Liga a exportação de imagens: o estado ao fim de cada dia simulado
+     * por simulate() vira um PNG ou um quadro do GIF animado. Funciona
+     * também sem janela, para gerar animações de execuções longas.
+     *
+     * @param frameExporter O exportador (fechado por quem o criou), ou null para desligar.
+     */
+    public void setFrameExporter(FrameExporter frameExporter) {
+        exporter = frameExporter;
+    }
+
+    /**
+     * Põe o estado atual na fila de exportação; em caso de erro a
+     * exportação é desligada e a simulação continua.
+     */
+    private void exportDay() {
+        if (exporter == null) {
+            return;
+        }
+        try {
+            exporter.exportFrame(field);
+        } catch (IOException e) {
+            System.err.println("Erro ao exportar dia " + getStep() + ": " + e.getMessage());
+            exporter = null;
+        }
+    }
+
+    /**
+     * Processa, em ordem, todos os eventos com horário até o instante dado.
+     *
+     * @param endTime O instante final.
+     */
+    public void runUntil(double endTime) {
+        while (!events.isEmpty()) {
+            int handle = events.peek();
+            double eventTime = events.getTime(handle);
+            if (eventTime > endTime) {
+                break;
+            }
+            time = eventTime;
+            Animal.setCurrentStep((int) eventTime);  // Idade e fome contam em dias inteiros
+            eventCount++;
+
+            Object item = events.get(handle);
+            if (item == SEASON_EVENT) {
+                changeSeason();
+                events.update(handle, eventTime + WeatherSystem.getSeasonDuration());
+            } else if (item instanceof Animal) {
+                fireAnimal((Animal) item, handle);
+            } else {
+                fireHunter((Hunter) item, handle);
+            }
+        }
+        time = Math.max(time, endTime);
+    }
+
+    /**
+     * Processa o evento de um animal: descarta-o se foi morto por outro,
+     * mata-o se chegou a hora de morrer ou executa a sua próxima ação.
+     */
+    private void fireAnimal(Animal animal, int handle) {
+        animal.expireIfDue();  // Velhice ou fome, se chegou a hora
+        if (!animal.isAlive()) {
+            vacate(animal);
+            events.remove(handle);
+            return;
+        }
+
+        // Sai da célula antes de agir; a ação o reposiciona no mesmo campo
+        vacate(animal);
+        animal.actWithAnimals(field, field, births);
+        if (animal.isAlive()) {
+            events.update(handle, nextEventTime(animal));
+        } else {
+            events.remove(handle);
+        }
+
+        // Filhotes já estão no campo; só falta agendá-los
+        for (int i = 0; i < births.size(); i++) {
+            schedule(births.get(i));
+        }
+        births.clear();
+    }
+
+    /**
+     * Processa o evento de um caçador. No inverno, ao chegar em casa, o
+     * caçador sai da fila e só volta a agir na primavera.
+     */
+    private void fireHunter(Hunter hunter, int handle) {
+        vacate(hunter);
+        hunter.act(field, field, null);
+        if (!hunter.isActive() && hunter.getLocation().equals(hunter.getHomeLocation())) {
+            events.remove(handle);
+            sleepingHunters.add(hunter);
+        } else {
+            events.update(handle, time + nextInterval());
+        }
+    }
+
+    /**
+     * Avança para a próxima estação e ajusta a atividade dos caçadores,
+     * acordando os que dormiam quando o inverno termina.
+     */
+    private void changeSeason() {
+        weatherSystem.advanceToNextSeason();
+        boolean active = weatherSystem.getCurrentSeason() != Season.WINTER;
+        for (Hunter hunter : hunters) {
+            hunter.setActive(active);
+        }
+        if (active) {
+            for (Hunter hunter : sleepingHunters) {
+                schedule(hunter);
+            }
+            sleepingHunters.clear();
+        }
+    }
+
+    /**
+     * Agenda o primeiro evento de um ator recém-criado ou acordado.
+     */
+    private void schedule(Actor actor) {
+        double next;
+        if (actor instanceof Animal) {
+            next = nextEventTime((Animal) actor);
+        } else {
+            next = time + nextInterval();
+        }
+        events.add(actor, next);
+    }
+
+    /**
+     * Esvazia a célula do ator, se ela ainda for dele (um predador pode já
+     * ter ocupado a célula da presa que matou).
+     */
+    private void vacate(Actor actor) {
+        Location location = actor.getLocation();
+        if (location != null && field.getObjectAt(location) == actor) {
+            field.removeActor(location);
+        }
+    }
+
+    /**
+     * @return O horário do próximo evento do animal: a próxima ação ou a
+     *         morte por velhice ou fome, o que vier antes.
+     */
+    private double nextEventTime(Animal animal) {
+        return Math.min(time + nextInterval(), animal.getExpiryStep());
+    }
+
+    /**
+     * @return Um intervalo exponencial de média MEAN_ACTION_INTERVAL.
+     */
+    private double nextInterval() {
+        return -MEAN_ACTION_INTERVAL * Math.log(1.0 - rand.nextDouble());
+    }
+
+    /**
+     * Atualiza a janela com o estado atual, se houver janela.
+     */
+    private void showStatus() {
+        if (view == null) {
+            return;
+        }
+        final int currentStep = getStep();
+        final Season currentSeason = weatherSystem.getCurrentSeason();
+        final List<Hunter> currentHunters = new ArrayList<>(hunters);
+        javax.swing.SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                view.showStatus(currentStep, field, currentSeason, stats, currentHunters);
+            }
+        });
+    }
+
+    /**
+     * @return O horário atual da simulação (em dias).
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * @return O dia atual da simulação.
+     */
+    public int getStep() {
+        return (int) time;
+    }
+
+    /**
+     * @return O número de eventos processados até agora.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return O número de eventos pendentes na fila.
+     */
+    public int getPendingEvents() {
+        return events.size();
+    }
+
+    /**
+     * @return O campo da simulação.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return O sistema climático.
+     */
+    public WeatherSystem getWeatherSystem() {
+        return weatherSystem;
+    }
+
+    /**
+     * @return Os caçadores da simulação.
+     */
+    public List<Hunter> getHunters() {
+        return hunters;
+    }
+
+    /**
+     * @return true se a simulação está em execução.
+     */
+    public boolean isSimulationRunning() {
+        return simulationRunning;
+    }
+
+    /**
+     * Para a simulação.
+     */
+    public void stopSimulation() {
+        simulationRunning = false;
+    }
+}
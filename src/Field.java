@@ -1,8 +1,10 @@
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Representa uma grade retangular de posições do campo.
@@ -15,6 +17,9 @@ import java.util.List;
  */
 public class Field {
     
+    // Lado (em células) de cada bloco do resumo de ocupação: 1 << TILE_SHIFT.
+    private static final int TILE_SHIFT = 3;
+    
     // A profundidade e largura do campo (linhas x colunas).
     private final int depth, width;
     
@@ -26,6 +31,41 @@ public class Field {
     
     // Lista para armazenar as casas dos caçadores
     private final List<Location> hunterHomes;
+    
+    // Índices (linha * largura + coluna) das células escritas desde o último clear().
+    // Permite que clear() custe proporcional ao número de atores, não à área do mapa.
+    private int[] dirtyCells;
+    
+    // Quantidade de entradas válidas em dirtyCells.
+    private int dirtyCount;
+    
+    // Dimensões da grade de blocos (linhas x colunas de blocos).
+    private final int tileRows, tileCols;
+    
+    // Resumo de ocupação por bloco: total de atores, animais e células de grama.
+    private final int[] tileActorCounts;
+    private final int[] tileAnimalCounts;
+    private final int[] tileGrassCounts;
+    
+    // Quantidade de animais de cada espécie (por id) e de caçadores presentes no campo.
+    private final int[] speciesCounts;
+    private int hunterCount;
+    
+    // Bitsets de ocupação por espécie de animal: bit (linha * largura + coluna).
+    private final long[][] speciesBits;
+    
+    // Hash do estado (ver StateHash): XOR das contribuições guardadas por célula.
+    private final long[] cellHashes;
+    private long stateHash;
+    
+    // Camadas de cheiro compartilhadas entre os campos atual e atualizado (podem ser null).
+    private ScentLayer preyScent, threatScent;
+    
+    // Grama do campo, compartilhada entre os campos atual e atualizado (pode ser null).
+    private VegetationLayer vegetation;
+    
+    // Buffer de células vizinhas usado nas escolhas guiadas por cheiro.
+    private final int[] neighbourCells = new int[9];
 
     /**
      * Representa um campo com as dimensões dadas e terreno específico.
@@ -42,6 +82,18 @@ public class Field {
         field = new Actor[depth][width];
         // Inicializa a lista de casas de caçadores
         hunterHomes = new ArrayList<>();
+        // Lista compacta de células sujas (cresce sob demanda)
+        dirtyCells = new int[64];
+        dirtyCount = 0;
+        // Cria o resumo de ocupação por blocos (arredonda para cima)
+        tileRows = (depth + (1 << TILE_SHIFT) - 1) >> TILE_SHIFT;
+        tileCols = (width + (1 << TILE_SHIFT) - 1) >> TILE_SHIFT;
+        tileActorCounts = new int[tileRows * tileCols];
+        tileAnimalCounts = new int[tileRows * tileCols];
+        tileGrassCounts = new int[tileRows * tileCols];
+        speciesCounts = new int[SpeciesRegistry.getSpeciesCount()];
+        speciesBits = new long[SpeciesRegistry.getSpeciesCount()][(depth * width + 63) >> 6];
+        cellHashes = new long[depth * width];
         // Inicializa o sistema de terreno com o mapa fornecido
         initializeTerrain(terrainMap);
     }
@@ -89,20 +141,40 @@ public class Field {
         }
         // Atribui o mapa de terreno ao campo
         this.terrainGrid = terrainMap;
+        // Conta as células de grama de cada bloco (capacidade para atores)
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                if (terrainMap[row][col] == TerrainType.GRASS) {
+                    tileGrassCounts[tileIndex(row, col)]++;
+                }
+            }
+        }
     }
 
     /**
      * Esvazia o campo (remove atores, mantém terreno).
+     * Apenas as células escritas desde a última limpeza são visitadas,
+     * então o custo é proporcional ao número de atores e não à área do mapa.
      */
     public void clear() {
-        // Percorre todas as linhas do campo
-        for (int row = 0; row < depth; row++) {
-            // Percorre todas as colunas do campo
-            for (int col = 0; col < width; col++) {
-                // Remove qualquer ator da posição atual
-                field[row][col] = null;
+        // Percorre somente as células registradas como sujas
+        for (int i = 0; i < dirtyCount; i++) {
+            int index = dirtyCells[i];
+            // Remove qualquer ator da posição registrada
+            field[index / width][index % width] = null;
+            // Toda célula ocupada está na lista suja, então zerar a palavra inteira é seguro
+            for (long[] bits : speciesBits) {
+                bits[index >> 6] = 0L;
             }
+            cellHashes[index] = 0L;
         }
+        dirtyCount = 0;
+        stateHash = 0L;
+        // Zera o resumo de ocupação (custo proporcional ao número de blocos)
+        Arrays.fill(tileActorCounts, 0);
+        Arrays.fill(tileAnimalCounts, 0);
+        Arrays.fill(speciesCounts, 0);
+        hunterCount = 0;
         // Limpa a lista de casas de caçadores
         hunterHomes.clear();
         // OBS: O terreno (terrainGrid) permanece inalterado
@@ -226,7 +298,7 @@ public class Field {
         // Verifica se pode posicionar baseado no tipo de ator
         if (actor instanceof Animal) {
             if (canAnimalMoveTo(location)) {
-                field[location.getRow()][location.getCol()] = actor;
+                setCell(location.getRow(), location.getCol(), actor);
                 if (actor != null) {
                     actor.setLocation(location);
                 }
@@ -234,7 +306,7 @@ public class Field {
         } else if (actor instanceof Hunter) {
             Hunter hunter = (Hunter) actor;
             if (canHunterMoveTo(location, hunter)) {
-                field[location.getRow()][location.getCol()] = actor;
+                setCell(location.getRow(), location.getCol(), actor);
                 if (actor != null) {
                     actor.setLocation(location);
                 }
@@ -266,8 +338,317 @@ public class Field {
                 Hunter hunter = (Hunter) actor;
                 unregisterHunterHome(hunter.getHomeLocation());
             }
-            field[location.getRow()][location.getCol()] = null;
+            setCell(location.getRow(), location.getCol(), null);
+        }
+    }
+
+    /**
+     * Escreve um ator (ou null) em uma célula, registrando a célula como suja
+     * quando ela passa de vazia para ocupada.
+     *
+     * @param row A linha da célula.
+     * @param col A coluna da célula.
+     * @param actor O ator a armazenar, ou null para esvaziar.
+     */
+    private void setCell(int row, int col, Actor actor) {
+        Actor previous = field[row][col];
+        if (actor != null && previous == null) {
+            // Cresce o buffer de células sujas se necessário
+            if (dirtyCount == dirtyCells.length) {
+                dirtyCells = Arrays.copyOf(dirtyCells, dirtyCount * 2);
+            }
+            dirtyCells[dirtyCount++] = row * width + col;
+        }
+        // Mantém o resumo de ocupação sincronizado com a célula
+        if (previous != null) {
+            updateSummary(row, col, previous, -1);
+        }
+        if (actor != null) {
+            updateSummary(row, col, actor, 1);
+        }
+        field[row][col] = actor;
+        
+        // Troca a contribuição da célula no hash de estado
+        int index = row * width + col;
+        stateHash ^= cellHashes[index];
+        cellHashes[index] = StateHash.of(index, actor);
+        stateHash ^= cellHashes[index];
+        if (actor instanceof Animal) {
+            ((Animal) actor).setPlacedIn(this);
+        }
+    }
+
+    /**
+     * Recalcula a contribuição de um ator ao hash de estado depois que o
+     * estado dele mudou (refeição, morte). Nada acontece se o ator não
+     * estiver mais na sua célula deste campo.
+     *
+     * @param actor O ator alterado.
+     */
+    public void rehash(Actor actor) {
+        Location location = actor.getLocation();
+        if (location == null || !isWithinBounds(location)
+                || field[location.getRow()][location.getCol()] != actor) {
+            return;
+        }
+        int index = location.getRow() * width + location.getCol();
+        stateHash ^= cellHashes[index];
+        cellHashes[index] = StateHash.of(index, actor);
+        stateHash ^= cellHashes[index];
+    }
+
+    /**
+     * @return O hash do estado do campo, mantido a cada alteração (ver StateHash).
+     */
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * @param row A linha.
+     * @param col A coluna.
+     * @return A contribuição da célula ao hash de estado.
+     */
+    public long getCellHash(int row, int col) {
+        return cellHashes[row * width + col];
+    }
+
+    /**
+     * Ajusta as contagens do bloco e da espécie para um ator que entra
+     * (delta = 1) ou sai (delta = -1) de uma célula.
+     */
+    private void updateSummary(int row, int col, Actor actor, int delta) {
+        int tile = tileIndex(row, col);
+        tileActorCounts[tile] += delta;
+        if (actor instanceof Animal) {
+            tileAnimalCounts[tile] += delta;
+            // Liga ou desliga o bit da célula no bitset da espécie
+            int speciesId = ((Animal) actor).getSpeciesId();
+            int index = row * width + col;
+            long[] bits = speciesBits[speciesId];
+            if (delta > 0) {
+                bits[index >> 6] |= 1L << index;
+            } else {
+                bits[index >> 6] &= ~(1L << index);
+            }
+            speciesCounts[speciesId] += delta;
+        } else if (actor instanceof Hunter) {
+            hunterCount += delta;
+        }
+    }
+
+    /**
+     * Retorna quais células vizinhas estão ocupadas por alguma espécie da dieta.
+     * Cada espécie contribui com três janelas de 3 bits (uma por linha) lidas
+     * do seu bitset; nenhum ator é consultado.
+     *
+     * @param row A linha central.
+     * @param col A coluna central.
+     * @param dietMask Máscara de espécies (bit 1 << id).
+     * @return Máscara de 9 bits, bit (dr + 1) * 3 + (dc + 1); o centro é excluído.
+     */
+    public int preyNeighbourhood(int row, int col, int dietMask) {
+        int result = 0;
+        for (int species = 0; species < speciesBits.length; species++) {
+            if ((dietMask & (1 << species)) == 0) {
+                continue;
+            }
+            long[] bits = speciesBits[species];
+            for (int roffset = -1; roffset <= 1; roffset++) {
+                int nextRow = row + roffset;
+                if (nextRow >= 0 && nextRow < depth) {
+                    result |= rowWindow(bits, nextRow, col) << ((roffset + 1) * 3);
+                }
+            }
+        }
+        return result & ~(1 << 4);
+    }
+
+    /**
+     * Verifica se a célula está ocupada por um animal da espécie dada.
+     *
+     * @param species O identificador da espécie.
+     * @param row A linha.
+     * @param col A coluna.
+     * @return true se o bit da célula está ligado no bitset da espécie.
+     */
+    public boolean hasSpeciesAt(int species, int row, int col) {
+        int index = row * width + col;
+        return (speciesBits[species][index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Lê os bits das colunas col - 1, col e col + 1 de uma linha do bitset.
+     */
+    private int rowWindow(long[] bits, int row, int col) {
+        int window = 0;
+        for (int offset = -1; offset <= 1; offset++) {
+            int nextCol = col + offset;
+            if (nextCol >= 0 && nextCol < width) {
+                int index = row * width + nextCol;
+                if ((bits[index >> 6] & (1L << index)) != 0) {
+                    window |= 1 << (offset + 1);
+                }
+            }
+        }
+        return window;
+    }
+
+    /**
+     * @return O índice do bloco que contém a célula dada.
+     */
+    private int tileIndex(int row, int col) {
+        return (row >> TILE_SHIFT) * tileCols + (col >> TILE_SHIFT);
+    }
+
+    /**
+     * @return O lado de cada bloco do resumo de ocupação, em células.
+     */
+    public int getTileSize() {
+        return 1 << TILE_SHIFT;
+    }
+
+    /**
+     * @return O número de linhas de blocos.
+     */
+    public int getTileRows() {
+        return tileRows;
+    }
+
+    /**
+     * @return O número de colunas de blocos.
+     */
+    public int getTileCols() {
+        return tileCols;
+    }
+
+    /**
+     * Verifica se um bloco não contém nenhum ator.
+     * Consumidores que varrem a grade inteira podem pular blocos vazios.
+     *
+     * @param tileRow A linha do bloco.
+     * @param tileCol A coluna do bloco.
+     * @return true se não há atores no bloco.
+     */
+    public boolean isTileEmpty(int tileRow, int tileCol) {
+        return tileActorCounts[tileRow * tileCols + tileCol] == 0;
+    }
+
+    /**
+     * @param tileRow A linha do bloco.
+     * @param tileCol A coluna do bloco.
+     * @return O número de animais (vivos ou não) no bloco.
+     */
+    public int getTileAnimalCount(int tileRow, int tileCol) {
+        return tileAnimalCounts[tileRow * tileCols + tileCol];
+    }
+
+    /**
+     * @param tileRow A linha do bloco.
+     * @param tileCol A coluna do bloco.
+     * @return O número de células de grama ainda sem ator no bloco.
+     */
+    public int getTileVacancies(int tileRow, int tileCol) {
+        int tile = tileRow * tileCols + tileCol;
+        return tileGrassCounts[tile] - tileActorCounts[tile];
+    }
+
+    /**
+     * Retorna quantos atores de uma classe estão no campo.
+     * Inclui atores já marcados como mortos que ainda ocupam uma célula.
+     *
+     * @param actorClass A classe do ator.
+     * @return A quantidade de atores dessa classe no campo.
+     */
+    public int getSpeciesCount(Class<?> actorClass) {
+        if (actorClass == Hunter.class) {
+            return hunterCount;
+        }
+        // A espécie é cadastrada com o nome da classe
+        for (int id = 0; id < speciesCounts.length; id++) {
+            if (SpeciesRegistry.getName(id).equals(actorClass.getName())) {
+                return speciesCounts[id];
+            }
         }
+        return 0;
+    }
+
+    /**
+     * Retorna quantos animais de uma espécie estão no campo, contando os
+     * bits do bitset da espécie.
+     *
+     * @param speciesId O identificador da espécie.
+     * @return A quantidade de animais da espécie no campo.
+     */
+    public int getSpeciesPopulation(int speciesId) {
+        int total = 0;
+        for (long word : speciesBits[speciesId]) {
+            total += Long.bitCount(word);
+        }
+        return total;
+    }
+
+    /**
+     * @return O número total de animais no campo.
+     */
+    public int getAnimalCount() {
+        int total = 0;
+        for (int count : tileAnimalCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Procura uma célula de grama livre indo direto para um bloco com vagas.
+     * Os blocos são sorteados até encontrar um com vaga; se todos falharem
+     * o campo é percorrido bloco a bloco, pulando blocos sem vagas.
+     *
+     * @param rand O gerador de números aleatórios.
+     * @return Uma localização de grama livre, ou null se o campo estiver cheio.
+     */
+    public Location randomFreeGrassLocation(Random rand) {
+        int tileCount = tileRows * tileCols;
+        // Primeiro: sorteia blocos e escolhe uma célula livre dentro dele
+        for (int attempt = 0; attempt < tileCount; attempt++) {
+            int tile = rand.nextInt(tileCount);
+            if (tileGrassCounts[tile] - tileActorCounts[tile] > 0) {
+                Location loc = freeGrassInTile(tile / tileCols, tile % tileCols, rand);
+                if (loc != null) {
+                    return loc;
+                }
+            }
+        }
+        // Segundo: varredura determinística apenas dos blocos com vagas
+        for (int tile = 0; tile < tileCount; tile++) {
+            if (tileGrassCounts[tile] - tileActorCounts[tile] > 0) {
+                Location loc = freeGrassInTile(tile / tileCols, tile % tileCols, null);
+                if (loc != null) {
+                    return loc;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retorna uma célula de grama livre dentro de um bloco. Se rand for
+     * fornecido, a varredura começa em uma posição aleatória do bloco.
+     */
+    private Location freeGrassInTile(int tileRow, int tileCol, Random rand) {
+        int size = 1 << TILE_SHIFT;
+        int cells = size * size;
+        int start = (rand != null) ? rand.nextInt(cells) : 0;
+        for (int i = 0; i < cells; i++) {
+            int offset = (start + i) % cells;
+            int row = (tileRow << TILE_SHIFT) + offset / size;
+            int col = (tileCol << TILE_SHIFT) + offset % size;
+            if (row < depth && col < width && field[row][col] == null
+                    && terrainGrid[row][col] == TerrainType.GRASS) {
+                return new Location(row, col);
+            }
+        }
+        return null;
     }
 
     /**
@@ -386,6 +767,136 @@ public class Field {
         }
     }
 
+    /**
+     * Encontra, em uma única varredura, até k células livres distintas
+     * ao redor do local dado (em ordem aleatória), seguidas do próprio local
+     * se ele estiver livre. Equivale a chamar freeAdjacentLocation k vezes,
+     * ocupando cada célula devolvida, mas sem montar listas nem embaralhar
+     * a vizinhança a cada chamada.
+     * As células são escritas no buffer como linha * largura + coluna.
+     *
+     * @param location O local central.
+     * @param cells Buffer do chamador (pelo menos 9 posições para k >= 9).
+     * @param k O número máximo de células desejadas.
+     * @return Quantas células foram escritas no buffer.
+     */
+    public int freeAdjacentLocations(Location location, int[] cells, int k) {
+        int row = location.getRow();
+        int col = location.getCol();
+        int found = 0;
+        
+        // Coleta todas as células vizinhas livres e transitáveis (no máximo 8)
+        for (int roffset = -1; roffset <= 1; roffset++) {
+            int nextRow = row + roffset;
+            if (nextRow < 0 || nextRow >= depth) {
+                continue;
+            }
+            for (int coffset = -1; coffset <= 1; coffset++) {
+                int nextCol = col + coffset;
+                if (nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)
+                        && field[nextRow][nextCol] == null && isFreeForAnimal(nextRow, nextCol)) {
+                    cells[found++] = nextRow * width + nextCol;
+                }
+            }
+        }
+        
+        // Embaralhamento parcial (Fisher-Yates): só as k primeiras posições importam
+        Random rand = RandomGenerator.getRandom();
+        int limit = Math.min(k, found);
+        for (int i = 0; i < limit; i++) {
+            int j = i + rand.nextInt(found - i);
+            int tmp = cells[i];
+            cells[i] = cells[j];
+            cells[j] = tmp;
+        }
+        
+        // Vizinhança saturada: o próprio local é a última opção, como em freeAdjacentLocation
+        if (limit < k && field[row][col] == null && isFreeForAnimal(row, col)) {
+            cells[limit++] = row * width + col;
+        }
+        return limit;
+    }
+
+    /**
+     * Versão por coordenadas de canAnimalMoveTo para laços internos.
+     */
+    private boolean isFreeForAnimal(int row, int col) {
+        return terrainGrid[row][col].isTraversable()
+                && (hunterHomes.isEmpty() || !isHunterHome(new Location(row, col)));
+    }
+
+    /**
+     * Associa as camadas de cheiro a este campo.
+     *
+     * @param preyScent Rastro deixado por herbívoros.
+     * @param threatScent Rastro deixado por predadores.
+     */
+    public void setScentLayers(ScentLayer preyScent, ScentLayer threatScent) {
+        this.preyScent = preyScent;
+        this.threatScent = threatScent;
+    }
+
+    /**
+     * @return A camada de rastro de presas, ou null.
+     */
+    public ScentLayer getPreyScent() {
+        return preyScent;
+    }
+
+    /**
+     * @return A camada de rastro de predadores, ou null.
+     */
+    public ScentLayer getThreatScent() {
+        return threatScent;
+    }
+
+    /**
+     * Associa a camada de vegetação a este campo.
+     *
+     * @param vegetation A grama consumida pelos herbívoros.
+     */
+    public void setVegetation(VegetationLayer vegetation) {
+        this.vegetation = vegetation;
+    }
+
+    /**
+     * @return A camada de vegetação, ou null.
+     */
+    public VegetationLayer getVegetation() {
+        return vegetation;
+    }
+
+    /**
+     * Escolhe um local livre ao redor (ou o próprio) guiado por uma camada de cheiro.
+     * Entre as células livres, escolhe a de maior cheiro (seekHigher) ou a de menor;
+     * empates ficam com a ordem aleatória, como em freeAdjacentLocation.
+     *
+     * @param location O local atual.
+     * @param scent A camada a seguir, ou null para escolha puramente aleatória.
+     * @param seekHigher true para seguir o cheiro, false para fugir dele.
+     * @return O local escolhido, ou null se não houver local livre.
+     */
+    public Location freeAdjacentLocationByScent(Location location, ScentLayer scent, boolean seekHigher) {
+        if (scent == null) {
+            return freeAdjacentLocation(location);
+        }
+        int count = freeAdjacentLocations(location, neighbourCells, neighbourCells.length);
+        if (count == 0) {
+            return null;
+        }
+        int best = neighbourCells[0];
+        float bestScent = scent.get(best / width, best % width);
+        for (int i = 1; i < count; i++) {
+            int cell = neighbourCells[i];
+            float value = scent.get(cell / width, cell % width);
+            if (seekHigher ? value > bestScent : value < bestScent) {
+                best = cell;
+                bestScent = value;
+            }
+        }
+        return new Location(best / width, best % width);
+    }
+
     /**
      * Gera um iterador sobre uma lista embaralhada de locais adjacentes
      * ao local dado. A lista não incluirá o próprio local.
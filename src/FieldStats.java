@@ -63,23 +63,8 @@ public class FieldStats {
             buffer.append(' '); // Espaço separador entre espécies
         }
         
-        // Conta manualmente os caçadores vivos no campo
-        int hunterCount = 0;
-        
-        // Percorre todo o campo linha por linha
-        for (int row = 0; row < field.getDepth(); row++) {
-            // Percorre todo o campo coluna por coluna
-            for (int col = 0; col < field.getWidth(); col++) {
-                // Obtém o ator na posição atual
-                Actor actor = field.getObjectAt(row, col);
-                
-                // Verifica se é um caçador e se está vivo
-                if (actor instanceof Hunter && actor.isAlive()) {
-                    // Incrementa o contador de caçadores
-                    hunterCount++;
-                }
-            }
-        }
+        // Conta os caçadores no campo pelo resumo de ocupação (caçadores nunca morrem)
+        int hunterCount = field.getSpeciesCount(Hunter.class);
         
         // Se há caçadores vivos, adiciona essa informação ao resultado
         if (hunterCount > 0) {
@@ -173,14 +158,24 @@ public class FieldStats {
      * @return true Se houver pelo menos um animal vivo no campo.
      */
     public boolean isViable(Field field) {
-        // Percorre todo o campo procurando por animais vivos
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                Actor actor = field.getObjectAt(row, col);
-                // Verifica se é um animal E se está vivo
-                if (actor instanceof Animal && actor.isAlive()) {
-                    // Encontrou pelo menos um animal vivo - simulação continua
-                    return true;
+        int tileSize = field.getTileSize();
+        // Percorre apenas os blocos do campo que contêm algum animal
+        for (int tileRow = 0; tileRow < field.getTileRows(); tileRow++) {
+            for (int tileCol = 0; tileCol < field.getTileCols(); tileCol++) {
+                if (field.getTileAnimalCount(tileRow, tileCol) == 0) {
+                    continue;  // Bloco sem animais - nada a verificar
+                }
+                int rowEnd = Math.min((tileRow + 1) * tileSize, field.getDepth());
+                int colEnd = Math.min((tileCol + 1) * tileSize, field.getWidth());
+                for (int row = tileRow * tileSize; row < rowEnd; row++) {
+                    for (int col = tileCol * tileSize; col < colEnd; col++) {
+                        Actor actor = field.getObjectAt(row, col);
+                        // Verifica se é um animal E se está vivo
+                        if (actor instanceof Animal && actor.isAlive()) {
+                            // Encontrou pelo menos um animal vivo - simulação continua
+                            return true;
+                        }
+                    }
                 }
             }
         }
@@ -197,16 +192,26 @@ public class FieldStats {
         // Reseta todas as contagens anteriores
         reset();
         
-        // Percorre todo o campo célula por célula
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                Actor actor = field.getObjectAt(row, col);
-                
-                // Verifica se é um animal (não caçador)
-                if (actor instanceof Animal) {
-                    Animal animal = (Animal) actor;
-                    // Incrementa o contador da espécie específica deste animal
-                    incrementCount(animal.getClass());
+        int tileSize = field.getTileSize();
+        // Percorre o campo bloco a bloco, pulando blocos sem animais
+        for (int tileRow = 0; tileRow < field.getTileRows(); tileRow++) {
+            for (int tileCol = 0; tileCol < field.getTileCols(); tileCol++) {
+                if (field.getTileAnimalCount(tileRow, tileCol) == 0) {
+                    continue;
+                }
+                int rowEnd = Math.min((tileRow + 1) * tileSize, field.getDepth());
+                int colEnd = Math.min((tileCol + 1) * tileSize, field.getWidth());
+                for (int row = tileRow * tileSize; row < rowEnd; row++) {
+                    for (int col = tileCol * tileSize; col < colEnd; col++) {
+                        Actor actor = field.getObjectAt(row, col);
+                        
+                        // Verifica se é um animal (não caçador)
+                        if (actor instanceof Animal) {
+                            Animal animal = (Animal) actor;
+                            // Incrementa o contador da espécie específica deste animal
+                            incrementCount(animal.getClass());
+                        }
+                    }
                 }
             }
         }
@@ -0,0 +1,478 @@
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Exporta quadros da simulação como imagens, sem janela: uma sequência
+ * de PNGs numerados ou um único GIF animado, com as mesmas cores da
+ * SimulatorView (cor de cada espécie e TerrainType.getColor()).
+ *
+ * A thread da simulação só copia o código de cada célula para um buffer
+ * livre e o põe na fila; desenhar e codificar as imagens fica com um
+ * grupo de threads codificadoras. Há um número fixo de buffers, então a
+ * fila é limitada: a simulação só espera quando as codificadoras estão
+ * atrasadas por mais quadros do que a capacidade da fila. As imagens usam
+ * uma paleta indexada (terrenos, espécies e caçador), o que deixa o
+ * desenho em uma cópia de bytes por célula e os arquivos pequenos.
+ *
+ * No modo GIF os quadros são desenhados em paralelo, mas gravados no
+ * arquivo na ordem em que chegaram.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class FrameExporter {
+
+    /**
+     * Formatos de exportação.
+     */
+    public enum Format {
+        PNG,  // Um arquivo por quadro
+        GIF   // Um único GIF animado
+    }
+
+    // Valores padrão
+    public static final int DEFAULT_CELL_SIZE = 6;       // Pixels por célula
+    public static final int DEFAULT_QUEUE_CAPACITY = 32; // Quadros à espera das codificadoras
+    public static final int DEFAULT_GIF_DELAY = 100;     // Milissegundos entre quadros do GIF
+
+    // Cor de tipos sem cor definida (a mesma da janela)
+    private static final Color UNKNOWN_COLOR = Color.gray;
+
+    // Marcador de fim na fila de quadros
+    private static final Frame END = new Frame(-1, null);
+
+    private final File directory;
+    private final Format format;
+    private final int depth, width;
+    private final int cellSize;
+    private final int gifDelay;
+
+    // Paleta: índice de cor de cada terreno (por célula) e de cada código de ator
+    private final IndexColorModel palette;
+    private final byte[] terrainIndex;
+    private final byte[] codeIndex = new byte[256];
+
+    // Buffers de códigos livres (limitam a fila) e quadros à espera
+    private final BlockingQueue<byte[]> freeBuffers;
+    private final BlockingQueue<Frame> frames;
+    private final Thread[] encoders;
+
+    // Saída do GIF (null no modo PNG) e próximo quadro a gravar nela
+    private final ImageWriter gifWriter;
+    private final ImageOutputStream gifOutput;
+    private int nextToWrite;
+
+    private int submitted;
+    private final AtomicInteger written = new AtomicInteger();
+    private volatile IOException error;
+    private boolean closed;
+
+    /**
+     * Um quadro à espera de ser desenhado: número de sequência e códigos.
+     */
+    private static final class Frame {
+        final int sequence;
+        final byte[] codes;
+
+        Frame(int sequence, byte[] codes) {
+            this.sequence = sequence;
+            this.codes = codes;
+        }
+    }
+
+    /**
+     * Cria um exportador com as cores padrão, tamanho de célula e fila padrão
+     * e uma codificadora por processador.
+     *
+     * @param directory O diretório de saída (criado se não existir).
+     * @param format O formato das imagens.
+     * @param field O campo a exportar (dimensões e terreno).
+     * @throws IOException Se a saída não puder ser criada.
+     */
+    public FrameExporter(String directory, Format format, Field field) throws IOException {
+        this(directory, format, field, Simulator.getDefaultColors(), DEFAULT_CELL_SIZE,
+             Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY, DEFAULT_GIF_DELAY);
+    }
+
+    /**
+     * Cria um exportador.
+     *
+     * @param directory O diretório de saída (criado se não existir).
+     * @param format O formato das imagens.
+     * @param field O campo a exportar (dimensões e terreno).
+     * @param colors A cor de cada classe de ator (espécies e Hunter).
+     * @param cellSize Pixels por célula.
+     * @param encoderThreads Número de threads codificadoras.
+     * @param queueCapacity Quadros que podem esperar na fila.
+     * @param gifDelay Milissegundos entre quadros do GIF (ignorado em PNG).
+     * @throws IOException Se a saída não puder ser criada.
+     */
+    public FrameExporter(String directory, Format format, Field field, Map<Class<?>, Color> colors,
+                         int cellSize, int encoderThreads, int queueCapacity, int gifDelay)
+            throws IOException {
+        if (cellSize <= 0 || encoderThreads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Parâmetros de exportação inválidos");
+        }
+        this.directory = new File(directory);
+        if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+            throw new IOException("Não foi possível criar o diretório " + directory);
+        }
+        this.format = format;
+        this.depth = field.getDepth();
+        this.width = field.getWidth();
+        this.cellSize = cellSize;
+        this.gifDelay = gifDelay;
+
+        // Paleta: terrenos, depois espécies, caçador e cor desconhecida
+        TerrainType[] terrains = TerrainType.values();
+        int speciesCount = SpeciesRegistry.getSpeciesCount();
+        int size = terrains.length + speciesCount + 2;
+        if (size > 256) {
+            throw new IllegalArgumentException("Espécies demais para uma paleta de 256 cores");
+        }
+        Color[] paletteColors = new Color[size];
+        for (int i = 0; i < terrains.length; i++) {
+            paletteColors[i] = terrains[i].getColor();
+        }
+        for (int id = 0; id < speciesCount; id++) {
+            paletteColors[terrains.length + id] = colorOf(colors, SpeciesRegistry.getName(id));
+        }
+        int hunterIndex = terrains.length + speciesCount;
+        int unknownIndex = hunterIndex + 1;
+        paletteColors[hunterIndex] = colors.getOrDefault(Hunter.class, UNKNOWN_COLOR);
+        paletteColors[unknownIndex] = UNKNOWN_COLOR;
+        byte[] red = new byte[size], green = new byte[size], blue = new byte[size];
+        for (int i = 0; i < size; i++) {
+            red[i] = (byte) paletteColors[i].getRed();
+            green[i] = (byte) paletteColors[i].getGreen();
+            blue[i] = (byte) paletteColors[i].getBlue();
+        }
+        palette = new IndexColorModel(8, size, red, green, blue);
+
+        Arrays.fill(codeIndex, (byte) unknownIndex);
+        for (int id = 0; id < speciesCount; id++) {
+            codeIndex[id + 1] = (byte) (terrains.length + id);
+        }
+        codeIndex[TimelineRecorder.HUNTER & 0xFF] = (byte) hunterIndex;
+        terrainIndex = new byte[depth * width];
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                terrainIndex[row * width + col] = (byte) field.getTerrainAt(row, col).ordinal();
+            }
+        }
+
+        // Saída do GIF animado (um único arquivo, gravado em ordem)
+        if (format == Format.GIF) {
+            gifWriter = ImageIO.getImageWritersByFormatName("gif").next();
+            gifOutput = ImageIO.createImageOutputStream(new File(this.directory, "simulacao.gif"));
+            gifWriter.setOutput(gifOutput);
+            gifWriter.prepareWriteSequence(null);
+        } else {
+            gifWriter = null;
+            gifOutput = null;
+        }
+
+        // Buffers de códigos: os da fila mais um por codificadora em uso
+        freeBuffers = new ArrayBlockingQueue<>(queueCapacity + encoderThreads);
+        for (int i = 0; i < queueCapacity + encoderThreads; i++) {
+            freeBuffers.add(new byte[depth * width]);
+        }
+        frames = new LinkedBlockingQueue<>();
+        encoders = new Thread[encoderThreads];
+        for (int i = 0; i < encoderThreads; i++) {
+            encoders[i] = new Thread(this::encodeFrames, "codificador-quadros-" + i);
+            encoders[i].setDaemon(true);
+            encoders[i].start();
+        }
+    }
+
+    /**
+     * @return A cor da espécie com o nome dado (nome da classe), ou a cor desconhecida.
+     * Também usada pelo SimulationServer para a paleta enviada ao navegador.
+     */
+    static Color colorOf(Map<Class<?>, Color> colors, String speciesName) {
+        for (Map.Entry<Class<?>, Color> entry : colors.entrySet()) {
+            if (entry.getKey().getName().equals(speciesName)) {
+                return entry.getValue();
+            }
+        }
+        return UNKNOWN_COLOR;
+    }
+
+    /**
+     * Copia o estado do campo e põe o quadro na fila de codificação. Só
+     * espera se a fila estiver cheia.
+     *
+     * @param field O campo no estado a exportar.
+     * @throws IOException Se uma codificadora falhou ou a espera foi interrompida.
+     */
+    public void exportFrame(Field field) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Exportação já encerrada");
+        }
+        checkError();
+        byte[] codes;
+        try {
+            codes = freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exportação interrompida", e);
+        }
+        TimelineRecorder.captureCodes(field, codes);
+        frames.add(new Frame(submitted++, codes));
+    }
+
+    /**
+     * Laço de uma codificadora: desenha e grava quadros até o marcador de fim.
+     */
+    private void encodeFrames() {
+        BufferedImage image = newImage();
+        while (true) {
+            Frame frame;
+            try {
+                frame = frames.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (frame == END) {
+                return;
+            }
+            // Um erro em qualquer etapa não pode prender as outras threads: o
+            // buffer sempre volta para a fila e, no GIF, a vez deste quadro
+            // sempre passa para o seguinte
+            boolean bufferReturned = false;
+            boolean gifTurnTaken = false;
+            try {
+                if (format == Format.GIF) {
+                    // Cada quadro do GIF tem imagem própria até ser gravado
+                    BufferedImage gifImage = newImage();
+                    render(frame.codes, gifImage);
+                    freeBuffers.add(frame.codes);
+                    bufferReturned = true;
+                    gifTurnTaken = true;  // writeGifInOrder avança a vez mesmo se falhar
+                    writeGifInOrder(frame.sequence, gifImage);
+                } else {
+                    render(frame.codes, image);
+                    freeBuffers.add(frame.codes);
+                    bufferReturned = true;
+                    File file = new File(directory, String.format("quadro_%06d.png", frame.sequence));
+                    ImageIO.write(image, "png", file);
+                }
+                written.incrementAndGet();
+            } catch (IOException e) {
+                recordError(e);
+            } catch (RuntimeException e) {
+                recordError(new IOException("Falha ao codificar o quadro " + frame.sequence, e));
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                if (!bufferReturned) {
+                    freeBuffers.add(frame.codes);
+                }
+                if (format == Format.GIF && !gifTurnTaken) {
+                    skipGifTurn(frame.sequence);
+                }
+            }
+        }
+    }
+
+    /**
+     * Guarda o primeiro erro das codificadoras, relançado por exportFrame e close.
+     */
+    private void recordError(IOException e) {
+        if (error == null) {
+            error = e;
+        }
+    }
+
+    /**
+     * @return Uma imagem indexada do tamanho do campo.
+     */
+    private BufferedImage newImage() {
+        return new BufferedImage(width * cellSize, depth * cellSize, BufferedImage.TYPE_BYTE_INDEXED, palette);
+    }
+
+    /**
+     * Desenha os códigos de célula na imagem: cada célula vira um bloco de
+     * cellSize x cellSize pixels com o índice de cor do ator ou do terreno.
+     */
+    private void render(byte[] codes, BufferedImage image) {
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        int imageWidth = width * cellSize;
+        for (int row = 0; row < depth; row++) {
+            int lineStart = row * cellSize * imageWidth;
+            int pixel = lineStart;
+            for (int col = 0; col < width; col++) {
+                int cell = row * width + col;
+                int code = codes[cell] & 0xFF;
+                byte color = code == TimelineRecorder.EMPTY ? terrainIndex[cell] : codeIndex[code];
+                for (int k = 0; k < cellSize; k++) {
+                    pixels[pixel++] = color;
+                }
+            }
+            // As outras linhas de pixels da célula repetem a primeira
+            for (int k = 1; k < cellSize; k++) {
+                System.arraycopy(pixels, lineStart, pixels, lineStart + k * imageWidth, imageWidth);
+            }
+        }
+    }
+
+    /**
+     * Passa a vez de um quadro do GIF que falhou antes de ser gravado, para
+     * que os seguintes não esperem por ele para sempre.
+     */
+    private void skipGifTurn(int sequence) {
+        synchronized (gifWriter) {
+            try {
+                while (nextToWrite != sequence) {
+                    gifWriter.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            nextToWrite++;
+            gifWriter.notifyAll();
+        }
+    }
+
+    /**
+     * Grava um quadro no GIF depois de todos os anteriores. As codificadoras
+     * pegam os quadros em ordem, então o anterior está sempre em andamento.
+     */
+    private void writeGifInOrder(int sequence, BufferedImage image) throws IOException, InterruptedException {
+        synchronized (gifWriter) {
+            while (nextToWrite != sequence) {
+                gifWriter.wait();
+            }
+            try {
+                gifWriter.writeToSequence(new IIOImage(image, null, gifMetadata(image, sequence == 0)), null);
+            } finally {
+                nextToWrite++;
+                gifWriter.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Monta os metadados de um quadro do GIF: tempo de exibição e, no
+     * primeiro quadro, a extensão que faz a animação repetir sem fim.
+     */
+    private IIOMetadata gifMetadata(BufferedImage image, boolean first) throws IOException {
+        IIOMetadata metadata = gifWriter.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), null);
+        String formatName = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(formatName);
+
+        IIOMetadataNode control = child(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", Integer.toString(gifDelay / 10));  // Centésimos de segundo
+        control.setAttribute("transparentColorIndex", "0");
+
+        if (first) {
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[] {1, 0, 0});  // Repetir sempre
+            child(root, "ApplicationExtensions").appendChild(loop);
+        }
+        metadata.setFromTree(formatName, root);
+        return metadata;
+    }
+
+    /**
+     * @return O filho com o nome dado, criado se não existir.
+     */
+    private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+        for (int i = 0; i < parent.getLength(); i++) {
+            if (parent.item(i).getNodeName().equals(name)) {
+                return (IIOMetadataNode) parent.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        parent.appendChild(node);
+        return node;
+    }
+
+    /**
+     * Relança o primeiro erro de uma codificadora, se houver.
+     */
+    private void checkError() throws IOException {
+        if (error != null) {
+            throw new IOException("Falha ao gravar quadro: " + error.getMessage(), error);
+        }
+    }
+
+    /**
+     * Espera as codificadoras gravarem todos os quadros da fila e fecha a
+     * saída.
+     *
+     * @throws IOException Se algum quadro não pôde ser gravado.
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int i = 0; i < encoders.length; i++) {
+            frames.add(END);
+        }
+        try {
+            for (Thread encoder : encoders) {
+                encoder.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exportação interrompida", e);
+        } finally {
+            if (gifWriter != null) {
+                try {
+                    gifWriter.endWriteSequence();
+                    gifOutput.close();
+                } finally {
+                    gifWriter.dispose();
+                }
+            }
+        }
+        checkError();
+    }
+
+    /**
+     * @return O número de quadros postos na fila.
+     */
+    public int getFramesSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * @return O número de quadros já gravados.
+     */
+    public int getFramesWritten() {
+        return written.get();
+    }
+
+    /**
+     * @return O diretório de saída.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+}
@@ -1,24 +1,32 @@
 /**
  * Classe abstrata que representa um animal herbívoro na simulação.
- * Herbívoros se alimentam de plantas e se movem aleatoriamente.
+ * Herbívoros se alimentam da grama do campo (quando há camada de vegetação)
+ * e morrem de fome se o estômago esvaziar.
  * 
  * @author TP_Grupo08
  * @version 2025
  */
 public abstract class Herbivore extends Animal {
 
+    // Nível de comida que não se esgota durante uma simulação
+    private static final int NEVER_HUNGRY = Integer.MAX_VALUE / 2;
+
     /**
      * Cria um novo herbívoro.
      * 
      * @param randomAge Se true, o herbívoro terá idade aleatória.
+     * @param speciesId O identificador da espécie na SpeciesRegistry.
      */
-    public Herbivore(boolean randomAge) {
-        super(randomAge);
+    public Herbivore(boolean randomAge, int speciesId) {
+        // Com idade aleatória, comida também aleatória (nunca zero);
+        // recém-nascido começa com estômago cheio
+        super(randomAge, speciesId, 1);
     }
 
     /**
      * Encontra a próxima localização para onde o herbívoro deve se mover.
-     * Herbívoros se movem para localizações adjacentes livres.
+     * Herbívoros se movem para localizações adjacentes livres, preferindo
+     * as de menor rastro de predadores, e comem a grama do destino.
      *
      * @param currentField O campo atual.
      * @param updatedField O campo atualizado.
@@ -26,6 +34,23 @@ public abstract class Herbivore extends Animal {
      */
     @Override
     public Location findNextLocation(Field currentField, Field updatedField) {
-        return updatedField.freeAdjacentLocation(getLocation());
+        // A fome (um por passo) é derivada do relógio em Animal; a morte por
+        // fome já foi verificada antes deste método ser chamado
+        VegetationLayer vegetation = updatedField.getVegetation();
+        if (vegetation == null && getFoodLevel() <= getMaxFoodValue()) {
+            // Sem camada de vegetação a comida nunca falta: a fome é desligada
+            // uma única vez (estômago "infinito"), sem reagendar a cada passo
+            setFoodLevel(NEVER_HUNGRY);
+        }
+        
+        Location next = updatedField.freeAdjacentLocationByScent(getLocation(), updatedField.getThreatScent(), false);
+        if (next != null && vegetation != null) {
+            // Come o quanto couber no estômago da grama disponível no destino
+            int eaten = vegetation.consume(next, getMaxFoodValue() - getFoodLevel());
+            if (eaten > 0) {
+                setFoodLevel(getFoodLevel() + eaten);
+            }
+        }
+        return next;
     }
 }
\ No newline at end of file
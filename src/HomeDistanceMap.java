@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+/**
+ * Campo de distâncias (em passos) de cada célula até a casa de um caçador.
+ * Calculado uma única vez por busca em largura sobre o terreno transitável,
+ * permite que o caçador volte para casa contornando lagos e árvores
+ * consultando apenas as 8 células vizinhas a cada passo.
+ *
+ * Para que milhares de caçadores continuem baratos em mapas grandes, o
+ * campo é limitado a MAX_RADIUS passos da casa e guardado em blocos de
+ * TILE_SIZE x TILE_SIZE bytes (a distância cabe em um byte sem sinal),
+ * alocados só quando a busca chega a eles: água, árvores e regiões
+ * isoladas não custam nada. Em um mapa aberto são cerca de 80 KB por
+ * casa, qualquer que seja o tamanho do mapa (um vetor de short com o
+ * mapa inteiro custaria 2 MB por casa em 1000x1000). Fora do raio o
+ * caçador usa o passo guloso até entrar no campo.
+ * 
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class HomeDistanceMap {
+    
+    // Maior distância guardada; a busca não passa dela
+    public static final int MAX_RADIUS = 128;
+    
+    // Blocos de 16x16 células
+    private static final int TILE_SHIFT = 4;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    
+    // Valor usado para células que não alcançam a casa (água, árvore, isoladas ou fora do raio)
+    private static final int UNREACHABLE = -1;
+    private static final byte UNREACHABLE_BYTE = (byte) 0xFF;
+    
+    // Dimensões do campo para o qual as distâncias foram calculadas
+    private final int depth, width;
+    
+    // Blocos da caixa em volta da casa (a única região que a busca alcança)
+    private final int firstTileRow, firstTileCol;
+    private final int tileRows, tileCols;
+    
+    // Distâncias de cada bloco (linha * TILE_SIZE + coluna dentro do bloco); null = nada alcançado
+    private final byte[][] tiles;
+
+    /**
+     * Calcula o campo de distâncias até a casa dada.
+     *
+     * @param field O campo cujo terreno será usado.
+     * @param home A localização da casa do caçador.
+     */
+    public HomeDistanceMap(Field field, Location home) {
+        depth = field.getDepth();
+        width = field.getWidth();
+        firstTileRow = Math.max(0, home.getRow() - MAX_RADIUS) >> TILE_SHIFT;
+        firstTileCol = Math.max(0, home.getCol() - MAX_RADIUS) >> TILE_SHIFT;
+        tileRows = (Math.min(depth - 1, home.getRow() + MAX_RADIUS) >> TILE_SHIFT) - firstTileRow + 1;
+        tileCols = (Math.min(width - 1, home.getCol() + MAX_RADIUS) >> TILE_SHIFT) - firstTileCol + 1;
+        tiles = new byte[tileRows * tileCols][];
+        computeDistances(field, home);
+    }
+
+    /**
+     * Busca em largura (vizinhança de 8 células) a partir da casa,
+     * atravessando apenas terrenos transitáveis, até MAX_RADIUS passos.
+     */
+    private void computeDistances(Field field, Location home) {
+        // Fila de células (linha * largura + coluna); cada uma entra no máximo uma vez
+        int[] queue = new int[tileRows * tileCols * TILE_SIZE * TILE_SIZE];
+        int head = 0, tail = 0;
+        
+        setDistance(home.getRow(), home.getCol(), 0);
+        queue[tail++] = home.getRow() * width + home.getCol();
+        
+        while (head < tail) {
+            int cell = queue[head++];
+            int row = cell / width;
+            int col = cell % width;
+            int next = getDistance(row, col) + 1;
+            if (next > MAX_RADIUS) {
+                continue;  // Borda do campo: vizinhos ficam de fora
+            }
+            
+            // Visita os vizinhos ainda não alcançados
+            for (int roffset = -1; roffset <= 1; roffset++) {
+                int nextRow = row + roffset;
+                if (nextRow < 0 || nextRow >= depth) {
+                    continue;
+                }
+                for (int coffset = -1; coffset <= 1; coffset++) {
+                    int nextCol = col + coffset;
+                    if (nextCol < 0 || nextCol >= width) {
+                        continue;
+                    }
+                    if (getDistance(nextRow, nextCol) == UNREACHABLE
+                            && field.getTerrainAt(nextRow, nextCol).isTraversable()) {
+                        setDistance(nextRow, nextCol, next);
+                        queue[tail++] = nextRow * width + nextCol;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A distância guardada da célula, ou UNREACHABLE.
+     */
+    private int getDistance(int row, int col) {
+        int tileRow = (row >> TILE_SHIFT) - firstTileRow;
+        int tileCol = (col >> TILE_SHIFT) - firstTileCol;
+        if (tileRow < 0 || tileRow >= tileRows || tileCol < 0 || tileCol >= tileCols) {
+            return UNREACHABLE;
+        }
+        byte[] tile = tiles[tileRow * tileCols + tileCol];
+        if (tile == null) {
+            return UNREACHABLE;
+        }
+        byte distance = tile[((row & TILE_MASK) << TILE_SHIFT) | (col & TILE_MASK)];
+        return distance == UNREACHABLE_BYTE ? UNREACHABLE : distance & 0xFF;
+    }
+
+    /**
+     * Guarda a distância de uma célula da caixa, alocando o bloco se preciso.
+     */
+    private void setDistance(int row, int col, int distance) {
+        int index = ((row >> TILE_SHIFT) - firstTileRow) * tileCols + (col >> TILE_SHIFT) - firstTileCol;
+        byte[] tile = tiles[index];
+        if (tile == null) {
+            tile = new byte[TILE_SIZE * TILE_SIZE];
+            Arrays.fill(tile, UNREACHABLE_BYTE);
+            tiles[index] = tile;
+        }
+        tile[((row & TILE_MASK) << TILE_SHIFT) | (col & TILE_MASK)] = (byte) distance;
+    }
+
+    /**
+     * Retorna a distância de uma localização até a casa.
+     *
+     * @param location A localização consultada.
+     * @return A distância em passos, ou -1 se a casa não for alcançável
+     *         ou estiver a mais de MAX_RADIUS passos.
+     */
+    public int getDistance(Location location) {
+        return getDistance(location.getRow(), location.getCol());
+    }
+
+    /**
+     * Escolhe a célula vizinha livre que mais aproxima o caçador de casa.
+     *
+     * @param from A localização atual do caçador.
+     * @param field O campo usado para verificar ocupação e permissões.
+     * @param hunter O caçador que está se movendo.
+     * @return A próxima localização, ou null se nenhuma vizinha livre for mais próxima.
+     */
+    public Location nextStepTowardsHome(Location from, Field field, Hunter hunter) {
+        int current = getDistance(from);
+        if (current == UNREACHABLE) {
+            return null;  // Caçador está em uma região sem caminho até a casa
+        }
+        
+        Location best = null;
+        int bestDistance = current;
+        for (int roffset = -1; roffset <= 1; roffset++) {
+            int nextRow = from.getRow() + roffset;
+            if (nextRow < 0 || nextRow >= depth) {
+                continue;
+            }
+            for (int coffset = -1; coffset <= 1; coffset++) {
+                int nextCol = from.getCol() + coffset;
+                if (nextCol < 0 || nextCol >= width) {
+                    continue;
+                }
+                int distance = getDistance(nextRow, nextCol);
+                // Só interessa descer no campo de distâncias
+                if (distance == UNREACHABLE || distance >= bestDistance) {
+                    continue;
+                }
+                Location candidate = new Location(nextRow, nextCol);
+                Actor occupant = field.getObjectAt(candidate);
+                if ((occupant == null || occupant == hunter) && field.canHunterMoveTo(candidate, hunter)) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+}
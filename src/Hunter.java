@@ -34,6 +34,15 @@ public class Hunter implements Actor {
     
     // Contador de passos no inverno (para movimento mais lento)
     private int winterStepCounter;
+    
+    // Distâncias pré-calculadas até a casa (compartilhadas por casa), ou null
+    private HomeDistanceMap homeDistances;
+    
+    // Índice espacial para rastrear a presa mais próxima, ou null (caminhada aleatória)
+    private SpatialIndex preyIndex;
+    
+    // Raio máximo de rastreamento de presas
+    private int trackingRadius;
 
     /**
      * Cria um novo caçador.
@@ -141,34 +150,17 @@ public class Hunter implements Actor {
             return true; // Já chegou em casa
         }
         
-        // Calcula a diferença de posição entre localização atual e casa
-        int rowDiff = homeLocation.getRow() - location.getRow();
-        int colDiff = homeLocation.getCol() - location.getCol();
-        
-        // Começa com a posição atual
-        int moveRow = location.getRow();
-        int moveCol = location.getCol();
-        
-        // Decide a direção do movimento (prioriza o eixo com maior diferença)
-        if (Math.abs(rowDiff) > Math.abs(colDiff)) {
-            // Move na direção vertical (linha) - diferença maior nas linhas
-            if (rowDiff > 0) moveRow++; // Casa está abaixo, move para baixo
-            else if (rowDiff < 0) moveRow--; // Casa está acima, move para cima
-        } else if (colDiff != 0) {
-            // Move na direção horizontal (coluna) - diferença maior nas colunas
-            if (colDiff > 0) moveCol++; // Casa está à direita, move para direita
-            else if (colDiff < 0) moveCol--; // Casa está à esquerda, move para esquerda
-        } else if (rowDiff != 0) {
-            // Se colDiff é 0 mas rowDiff não é, move na vertical
-            if (rowDiff > 0) moveRow++;
-            else moveRow--;
+        // Com distâncias pré-calculadas, desce no campo de distâncias (contorna obstáculos);
+        // sem elas, ou fora do raio delas, usa o passo guloso em um eixo
+        Location moveLoc;
+        if (homeDistances != null && homeDistances.getDistance(location) >= 0) {
+            moveLoc = homeDistances.nextStepTowardsHome(location, currentField, this);
+        } else {
+            moveLoc = greedyStepTowardsHome();
         }
         
-        // Cria a localização de destino ideal
-        Location moveLoc = new Location(moveRow, moveCol);
-        
         // Verifica se pode mover para a localização ideal
-        if (currentField.canAnimalMoveTo(moveLoc) && 
+        if (moveLoc != null && currentField.canHunterMoveTo(moveLoc, this) && 
             (currentField.getObjectAt(moveLoc) == null || 
             currentField.getObjectAt(moveLoc) == this)) {
             // Movimento bem-sucedido para a direção ideal
@@ -198,6 +190,92 @@ public class Hunter implements Actor {
         }
     }
 
+    /**
+     * Calcula o passo guloso em direção à casa, em um único eixo.
+     * Usado quando não há distâncias pré-calculadas até a célula atual.
+     *
+     * @return A localização vizinha na direção da casa.
+     */
+    private Location greedyStepTowardsHome() {
+        // Calcula a diferença de posição entre localização atual e casa
+        int rowDiff = homeLocation.getRow() - location.getRow();
+        int colDiff = homeLocation.getCol() - location.getCol();
+        
+        // Começa com a posição atual
+        int moveRow = location.getRow();
+        int moveCol = location.getCol();
+        
+        // Decide a direção do movimento (prioriza o eixo com maior diferença)
+        if (Math.abs(rowDiff) > Math.abs(colDiff)) {
+            // Move na direção vertical (linha) - diferença maior nas linhas
+            if (rowDiff > 0) moveRow++; // Casa está abaixo, move para baixo
+            else if (rowDiff < 0) moveRow--; // Casa está acima, move para cima
+        } else if (colDiff != 0) {
+            // Move na direção horizontal (coluna) - diferença maior nas colunas
+            if (colDiff > 0) moveCol++; // Casa está à direita, move para direita
+            else if (colDiff < 0) moveCol--; // Casa está à esquerda, move para esquerda
+        } else if (rowDiff != 0) {
+            // Se colDiff é 0 mas rowDiff não é, move na vertical
+            if (rowDiff > 0) moveRow++;
+            else moveRow--;
+        }
+        
+        // Retorna a localização de destino ideal
+        return new Location(moveRow, moveCol);
+    }
+
+    /**
+     * Liga o modo rastreador: sem presa adjacente, o caçador anda em
+     * direção ao animal vivo mais próximo dentro do raio.
+     *
+     * @param index O índice espacial dos animais, ou null para desligar.
+     * @param radius O raio máximo de rastreamento.
+     */
+    public void setTracking(SpatialIndex index, int radius) {
+        this.preyIndex = index;
+        this.trackingRadius = radius;
+    }
+
+    /**
+     * Escolhe a célula vizinha livre que mais aproxima o caçador do alvo.
+     *
+     * @param currentField O campo atual.
+     * @param target A localização do alvo.
+     * @return A próxima localização, ou null se nenhuma vizinha livre aproximar.
+     */
+    private Location stepTowards(Field currentField, Location target) {
+        Location best = null;
+        int bestDistance = chebyshev(location, target);
+        for (int roffset = -1; roffset <= 1; roffset++) {
+            for (int coffset = -1; coffset <= 1; coffset++) {
+                Location candidate = new Location(location.getRow() + roffset, location.getCol() + coffset);
+                int distance = chebyshev(candidate, target);
+                if (distance < bestDistance && currentField.canHunterMoveTo(candidate, this)
+                        && currentField.getObjectAt(candidate) == null) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return A distância em passos (vizinhança de 8 células) entre dois locais.
+     */
+    private static int chebyshev(Location a, Location b) {
+        return Math.max(Math.abs(a.getRow() - b.getRow()), Math.abs(a.getCol() - b.getCol()));
+    }
+
+    /**
+     * Define as distâncias pré-calculadas até a casa deste caçador.
+     *
+     * @param homeDistances O campo de distâncias da casa (pode ser compartilhado).
+     */
+    public void setHomeDistances(HomeDistanceMap homeDistances) {
+        this.homeDistances = homeDistances;
+    }
+
     /**
      * Verifica se o caçador está vivo.
      *
@@ -246,6 +324,13 @@ public class Hunter implements Actor {
         return kills;
     }
 
+    /**
+     * @return true se o caçador está ativo (fora do inverno).
+     */
+    public boolean isActive() {
+        return active;
+    }
+
     /**
      * Define se o caçador está ativo.
      *
@@ -292,7 +377,7 @@ public class Hunter implements Actor {
             if (obj instanceof Animal) {
                 Animal prey = (Animal) obj;
                 // Mata o animal
-                prey.setDead();
+                prey.setDead(DeathCause.HUNTED);
                 // Incrementa o contador pessoal de caças
                 kills++;
                 
@@ -312,8 +397,18 @@ public class Hunter implements Actor {
             return; // Sai do método - caça concluída
         }
         
-        // Se não encontrou animais para caçar, move-se aleatoriamente
-        Location newLoc = currentField.freeAdjacentLocation(location);
+        // Se não encontrou animais adjacentes, rastreia o mais próximo (modo rastreador)
+        // ou move-se aleatoriamente
+        Location newLoc = null;
+        if (preyIndex != null) {
+            Animal target = preyIndex.findNearest(location, trackingRadius);
+            if (target != null) {
+                newLoc = stepTowards(currentField, target.getLocation());
+            }
+        }
+        if (newLoc == null) {
+            newLoc = currentField.freeAdjacentLocation(location);
+        }
         if (newLoc != null && !newLoc.equals(location)) {
             // Move para um local adjacente livre
             location = newLoc;
@@ -0,0 +1,224 @@
+import java.util.Arrays;
+
+/**
+ * Fila de prioridade indexada (heap binário mínimo) de eventos em tempo
+ * contínuo. Cada item agendado recebe um identificador (handle) estável,
+ * pelo qual o seu horário pode ser alterado ou o item removido em
+ * O(log n), sem procurar o item no heap.
+ *
+ * Usada pelo motor orientado a eventos: cada ator tem exatamente um
+ * evento na fila (o seu próximo acontecimento), que é reposicionado no
+ * lugar depois de disparar, em vez de ser removido e inserido de novo.
+ *
+ * @param <T> O tipo dos itens agendados.
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class IndexedEventQueue<T> {
+
+    // Valor de posição para handles que não estão no heap
+    private static final int NOT_QUEUED = -1;
+
+    // Horário agendado de cada handle
+    private double[] times;
+
+    // Item de cada handle (null para handles livres)
+    private Object[] items;
+
+    // Heap binário: heap[i] é o handle na posição i
+    private int[] heap;
+
+    // Posição de cada handle no heap (NOT_QUEUED se fora do heap)
+    private int[] positions;
+
+    // Pilha de handles liberados, reaproveitados antes de crescer os vetores
+    private int[] freeHandles;
+    private int freeCount;
+
+    // Número de handles já criados e número de itens no heap
+    private int handleCount;
+    private int size;
+
+    /**
+     * Cria uma fila vazia.
+     */
+    public IndexedEventQueue() {
+        int capacity = 64;
+        times = new double[capacity];
+        items = new Object[capacity];
+        heap = new int[capacity];
+        positions = new int[capacity];
+        freeHandles = new int[capacity];
+    }
+
+    /**
+     * Agenda um novo item.
+     *
+     * @param item O item a agendar.
+     * @param time O horário do evento.
+     * @return O handle do item, válido até ser liberado com remove().
+     */
+    public int add(T item, double time) {
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            if (handleCount == times.length) {
+                grow();
+            }
+            handle = handleCount++;
+        }
+        items[handle] = item;
+        times[handle] = time;
+        positions[handle] = size;
+        heap[size++] = handle;
+        siftUp(size - 1);
+        return handle;
+    }
+
+    /**
+     * Altera o horário de um item agendado, reposicionando-o no heap.
+     *
+     * @param handle O handle do item.
+     * @param time O novo horário.
+     */
+    public void update(int handle, double time) {
+        double old = times[handle];
+        times[handle] = time;
+        if (time < old) {
+            siftUp(positions[handle]);
+        } else {
+            siftDown(positions[handle]);
+        }
+    }
+
+    /**
+     * Remove um item da fila e libera o seu handle.
+     *
+     * @param handle O handle do item.
+     */
+    public void remove(int handle) {
+        int index = positions[handle];
+        int last = heap[--size];
+        if (index != size) {
+            // O último elemento ocupa o lugar do removido e é reposicionado
+            heap[index] = last;
+            positions[last] = index;
+            siftDown(index);
+            siftUp(positions[last]);
+        }
+        positions[handle] = NOT_QUEUED;
+        items[handle] = null;
+        freeHandles[freeCount++] = handle;
+    }
+
+    /**
+     * @return O handle do próximo evento (menor horário).
+     * @throws IllegalStateException Se a fila estiver vazia.
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Fila de eventos vazia");
+        }
+        return heap[0];
+    }
+
+    /**
+     * @param handle Um handle agendado.
+     * @return O item associado ao handle.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int handle) {
+        return (T) items[handle];
+    }
+
+    /**
+     * @param handle Um handle agendado.
+     * @return O horário agendado para o handle.
+     */
+    public double getTime(int handle) {
+        return times[handle];
+    }
+
+    /**
+     * @return O número de itens agendados.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true se não houver itens agendados.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove todos os itens e libera todos os handles.
+     */
+    public void clear() {
+        Arrays.fill(items, 0, handleCount, null);
+        handleCount = 0;
+        freeCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Sobe o handle da posição dada até restaurar a ordem do heap.
+     */
+    private void siftUp(int index) {
+        int handle = heap[index];
+        double time = times[handle];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentHandle = heap[parent];
+            if (times[parentHandle] <= time) {
+                break;
+            }
+            heap[index] = parentHandle;
+            positions[parentHandle] = index;
+            index = parent;
+        }
+        heap[index] = handle;
+        positions[handle] = index;
+    }
+
+    /**
+     * Desce o handle da posição dada até restaurar a ordem do heap.
+     */
+    private void siftDown(int index) {
+        int handle = heap[index];
+        double time = times[handle];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int childHandle = heap[child];
+            int right = child + 1;
+            if (right < size && times[heap[right]] < times[childHandle]) {
+                child = right;
+                childHandle = heap[right];
+            }
+            if (time <= times[childHandle]) {
+                break;
+            }
+            heap[index] = childHandle;
+            positions[childHandle] = index;
+            index = child;
+        }
+        heap[index] = handle;
+        positions[handle] = index;
+    }
+
+    /**
+     * Dobra a capacidade dos vetores.
+     */
+    private void grow() {
+        int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        items = Arrays.copyOf(items, capacity);
+        heap = Arrays.copyOf(heap, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        freeHandles = Arrays.copyOf(freeHandles, capacity);
+    }
+}
@@ -0,0 +1,1032 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Motor de simulação em reticulado para mapas só de grama, tratados como
+ * um autômato celular. O mundo é guardado como grades planas por atributo
+ * (espécie em bytes, idade e comida em shorts), e cada passo é uma
+ * sequência de varreduras em massa sobre linhas inteiras:
+ *
+ * 1. envelhecimento, fome e mortes;
+ * 2. nascimentos: cada pai marca as vizinhas que quer ocupar e cada
+ *    célula vazia escolhe um dos pais que a marcaram;
+ * 3. propostas de predação, vencedor de cada alvo, cancelamento das
+ *    propostas dos predadores que vão ser comidos e resolução;
+ * 4. propostas de movimento, vencedor de cada alvo e resolução.
+ *
+ * Toda varredura lê só o estado anterior e escreve só a própria célula
+ * (formulação "pull"), então as faixas de linhas podem ser processadas em
+ * paralelo. As decisões aleatórias vêm de um hash da semente, do passo e
+ * da célula, de modo que o resultado não depende da ordem nem do número
+ * de threads. Os laços internos são operações simples sobre vetores de
+ * bytes e shorts, na forma que o compilador JIT consegue vetorizar.
+ *
+ * As grades têm uma borda de uma célula marcada como parede, para que os
+ * oito vizinhos de qualquer célula interna sejam deslocamentos fixos.
+ * Terreno não transitável também vira parede. Não há caçadores, rastros
+ * nem grama (os herbívoros não passam fome).
+ *
+ * Uma instância também pode simular só uma faixa de linhas de um mundo
+ * maior (ver LatticeWorker): as linhas de borda passam a ser cópias das
+ * linhas vizinhas de outra faixa ("halo"), atualizadas por um Halo entre
+ * as varreduras. Nenhuma varredura lê além dos 8 vizinhos, e o hash usa
+ * o índice global da célula, então as faixas juntas reproduzem
+ * exatamente a execução em um só processo.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class LatticeSimulator {
+
+    // Número de linhas de cada faixa processada de uma vez
+    private static final int BAND_ROWS = 64;
+
+    // A partir deste número de células as varreduras usam várias threads
+    private static final int PARALLEL_THRESHOLD = 256 * 256;
+
+    // Códigos de célula: 0 = vazia, 1..n = espécie (id + 1), WALL = parede
+    private static final byte EMPTY = 0;
+    private static final byte WALL = (byte) 0xFF;
+
+    // Propostas: 0..7 = direção do vizinho, NO_MOVE = fica onde está
+    private static final byte NO_MOVE = 8;
+
+    // Camadas trocadas com as faixas vizinhas (combináveis por OU)
+    static final int STATE = 1;      // Espécie, idade e comida
+    static final int CLAIM = 2;      // Vizinhas pedidas para a ninhada
+    static final int PROPOSAL = 4;   // Propostas de predação ou movimento
+    static final int WINNER = 8;     // Vencedor de cada célula alvo
+
+    /**
+     * Troca as linhas de borda de uma faixa com as faixas vizinhas.
+     */
+    interface Halo {
+        /**
+         * Envia as linhas extremas da faixa e preenche as linhas de halo
+         * com as das vizinhas (ver exportRow e importRow).
+         *
+         * @param lattice A faixa.
+         * @param layers As camadas a trocar.
+         */
+        void exchange(LatticeSimulator lattice, int layers);
+    }
+
+    // Sais do hash, um para cada tipo de decisão aleatória
+    private static final long SALT_BREED = 1;
+    private static final long SALT_LITTER = 2;
+    private static final long SALT_ROTATION = 3;
+    private static final long SALT_PRIORITY = 4;
+    private static final long SALT_CHOICE = 5;
+
+    // Dimensões internas e largura da grade com borda
+    private final int depth, width;
+    private final int stride;
+
+    // Primeira linha global da faixa e deslocamento do índice global das células
+    private final int firstRow;
+    private final int cellOffset;
+
+    // Deslocamento de cada uma das 8 direções; a oposta de d é 7 - d
+    private final int[] offsets;
+
+    // Estado atual e buffer do próximo estado, por atributo
+    private byte[] species, nextSpecies;
+    private short[] age, nextAge;
+    private short[] food, nextFood;
+
+    // Proposta de cada célula na varredura de predação ou de movimento
+    private final byte[] proposal;
+
+    // Vizinhas pedidas por cada pai nos nascimentos (bit d = direção d)
+    private final byte[] claim;
+
+    // Direção do vencedor de cada célula alvo, ou NO_MOVE
+    private final byte[] winner;
+
+    // Células cujo ocupante já agiu (comeu) neste passo
+    private final boolean[] acted;
+
+    // Troca de bordas com as faixas vizinhas (null em um só processo)
+    private Halo halo;
+
+    // Parâmetros por código de célula, copiados da tabela de parâmetros
+    private final int speciesCount;
+    private final short[] maxAge;
+    private final short[] breedingAge;
+    private final double[] breedingProbability;
+    private final int[] maxLitter;
+    private final short[] foodValue;
+    private final short[] maxFood;
+    private final int[] dietMask;      // Bit (1 << código) para cada presa
+    private final boolean[] predator;
+
+    // Semente e estado do passo
+    private final long seed;
+    private final WeatherSystem weatherSystem;
+    private int step;
+    private long stepSeed;
+    private double seasonFactor;
+
+    // Contagens por faixa e espécie, somadas ao fim do passo
+    private final long[] bandCounts;
+    private final long[] counts;
+
+    // Medição de desempenho do último passo
+    private long lastUpdates;
+    private long lastNanos;
+
+    /**
+     * Cria um reticulado só de grama com população aleatória, usando as
+     * probabilidades de criação de cada espécie.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param seed Semente das decisões aleatórias.
+     */
+    public LatticeSimulator(int depth, int width, long seed) {
+        this(depth, width, 0, seed, null, SpeciesParameters.fromRegistry());
+        populate(new Random(seed), SpeciesParameters.fromRegistry(), depth);
+    }
+
+    /**
+     * Cria um reticulado sobre o terreno dado, com população aleatória e
+     * parâmetros próprios (independentes da SpeciesRegistry). Instâncias
+     * com parâmetros diferentes podem ser executadas ao mesmo tempo.
+     *
+     * @param terrainMap O terreno (terreno não transitável vira parede).
+     * @param seed Semente das decisões aleatórias.
+     * @param parameters Os parâmetros das espécies.
+     */
+    public LatticeSimulator(TerrainType[][] terrainMap, long seed, SpeciesParameters parameters) {
+        this(terrainMap.length, terrainMap[0].length, 0, seed, terrainMap, parameters);
+        populate(new Random(seed), parameters, terrainMap.length);
+    }
+
+    /**
+     * Cria uma faixa de linhas de um reticulado maior, com a parte da
+     * população inicial que cai nela (a mesma do reticulado inteiro com a
+     * mesma semente). As linhas de halo são preenchidas pelo Halo.
+     *
+     * @param terrainMap O terreno do mundo inteiro.
+     * @param seed Semente das decisões aleatórias.
+     * @param parameters Os parâmetros das espécies.
+     * @param firstRow A primeira linha da faixa.
+     * @param rows O número de linhas da faixa.
+     */
+    LatticeSimulator(TerrainType[][] terrainMap, long seed, SpeciesParameters parameters,
+                     int firstRow, int rows) {
+        this(rows, terrainMap[0].length, firstRow, seed, terrainMap, parameters);
+        populate(new Random(seed), parameters, terrainMap.length);
+    }
+
+    /**
+     * Cria um reticulado com a mesma população de um campo do motor por
+     * objetos (espécie, idade e comida de cada animal), para comparar os
+     * dois motores a partir do mesmo estado.
+     *
+     * @param field O campo de origem.
+     * @param seed Semente das decisões aleatórias.
+     */
+    public LatticeSimulator(Field field, long seed) {
+        this(field.getDepth(), field.getWidth(), 0, seed, terrainOf(field), SpeciesParameters.fromRegistry());
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                Actor actor = field.getObjectAt(row, col);
+                if (actor instanceof Animal && actor.isAlive()) {
+                    Animal animal = (Animal) actor;
+                    set(row, col, animal.getSpeciesId(), animal.getAge(), animal.getFoodLevel());
+                }
+            }
+        }
+        countAll();
+    }
+
+    /**
+     * Povoa as células livres com a mesma cascata de probabilidades de
+     * criação do simulador por passos. O sorteio percorre o mundo inteiro
+     * (totalDepth linhas), para que cada faixa receba exatamente os animais
+     * que receberia no reticulado inteiro; só as linhas da faixa são guardadas.
+     */
+    private void populate(Random rand, SpeciesParameters parameters, int totalDepth) {
+        String[] order = {"Fox", "Rabbit", "Buffalo", "Lion"};  // Cascata do simulador por passos
+        for (int row = 0; row < totalDepth; row++) {
+            boolean inside = row >= firstRow && row < firstRow + depth;
+            for (int col = 0; col < width; col++) {
+                for (String name : order) {
+                    int id = SpeciesRegistry.idOf(name);
+                    if (rand.nextDouble() <= parameters.getCreationProbability(id)) {
+                        int maxFoodLevel = parameters.getMaxFoodValue(id);
+                        int initialFood = predator[id + 1] ? rand.nextInt(maxFoodLevel) : maxFoodLevel;
+                        int initialAge = rand.nextInt(parameters.getMaxAge(id));
+                        if (inside) {
+                            set(row - firstRow, col, id, initialAge, initialFood);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        countAll();
+    }
+
+    /**
+     * @return O terreno de cada célula do campo.
+     */
+    private static TerrainType[][] terrainOf(Field field) {
+        TerrainType[][] terrainMap = new TerrainType[field.getDepth()][field.getWidth()];
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                terrainMap[row][col] = field.getTerrainAt(row, col);
+            }
+        }
+        return terrainMap;
+    }
+
+    /**
+     * Aloca as grades e as tabelas; células fora do mapa ou em terreno não
+     * transitável viram paredes. A faixa começa na linha global firstRow.
+     */
+    private LatticeSimulator(int depth, int width, int firstRow, long seed, TerrainType[][] terrain,
+                             SpeciesParameters parameters) {
+        this.depth = depth;
+        this.width = width;
+        this.stride = width + 2;
+        this.firstRow = firstRow;
+        this.cellOffset = firstRow * stride;  // Índice local + deslocamento = índice no mundo inteiro
+        this.seed = seed;
+        offsets = new int[] {-stride - 1, -stride, -stride + 1, -1, 1, stride - 1, stride, stride + 1};
+
+        int cells = (depth + 2) * stride;
+        species = new byte[cells];
+        nextSpecies = new byte[cells];
+        age = new short[cells];
+        nextAge = new short[cells];
+        food = new short[cells];
+        nextFood = new short[cells];
+        proposal = new byte[cells];
+        Arrays.fill(proposal, NO_MOVE);  // A borda nunca propõe nada
+        claim = new byte[cells];
+        winner = new byte[cells];
+        acted = new boolean[cells];
+
+        // Paredes: borda e terreno não transitável
+        Arrays.fill(species, WALL);
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                if (terrain == null || terrain[firstRow + row][col].isTraversable()) {
+                    species[index(row, col)] = EMPTY;
+                }
+            }
+        }
+        System.arraycopy(species, 0, nextSpecies, 0, cells);
+
+        speciesCount = parameters.getSpeciesCount();
+        if (speciesCount >= 0xFF) {
+            throw new IllegalStateException("Espécies demais para o reticulado: " + speciesCount);
+        }
+        int codes = speciesCount + 1;
+        maxAge = new short[codes];
+        breedingAge = new short[codes];
+        breedingProbability = new double[codes];
+        maxLitter = new int[codes];
+        foodValue = new short[codes];
+        maxFood = new short[codes];
+        dietMask = new int[codes];
+        predator = new boolean[codes];
+        for (int id = 0; id < speciesCount; id++) {
+            int code = id + 1;
+            maxAge[code] = (short) parameters.getMaxAge(id);
+            breedingAge[code] = (short) parameters.getBreedingAge(id);
+            breedingProbability[code] = parameters.getBreedingProbability(id);
+            maxLitter[code] = parameters.getMaxLitterSize(id);
+            foodValue[code] = (short) parameters.getFoodValue(id);
+            maxFood[code] = (short) parameters.getMaxFoodValue(id);
+            // A máscara da registry usa bits por id; aqui os bits são por código
+            dietMask[code] = parameters.getDietMask(id) << 1;
+            predator[code] = dietMask[code] != 0;
+        }
+
+        weatherSystem = new WeatherSystem();
+        bandCounts = new long[bandCount() * codes];
+        counts = new long[codes];
+    }
+
+    /**
+     * Coloca um animal em uma célula.
+     */
+    private void set(int row, int col, int speciesId, int animalAge, int foodLevel) {
+        int i = index(row, col);
+        if (species[i] == WALL) {
+            return;
+        }
+        species[i] = (byte) (speciesId + 1);
+        age[i] = (short) animalAge;
+        food[i] = (short) foodLevel;
+    }
+
+    /**
+     * @return O índice da célula na grade com borda.
+     */
+    private int index(int row, int col) {
+        return (row + 1) * stride + col + 1;
+    }
+
+    /**
+     * Executa a simulação pelo número de passos dado.
+     *
+     * @param numSteps Número de passos a simular.
+     */
+    public void simulate(int numSteps) {
+        for (int i = 0; i < numSteps; i++) {
+            simulateOneStep();
+        }
+    }
+
+    /**
+     * Executa um passo completo do autômato.
+     */
+    public void simulateOneStep() {
+        long start = System.nanoTime();
+        step++;
+        stepSeed = mix(seed + step * 0x9E3779B97F4A7C15L);
+        weatherSystem.advanceTime();
+        seasonFactor = weatherSystem.getCurrentSeason().getBreedingFactor();
+
+        // Quantos animais agem neste passo (para a taxa de atualizações)
+        long population = 0;
+        for (int code = 1; code <= speciesCount; code++) {
+            population += counts[code];
+        }
+
+        // Cada varredura lê no máximo os 8 vizinhos; o que ela lê das
+        // faixas vizinhas é trocado logo antes (nada em um só processo)
+        forEachBand(this::ageBand);
+        exchange(STATE);
+        forEachBand(this::claimBand);
+        exchange(CLAIM);
+        forEachBand(this::birthBand);
+        swap();
+        exchange(STATE);
+        forEachBand(this::preyProposalBand);
+        exchange(PROPOSAL);
+        forEachBand(this::winnerBand);
+        exchange(WINNER);
+        forEachBand(this::cancelEatenBand);
+        exchange(PROPOSAL);
+        forEachBand(this::preyResolveBand);
+        swap();
+        exchange(STATE);
+        forEachBand(this::moveProposalBand);
+        exchange(PROPOSAL);
+        forEachBand(this::winnerBand);
+        exchange(WINNER);
+        forEachBand(this::moveResolveBand);
+        swap();
+        countAll();
+
+        lastUpdates = population;
+        lastNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Envelhece todos os animais, consome a comida dos predadores e remove
+     * os que passaram da idade máxima ou ficaram sem comida. Cada célula só
+     * depende de si mesma, então a varredura é feita no lugar.
+     */
+    private void ageBand(int band) {
+        int end = bandEnd(band);
+        for (int i = bandStart(band); i < end; i++) {
+            int code = species[i] & 0xFF;
+            if (code == EMPTY || code == (WALL & 0xFF)) {
+                continue;
+            }
+            short a = (short) (age[i] + 1);
+            short f = predator[code] ? (short) (food[i] - 1) : food[i];
+            age[i] = a;
+            food[i] = f;
+            if (a > maxAge[code] || (predator[code] && f <= 0)) {
+                species[i] = EMPTY;
+            }
+        }
+    }
+
+    /**
+     * Troca as camadas dadas com as faixas vizinhas, se houver.
+     */
+    private void exchange(int layers) {
+        if (halo != null) {
+            halo.exchange(this, layers);
+        }
+    }
+
+    /**
+     * Pedidos de nascimento: cada pai que procria marca as vizinhas que
+     * a sua ninhada ocuparia (ver claimMask).
+     */
+    private void claimBand(int band) {
+        int end = bandEnd(band);
+        for (int i = bandStart(band); i < end; i++) {
+            claim[i] = claimMask(i);
+        }
+    }
+
+    /**
+     * Nascimentos: cada pai que procria ocupa as células livres da sua
+     * vizinhança em uma ordem sorteada, até o tamanho da ninhada; cada
+     * célula vazia aceita o pai de maior prioridade entre os que a pedem.
+     */
+    private void birthBand(int band) {
+        int end = bandEnd(band);
+        for (int i = bandStart(band); i < end; i++) {
+            byte code = species[i];
+            if (code != EMPTY) {
+                copy(i, i);
+                continue;
+            }
+            int chosen = -1;
+            long best = Long.MIN_VALUE;
+            for (int d = 0; d < 8; d++) {
+                int parent = i + offsets[d];
+                if ((claim[parent] & (1 << (7 - d))) != 0) {
+                    long priority = hash(parent, SALT_PRIORITY);
+                    if (priority > best) {
+                        best = priority;
+                        chosen = parent;
+                    }
+                }
+            }
+            if (chosen >= 0) {
+                byte parentCode = species[chosen];
+                nextSpecies[i] = parentCode;
+                nextAge[i] = 0;
+                nextFood[i] = maxFood[parentCode];
+            } else {
+                nextSpecies[i] = EMPTY;
+            }
+        }
+    }
+
+    /**
+     * @return As vizinhas livres que o animal da célula dada ocupa se
+     *         procriar neste passo: as primeiras da ninhada, em uma ordem
+     *         sorteada das direções (bit d = direção d; 0 se não procria).
+     */
+    private byte claimMask(int parent) {
+        int code = species[parent] & 0xFF;
+        if (code == EMPTY || code == (WALL & 0xFF) || age[parent] < breedingAge[code]) {
+            return 0;
+        }
+        if (uniform(parent, SALT_BREED) > breedingProbability[code] * seasonFactor) {
+            return 0;
+        }
+        int litter = 1 + (int) ((hash(parent, SALT_LITTER) >>> 1) % maxLitter[code]);
+        int rotation = (int) (hash(parent, SALT_ROTATION) & 7);
+        int mask = 0;
+        for (int k = 0; k < 8 && litter > 0; k++) {
+            int d = (rotation + k) & 7;
+            if (species[parent + offsets[d]] == EMPTY) {
+                mask |= 1 << d;
+                litter--;
+            }
+        }
+        return (byte) mask;
+    }
+
+    /**
+     * Propostas de predação: cada predador (que não nasceu neste passo)
+     * escolhe uma vizinha com presa da sua dieta.
+     */
+    private void preyProposalBand(int band) {
+        int end = bandEnd(band);
+        for (int i = bandStart(band); i < end; i++) {
+            int code = species[i] & 0xFF;
+            byte choice = NO_MOVE;
+            if (code != EMPTY && code != (WALL & 0xFF) && predator[code] && age[i] > 0) {
+                int mask = 0;
+                int diet = dietMask[code];
+                for (int d = 0; d < 8; d++) {
+                    int other = species[i + offsets[d]] & 0xFF;
+                    if (other != (WALL & 0xFF) && (diet & (1 << other)) != 0) {
+                        mask |= 1 << d;
+                    }
+                }
+                choice = pickBit(mask, i);
+            }
+            proposal[i] = choice;
+        }
+    }
+
+    /**
+     * Vencedores: cada célula guarda a direção da vizinha de maior
+     * prioridade cuja proposta aponta para ela.
+     */
+    private void winnerBand(int band) {
+        int end = bandEnd(band);
+        for (int i = bandStart(band); i < end; i++) {
+            winner[i] = species[i] == WALL ? NO_MOVE : winnerFor(i);  // Ninguém propõe ir para uma parede
+        }
+    }
+
+    /**
+     * Cancela a proposta de quem vai ser comido: um predador que é presa de
+     * outro (a raposa alvo de um leão) não come no mesmo passo. Sem isso
+     * ele seria comido e, ao mesmo tempo, copiado para a célula da sua
+     * própria presa. A célula só lê o próprio vencedor, então a varredura é
+     * feita no lugar; a presa que ele escolheu fica viva neste passo.
+     */
+    private void cancelEatenBand(int band) {
+        int end = bandEnd(band);
+        for (int i = bandStart(band); i < end; i++) {
+            if (winner[i] != NO_MOVE) {
+                proposal[i] = NO_MOVE;
+            }
+        }
+    }
+
+    /**
+     * @return true se a proposta da célula dada venceu na célula alvo.
+     */
+    private boolean wonTarget(int cell) {
+        int p = proposal[cell];
+        return p != NO_MOVE && winner[cell + offsets[p]] == 7 - p;
+    }
+
+    /**
+     * Resolução da predação: cada presa alvo é comida pelo predador de maior
+     * prioridade, que ocupa a célula dela; a célula do predador vencedor fica
+     * vazia. Predadores que comeram são marcados para não se mover de novo.
+     */
+    private void preyResolveBand(int band) {
+        int end = bandEnd(band);
+        for (int i = bandStart(band); i < end; i++) {
+            acted[i] = false;
+            if (species[i] == WALL) {
+                copy(i, i);
+                continue;
+            }
+            int eater = winner[i] == NO_MOVE ? -1 : i + offsets[winner[i]];
+            if (eater >= 0 && proposal[eater] == 7 - winner[i]) {  // Vencedor não cancelado
+                // A presa é comida; o predador chega com o estômago cheio
+                int code = species[eater] & 0xFF;
+                int preyCode = species[i] & 0xFF;
+                copy(eater, i);
+                nextFood[i] = (short) Math.min(maxFood[code], food[eater] + foodValue[preyCode]);
+                acted[i] = true;
+            } else if (wonTarget(i)) {
+                nextSpecies[i] = EMPTY;  // O predador saiu para comer
+            } else {
+                copy(i, i);
+            }
+        }
+    }
+
+    /**
+     * Propostas de movimento: cada animal que ainda não agiu (e não nasceu
+     * neste passo) escolhe uma vizinha livre.
+     */
+    private void moveProposalBand(int band) {
+        int end = bandEnd(band);
+        for (int i = bandStart(band); i < end; i++) {
+            int code = species[i] & 0xFF;
+            byte choice = NO_MOVE;
+            if (code != EMPTY && code != (WALL & 0xFF) && !acted[i] && age[i] > 0) {
+                int mask = 0;
+                for (int d = 0; d < 8; d++) {
+                    if (species[i + offsets[d]] == EMPTY) {
+                        mask |= 1 << d;
+                    }
+                }
+                choice = pickBit(mask, i);
+            }
+            proposal[i] = choice;
+        }
+    }
+
+    /**
+     * Resolução do movimento: cada célula vazia recebe o proponente de
+     * maior prioridade; quem venceu deixa a célula de origem vazia.
+     */
+    private void moveResolveBand(int band) {
+        int end = bandEnd(band);
+        for (int i = bandStart(band); i < end; i++) {
+            if (species[i] == EMPTY) {
+                if (winner[i] != NO_MOVE) {
+                    copy(i + offsets[winner[i]], i);
+                } else {
+                    nextSpecies[i] = EMPTY;
+                }
+            } else if (species[i] != WALL && wonTarget(i)) {
+                nextSpecies[i] = EMPTY;  // Mudou-se para a vizinha
+            } else {
+                copy(i, i);
+            }
+        }
+    }
+
+    /**
+     * @return A direção da vizinha de maior prioridade cuja proposta aponta
+     *         para a célula dada, ou NO_MOVE se nenhuma aponta.
+     */
+    private byte winnerFor(int target) {
+        byte direction = NO_MOVE;
+        long best = Long.MIN_VALUE;
+        for (int d = 0; d < 8; d++) {
+            int source = target + offsets[d];
+            if (proposal[source] == 7 - d) {
+                long priority = hash(source, SALT_PRIORITY);
+                if (priority > best) {
+                    best = priority;
+                    direction = (byte) d;
+                }
+            }
+        }
+        return direction;
+    }
+
+    /**
+     * @return Uma direção sorteada entre os bits ligados, ou NO_MOVE.
+     */
+    private byte pickBit(int mask, int cell) {
+        if (mask == 0) {
+            return NO_MOVE;
+        }
+        int skip = (int) ((hash(cell, SALT_CHOICE) >>> 1) % Integer.bitCount(mask));
+        for (int k = 0; k < skip; k++) {
+            mask &= mask - 1;  // Remove o bit ligado mais baixo
+        }
+        return (byte) Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Copia o estado da célula de origem para a célula de destino do próximo estado.
+     */
+    private void copy(int from, int to) {
+        nextSpecies[to] = species[from];
+        nextAge[to] = age[from];
+        nextFood[to] = food[from];
+    }
+
+    /**
+     * Troca o estado atual pelo próximo.
+     */
+    private void swap() {
+        byte[] s = species;
+        species = nextSpecies;
+        nextSpecies = s;
+        short[] a = age;
+        age = nextAge;
+        nextAge = a;
+        short[] f = food;
+        food = nextFood;
+        nextFood = f;
+    }
+
+    /**
+     * Recalcula a população de cada espécie.
+     */
+    private void countAll() {
+        Arrays.fill(bandCounts, 0);
+        forEachBand(this::countBand);
+        Arrays.fill(counts, 0);
+        int codes = speciesCount + 1;
+        for (int k = 0; k < bandCounts.length; k++) {
+            counts[k % codes] += bandCounts[k];
+        }
+    }
+
+    /**
+     * Conta os animais de cada espécie em uma faixa.
+     */
+    private void countBand(int band) {
+        int codes = speciesCount + 1;
+        int base = band * codes;
+        int end = bandEnd(band);
+        for (int i = bandStart(band); i < end; i++) {
+            int code = species[i] & 0xFF;
+            if (code != (WALL & 0xFF)) {
+                bandCounts[base + code]++;
+            }
+        }
+    }
+
+    /**
+     * Aplica a varredura a todas as faixas, em paralelo em grades grandes.
+     */
+    private void forEachBand(java.util.function.IntConsumer pass) {
+        IntStream range = IntStream.range(0, bandCount());
+        if (depth * width >= PARALLEL_THRESHOLD) {
+            range = range.parallel();  // Faixas independentes: leem o estado, escrevem só as suas células
+        }
+        range.forEach(pass);
+    }
+
+    /**
+     * @return O número de faixas de linhas.
+     */
+    private int bandCount() {
+        return (depth + BAND_ROWS - 1) / BAND_ROWS;
+    }
+
+    /**
+     * @return O índice da primeira célula (com borda) da faixa.
+     */
+    private int bandStart(int band) {
+        return (band * BAND_ROWS + 1) * stride;
+    }
+
+    /**
+     * @return O índice logo após a última célula (com borda) da faixa.
+     */
+    private int bandEnd(int band) {
+        return (Math.min((band + 1) * BAND_ROWS, depth) + 1) * stride;
+    }
+
+    /**
+     * @return Um hash de 64 bits da semente do passo, da célula e do sal.
+     */
+    private long hash(int cell, long salt) {
+        long global = cell + cellOffset;  // O mesmo valor em qualquer divisão em faixas
+        return mix(stepSeed + global * 0xBF58476D1CE4E5B9L + salt * 0x94D049BB133111EBL);
+    }
+
+    /**
+     * @return Um valor uniforme em [0, 1) derivado do hash.
+     */
+    private double uniform(int cell, long salt) {
+        return (hash(cell, salt) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Finalizador do SplitMix64: espalha os bits de forma uniforme.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Define quem troca as linhas de borda com as faixas vizinhas.
+     */
+    void setHalo(Halo halo) {
+        this.halo = halo;
+    }
+
+    /**
+     * @param layers As camadas.
+     * @return O número de bytes de uma linha com as camadas dadas.
+     */
+    int rowBytes(int layers) {
+        int perCell = 0;
+        perCell += (layers & STATE) != 0 ? 5 : 0;  // Espécie (1) + idade (2) + comida (2)
+        perCell += (layers & CLAIM) != 0 ? 1 : 0;
+        perCell += (layers & PROPOSAL) != 0 ? 1 : 0;
+        perCell += (layers & WINNER) != 0 ? 1 : 0;
+        return perCell * width;
+    }
+
+    /**
+     * Escreve as camadas dadas de uma linha da faixa, camada por camada.
+     *
+     * @param row A linha local (0 a getDepth() - 1).
+     * @param layers As camadas.
+     * @param out O buffer de destino.
+     */
+    void exportRow(int row, int layers, ByteBuffer out) {
+        int start = index(row, 0);
+        if ((layers & STATE) != 0) {
+            out.put(species, start, width);
+            out.asShortBuffer().put(age, start, width);
+            out.position(out.position() + 2 * width);
+            out.asShortBuffer().put(food, start, width);
+            out.position(out.position() + 2 * width);
+        }
+        if ((layers & CLAIM) != 0) {
+            out.put(claim, start, width);
+        }
+        if ((layers & PROPOSAL) != 0) {
+            out.put(proposal, start, width);
+        }
+        if ((layers & WINNER) != 0) {
+            out.put(winner, start, width);
+        }
+    }
+
+    /**
+     * Lê as camadas dadas de uma linha, no formato de exportRow.
+     *
+     * @param row A linha local (-1 e getDepth() são as linhas de halo).
+     * @param layers As camadas.
+     * @param in O buffer de origem.
+     */
+    void importRow(int row, int layers, ByteBuffer in) {
+        int start = index(row, 0);
+        if ((layers & STATE) != 0) {
+            in.get(species, start, width);
+            in.asShortBuffer().get(age, start, width);
+            in.position(in.position() + 2 * width);
+            in.asShortBuffer().get(food, start, width);
+            in.position(in.position() + 2 * width);
+        }
+        if ((layers & CLAIM) != 0) {
+            in.get(claim, start, width);
+        }
+        if ((layers & PROPOSAL) != 0) {
+            in.get(proposal, start, width);
+        }
+        if ((layers & WINNER) != 0) {
+            in.get(winner, start, width);
+        }
+    }
+
+    /**
+     * @return O número de linhas da faixa (do campo inteiro em um só processo).
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return A largura do campo.
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * @param speciesId O identificador da espécie.
+     * @return A população da espécie.
+     */
+    public long getPopulation(int speciesId) {
+        return counts[speciesId + 1];
+    }
+
+    /**
+     * @return O número de células transitáveis vazias.
+     */
+    public long getFreeCells() {
+        return counts[EMPTY];
+    }
+
+    /**
+     * @param row A linha.
+     * @param col A coluna.
+     * @return O identificador da espécie na célula, ou -1 se estiver vazia.
+     */
+    public int getSpeciesAt(int row, int col) {
+        int code = species[index(row, col)] & 0xFF;
+        return code == EMPTY || code == (WALL & 0xFF) ? -1 : code - 1;
+    }
+
+    /**
+     * @return O número de animais atualizados por segundo no último passo.
+     */
+    public double getUpdatesPerSecond() {
+        return lastNanos == 0 ? 0.0 : lastUpdates * 1e9 / lastNanos;
+    }
+
+    /**
+     * @return O passo atual da simulação.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return A estação atual.
+     */
+    public Season getCurrentSeason() {
+        return weatherSystem.getCurrentSeason();
+    }
+
+    /**
+     * Verifica a predação encadeada: em um campo 12x12 só de grama, um leão
+     * em (5,5), uma raposa em (5,6) e um coelho em (5,7), todos jovens
+     * demais para procriar. A raposa só tem o coelho como presa e o leão só
+     * a raposa; depois de um passo devem restar o leão e o coelho, sem a
+     * raposa, para qualquer semente.
+     *
+     * @param seeds Quantas sementes verificar (a partir de 0).
+     * @return O número de sementes com resultado errado.
+     */
+    static int checkChainedPredation(int seeds) {
+        SpeciesParameters parameters = SpeciesParameters.fromRegistry();
+        int lion = SpeciesRegistry.idOf("Lion");
+        int fox = SpeciesRegistry.idOf("Fox");
+        int rabbit = SpeciesRegistry.idOf("Rabbit");
+        int failures = 0;
+        for (long seed = 0; seed < seeds; seed++) {
+            LatticeSimulator lattice = new LatticeSimulator(12, 12, 0, seed, null, parameters);
+            lattice.set(5, 5, lion, 1, parameters.getMaxFoodValue(lion) / 2);
+            lattice.set(5, 6, fox, 1, parameters.getMaxFoodValue(fox) / 2);
+            lattice.set(5, 7, rabbit, 1, parameters.getMaxFoodValue(rabbit));
+            lattice.countAll();
+            lattice.simulateOneStep();
+            if (lattice.getPopulation(lion) != 1 || lattice.getPopulation(fox) != 0
+                || lattice.getPopulation(rabbit) != 1) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Compara a taxa de atualizações dos dois motores a partir do mesmo
+     * estado: para cada semente, cria o motor por objetos (só grama, sem
+     * caçadores) e um reticulado com a mesma população inicial, executa os
+     * dois pelo mesmo número de passos e mostra as atualizações de animais
+     * por segundo (animais vivos no início de cada passo, somados, sobre o
+     * tempo dos passos), a população média por passo e as populações
+     * finais de cada espécie. Uma rodada de aquecimento do JIT, com outra
+     * semente, não entra nos números.
+     *
+     * @param size Profundidade e largura do campo.
+     * @param steps Passos de cada execução.
+     * @param seeds Quantas sementes comparar (a partir de 0).
+     */
+    static void benchmark(int size, int steps, int seeds) {
+        int speciesCount = SpeciesRegistry.getSpeciesCount();
+        long objectUpdates = 0, objectNanos = 0, latticeUpdates = 0, latticeNanos = 0;
+        for (long seed = -1; seed < seeds; seed++) {
+            RandomGenerator.setSeed(seed);
+            Simulator simulator = new Simulator(size, size, Simulator.loadTerrain(size, size, "GRASS_ONLY", false), 0);
+            LatticeSimulator lattice = new LatticeSimulator(simulator.getField(), seed);
+
+            long updates = 0;
+            long start = System.nanoTime();
+            while (simulator.getStep() < steps && simulator.getStats().isViable(simulator.getField())) {
+                for (int id = 0; id < speciesCount; id++) {
+                    updates += simulator.getField().getSpeciesPopulation(id);
+                }
+                simulator.simulateOneStep();
+            }
+            long nanos = System.nanoTime() - start;
+            long[] objectFinal = new long[speciesCount];
+            for (int id = 0; id < speciesCount; id++) {
+                objectFinal[id] = simulator.getField().getSpeciesPopulation(id);
+            }
+            int objectSteps = simulator.getStep();
+
+            long latticeStepUpdates = 0, latticeStepNanos = 0;
+            while (lattice.getStep() < steps) {
+                lattice.simulateOneStep();
+                latticeStepUpdates += lattice.lastUpdates;
+                latticeStepNanos += lattice.lastNanos;
+            }
+            long[] latticeFinal = new long[speciesCount];
+            for (int id = 0; id < speciesCount; id++) {
+                latticeFinal[id] = lattice.getPopulation(id);
+            }
+            if (seed < 0) {
+                continue;  // Aquecimento
+            }
+
+            objectUpdates += updates;
+            objectNanos += nanos;
+            latticeUpdates += latticeStepUpdates;
+            latticeNanos += latticeStepNanos;
+            System.out.println("Semente " + seed + ":");
+            System.out.println("  objetos:    " + rate(updates, nanos) + " atualizações/s, população média "
+                               + updates / Math.max(1, objectSteps) + ", final " + Arrays.toString(objectFinal));
+            System.out.println("  reticulado: " + rate(latticeStepUpdates, latticeStepNanos)
+                               + " atualizações/s, população média " + latticeStepUpdates / Math.max(1, steps)
+                               + ", final " + Arrays.toString(latticeFinal));
+        }
+        System.out.println("Total: objetos " + rate(objectUpdates, objectNanos) + " atualizações/s, reticulado "
+                           + rate(latticeUpdates, latticeNanos) + " atualizações/s ("
+                           + String.format("%.1f", (double) latticeUpdates / Math.max(1, latticeNanos)
+                                                   / ((double) objectUpdates / Math.max(1, objectNanos)))
+                           + "x)");
+    }
+
+    /**
+     * @return A taxa em atualizações por segundo, arredondada.
+     */
+    private static long rate(long updates, long nanos) {
+        return nanos == 0 ? 0 : Math.round(updates * 1e9 / nanos);
+    }
+
+    /**
+     * Executa a verificação da predação encadeada ou, com "bench", a
+     * comparação com o motor por objetos.
+     *
+     * @param args Opcional: o número de sementes (padrão 2000); ou "bench"
+     *             seguido do tamanho do campo (padrão 200), dos passos
+     *             (padrão 200) e do número de sementes (padrão 3).
+     */
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("bench")) {
+            benchmark(args.length > 1 ? Integer.parseInt(args[1]) : 200,
+                      args.length > 2 ? Integer.parseInt(args[2]) : 200,
+                      args.length > 3 ? Integer.parseInt(args[3]) : 3);
+            return;
+        }
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int failures = checkChainedPredation(seeds);
+        System.out.println(failures == 0
+                           ? "Predação encadeada correta em " + seeds + " sementes"
+                           : "Predação encadeada errada em " + failures + " de " + seeds + " sementes");
+    }
+}
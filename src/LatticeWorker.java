@@ -0,0 +1,277 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Processo que simula uma faixa de linhas do reticulado distribuído (ver
+ * DistributedLattice). Cada faixa é um LatticeSimulator com uma linha de
+ * halo acima e outra abaixo; entre as varreduras de um passo, a faixa
+ * envia as suas linhas extremas às faixas vizinhas e recebe delas as
+ * linhas de halo, por SocketChannels NIO na interface local.
+ *
+ * Os animais que atravessam a divisa entre faixas não precisam de uma
+ * mensagem própria: como o reticulado é "pull", a célula de destino copia
+ * o animal da linha de halo (que traz espécie, idade e comida), e a troca
+ * dos vencedores diz à célula de origem que o animal saiu.
+ *
+ * Protocolo de halo (binário, big-endian), uma mensagem por vizinha e por
+ * troca: número da troca (int), camadas (byte) e uma linha no formato de
+ * LatticeSimulator.exportRow. Os envios e recebimentos das duas vizinhas
+ * são feitos juntos por um Selector, então nenhuma faixa espera a outra
+ * esvaziar o buffer do socket.
+ *
+ * Protocolo de controle com o coordenador: o processo envia o seu índice
+ * e a porta em que aceita a faixa de cima (-1 na primeira); recebe a
+ * porta da faixa de baixo (-1 na última); depois envia a população de
+ * cada espécie no estado inicial e a cada passo (longs) e, no fim, o
+ * tamanho (int) e o estado das suas linhas.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class LatticeWorker implements LatticeSimulator.Halo {
+
+    // Número da troca (int) + camadas (byte)
+    private static final int HEADER_BYTES = 5;
+
+    /**
+     * A conexão com uma faixa vizinha e os buffers da troca em curso.
+     */
+    private static final class Link {
+        private final SocketChannel channel;
+        private final ByteBuffer out;
+        private final ByteBuffer in;
+        private final int edgeRow;     // Linha própria enviada à vizinha
+        private final int ghostRow;    // Linha de halo preenchida pela vizinha
+        private SelectionKey key;
+
+        Link(SocketChannel channel, int capacity, int edgeRow, int ghostRow) {
+            this.channel = channel;
+            this.out = ByteBuffer.allocateDirect(capacity);
+            this.in = ByteBuffer.allocateDirect(capacity);
+            this.edgeRow = edgeRow;
+            this.ghostRow = ghostRow;
+        }
+
+        /**
+         * @return true se ainda há bytes a enviar ou a receber.
+         */
+        boolean busy() {
+            return out.hasRemaining() || in.hasRemaining();
+        }
+    }
+
+    private final Selector selector;
+    private final Link[] links;
+    private int exchanges;
+
+    /**
+     * Prepara as trocas de halo de uma faixa.
+     *
+     * @param lattice A faixa.
+     * @param up A conexão com a faixa de cima (null na primeira).
+     * @param down A conexão com a faixa de baixo (null na última).
+     * @throws IOException Se os canais não puderem ser configurados.
+     */
+    LatticeWorker(LatticeSimulator lattice, SocketChannel up, SocketChannel down) throws IOException {
+        int capacity = HEADER_BYTES + lattice.rowBytes(LatticeSimulator.STATE | LatticeSimulator.CLAIM
+                                                       | LatticeSimulator.PROPOSAL | LatticeSimulator.WINNER);
+        int count = (up != null ? 1 : 0) + (down != null ? 1 : 0);
+        links = new Link[count];
+        int k = 0;
+        if (up != null) {
+            links[k++] = new Link(up, capacity, 0, -1);
+        }
+        if (down != null) {
+            links[k] = new Link(down, capacity, lattice.getDepth() - 1, lattice.getDepth());
+        }
+        selector = Selector.open();
+        for (Link link : links) {
+            link.channel.configureBlocking(false);
+            link.channel.socket().setTcpNoDelay(true);  // Mensagens pequenas e frequentes
+            link.key = link.channel.register(selector, 0, link);
+        }
+    }
+
+    @Override
+    public void exchange(LatticeSimulator lattice, int layers) {
+        exchanges++;
+        int length = HEADER_BYTES + lattice.rowBytes(layers);
+        for (Link link : links) {
+            link.out.clear();
+            link.out.putInt(exchanges).put((byte) layers);
+            lattice.exportRow(link.edgeRow, layers, link.out);
+            link.out.flip();
+            link.in.clear().limit(length);
+        }
+        try {
+            transfer();
+            for (Link link : links) {
+                link.in.flip();
+                int number = link.in.getInt();
+                int received = link.in.get();
+                if (number != exchanges || received != layers) {
+                    throw new IOException("Faixas fora de sincronia: troca " + number + " (camadas " + received
+                                          + "), esperada " + exchanges + " (camadas " + layers + ")");
+                }
+                lattice.importRow(link.ghostRow, layers, link.in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Envia e recebe as mensagens de todas as vizinhas ao mesmo tempo.
+     */
+    private void transfer() throws IOException {
+        while (true) {
+            boolean busy = false;
+            for (Link link : links) {
+                // Tenta direto; o Selector só é usado quando o socket não está pronto
+                if (link.out.hasRemaining()) {
+                    link.channel.write(link.out);
+                }
+                if (link.in.hasRemaining() && link.channel.read(link.in) < 0) {
+                    throw new IOException("A faixa vizinha encerrou a conexão");
+                }
+                int interest = (link.out.hasRemaining() ? SelectionKey.OP_WRITE : 0)
+                             | (link.in.hasRemaining() ? SelectionKey.OP_READ : 0);
+                link.key.interestOps(interest);
+                busy |= link.busy();
+            }
+            if (!busy) {
+                return;
+            }
+            selector.select();
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * Fecha as conexões com as vizinhas.
+     */
+    private void close() throws IOException {
+        selector.close();
+        for (Link link : links) {
+            link.channel.close();
+        }
+    }
+
+    /**
+     * Executa uma faixa. Argumentos: porta do coordenador, índice da faixa,
+     * número de faixas, mapa, profundidade, largura, semente, passos e,
+     * opcionalmente, parâmetros "Espécie.parâmetro=valor".
+     *
+     * @param args Os argumentos, na ordem acima (ver DistributedLattice).
+     * @throws IOException Se a comunicação falhar.
+     */
+    public static void main(String[] args) throws IOException {
+        int coordinatorPort = Integer.parseInt(args[0]);
+        int index = Integer.parseInt(args[1]);
+        int processes = Integer.parseInt(args[2]);
+        String map = args[3];
+        int depth = Integer.parseInt(args[4]);
+        int width = Integer.parseInt(args[5]);
+        long seed = Long.parseLong(args[6]);
+        int steps = Integer.parseInt(args[7]);
+        SpeciesParameters parameters = SpeciesParameters.fromRegistry();
+        for (int k = 8; k < args.length; k++) {
+            int equals = args[k].indexOf('=');
+            parameters.set(args[k].substring(0, equals), Double.parseDouble(args[k].substring(equals + 1)));
+        }
+
+        // A faixa é montada antes da conexão: o povoamento percorre o mundo inteiro
+        TerrainType[][] terrain = Simulator.loadTerrain(depth, width, map, false);
+        int firstRow = DistributedLattice.firstRow(index, processes, depth);
+        int rows = DistributedLattice.firstRow(index + 1, processes, depth) - firstRow;
+        LatticeSimulator lattice = new LatticeSimulator(terrain, seed, parameters, firstRow, rows);
+        int speciesCount = parameters.getSpeciesCount();
+
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (SocketChannel control = SocketChannel.open(new InetSocketAddress(loopback, coordinatorPort))) {
+            // Apresentação: quem sou e onde a faixa de cima deve se conectar
+            ServerSocketChannel server = null;
+            if (index > 0) {
+                server = ServerSocketChannel.open().bind(new InetSocketAddress(loopback, 0));
+            }
+            ByteBuffer message = ByteBuffer.allocate(8);
+            message.putInt(index).putInt(server != null ? server.socket().getLocalPort() : -1).flip();
+            writeFully(control, message);
+            message.clear().limit(4);
+            readFully(control, message);
+            int belowPort = message.flip().getInt();
+
+            // Conecta-se à faixa de baixo antes de aceitar a de cima: a
+            // conexão fica na fila da vizinha, então não há espera circular
+            SocketChannel down = belowPort >= 0
+                ? SocketChannel.open(new InetSocketAddress(loopback, belowPort)) : null;
+            SocketChannel up = null;
+            if (server != null) {
+                up = server.accept();
+                server.close();
+            }
+            LatticeWorker worker = new LatticeWorker(lattice, up, down);
+            lattice.setHalo(worker);
+
+            ByteBuffer counts = ByteBuffer.allocate(8 * speciesCount);
+            sendCounts(control, lattice, counts);
+            for (int step = 1; step <= steps; step++) {
+                lattice.simulateOneStep();
+                sendCounts(control, lattice, counts);
+            }
+
+            // Estado final das linhas da faixa, para comparação
+            int rowBytes = lattice.rowBytes(LatticeSimulator.STATE);
+            ByteBuffer state = ByteBuffer.allocate(4 + rows * rowBytes);
+            state.putInt(rows * rowBytes);
+            for (int row = 0; row < rows; row++) {
+                lattice.exportRow(row, LatticeSimulator.STATE, state);
+            }
+            state.flip();
+            writeFully(control, state);
+            worker.close();
+        }
+    }
+
+    /**
+     * Envia ao coordenador a população de cada espécie da faixa.
+     */
+    private static void sendCounts(SocketChannel control, LatticeSimulator lattice, ByteBuffer counts)
+            throws IOException {
+        counts.clear();
+        while (counts.hasRemaining()) {
+            counts.putLong(lattice.getPopulation(counts.position() / 8));
+        }
+        counts.flip();
+        writeFully(control, counts);
+    }
+
+    /**
+     * Escreve o buffer inteiro em um canal bloqueante.
+     */
+    static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Lê de um canal bloqueante até encher o buffer.
+     *
+     * @throws IOException Se a conexão for encerrada antes.
+     */
+    static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Conexão encerrada com " + buffer.remaining() + " bytes por ler");
+            }
+        }
+    }
+}
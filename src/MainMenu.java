@@ -3,6 +3,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,6 +24,11 @@ public class MainMenu extends JFrame {
     private JTextArea descriptionArea;            // Área de texto com informações
     private List<String> mapFiles;                // Lista de arquivos de mapa encontrados
     private JCheckBox grassOnlyCheckbox;          // Checkbox para mapa só de grama
+    private JCheckBox eventEngineCheckbox;        // Checkbox para o motor orientado a eventos
+    private JCheckBox recordCheckbox;             // Checkbox para gravar a linha do tempo
+    
+    // Arquivo onde a linha do tempo da última simulação é gravada
+    private static final String TIMELINE_FILE = "Gravacoes/ultima_simulacao.tln";
 
     /**
      * Cria a tela inicial do simulador.
@@ -94,6 +100,14 @@ public class MainMenu extends JFrame {
         grassOnlyCheckbox = new JCheckBox("Usar apenas grama (ignorar mapa selecionado)");
         grassOnlyCheckbox.setSelected(false); // Inicialmente desmarcado
         
+        // Checkbox para o motor orientado a eventos (tempo contínuo)
+        eventEngineCheckbox = new JCheckBox("Motor orientado a eventos (sem rastros nem grama)");
+        eventEngineCheckbox.setSelected(false); // Inicialmente desmarcado
+        
+        // Checkbox para gravar a linha do tempo (revisão ao final)
+        recordCheckbox = new JCheckBox("Gravar linha do tempo (motor por passos)");
+        recordCheckbox.setSelected(false); // Inicialmente desmarcado
+        
         // Seletor de número de caçadores
         SpinnerModel spinnerModel = new SpinnerNumberModel(1, 0, 5, 1); // Min 0, Max 5, passo 1
         hunterSpinner = new JSpinner(spinnerModel);
@@ -123,7 +137,9 @@ public class MainMenu extends JFrame {
                 "Configurações:\n" +
                 "- Mapa: Define o terreno da simulação\n" +
                 "- Apenas Grama: Ignora o mapa e usa apenas terreno de grama\n" +
-                "- Caçadores: Controla o número de caçadores ativos");
+                "- Caçadores: Controla o número de caçadores ativos\n" +
+                "- Motor por eventos: Processa só os atores cujos eventos disparam\n" +
+                "- Gravar: Permite rever a simulação passo a passo ao final");
         descriptionArea.setEditable(false); // Somente leitura
         descriptionArea.setBackground(getBackground()); // Cor de fundo igual à janela
         descriptionArea.setLineWrap(true); // Quebra de linha automática
@@ -165,15 +181,25 @@ public class MainMenu extends JFrame {
         gbc.gridx = 1; // Próxima coluna
         configPanel.add(hunterSpinner, gbc); // Spinner de caçadores
         
-        // Linha 4: Preview do mapa
+        // Linha 4: Checkbox do motor orientado a eventos
         gbc.gridx = 0; gbc.gridy = 3; // Posição (0,3)
         gbc.gridwidth = 2; // Ocupar duas colunas
+        configPanel.add(eventEngineCheckbox, gbc); // Checkbox
+        
+        // Linha 5: Checkbox de gravação da linha do tempo
+        gbc.gridx = 0; gbc.gridy = 4; // Posição (0,4)
+        gbc.gridwidth = 2; // Ocupar duas colunas
+        configPanel.add(recordCheckbox, gbc); // Checkbox
+        
+        // Linha 6: Preview do mapa
+        gbc.gridx = 0; gbc.gridy = 5; // Posição (0,5)
+        gbc.gridwidth = 2; // Ocupar duas colunas
         gbc.fill = GridBagConstraints.BOTH; // Expandir em ambas direções
         gbc.weighty = 1.0; // Peso vertical (ocupa espaço restante)
         configPanel.add(mapPreviewPanel, gbc); // Painel de preview
         
-        // Linha 5: Botão iniciar
-        gbc.gridx = 0; gbc.gridy = 4; // Posição (0,4)
+        // Linha 7: Botão iniciar
+        gbc.gridx = 0; gbc.gridy = 6; // Posição (0,6)
         gbc.gridwidth = 2; // Ocupar duas colunas
         gbc.fill = GridBagConstraints.NONE; // Não expandir
         gbc.weighty = 0; // Sem peso vertical
@@ -369,6 +395,8 @@ public class MainMenu extends JFrame {
         int selectedIndex = mapSelector.getSelectedIndex(); // Índice do mapa selecionado
         int hunterCount = (Integer) hunterSpinner.getValue(); // Número de caçadores
         boolean useGrassOnly = grassOnlyCheckbox.isSelected(); // Usar só grama?
+        boolean useEventEngine = eventEngineCheckbox.isSelected(); // Usar motor por eventos?
+        boolean record = recordCheckbox.isSelected(); // Gravar linha do tempo?
         
         String selectedMap;
         if (useGrassOnly || selectedIndex == 0) {
@@ -382,17 +410,33 @@ public class MainMenu extends JFrame {
         // Fechar menu
         dispose(); // Fechar esta janela
         
-        // Iniciar simulação
-        final Simulator simulator = new Simulator(selectedMap, hunterCount, useGrassOnly);
+        // Iniciar simulação com o motor escolhido
+        final Simulator simulator;
+        final EventSimulator eventSimulator;
+        if (useEventEngine) {
+            simulator = null;
+            eventSimulator = new EventSimulator(selectedMap, hunterCount, useGrassOnly);
+        } else {
+            simulator = new Simulator(selectedMap, hunterCount, useGrassOnly);
+            eventSimulator = null;
+        }
+        
+        // Gravação da linha do tempo (só o motor por passos grava quadros por passo)
+        final boolean recording = simulator != null && record
+            && simulator.enableRecording(TIMELINE_FILE, TimelineRecorder.DEFAULT_KEYFRAME_INTERVAL);
         
         // Executar simulação em thread separada para não travar a interface
         Thread simulationThread = new Thread(new Runnable() {
             @Override
             public void run() {
-                simulator.runLongSimulation(); // Executar simulação
+                if (simulator != null) {
+                    simulator.runLongSimulation(); // Executar simulação por passos
+                } else {
+                    eventSimulator.runLongSimulation(); // Executar simulação por eventos
+                }
                 // Quando a simulação terminar, mostrar diálogo de opções
                 // MAS a janela da simulação continua aberta até o usuário decidir
-                showSimulationEndDialog();
+                showSimulationEndDialog(recording ? simulator : null);
             }
         });
         simulationThread.start(); // Iniciar thread da simulação
@@ -401,10 +445,15 @@ public class MainMenu extends JFrame {
     /**
      * Mostra o diálogo quando a simulação termina.
      * A janela da simulação permanece aberta até o usuário escolher.
+     *
+     * @param recorded O simulador cuja linha do tempo foi gravada, ou null
+     *                 se não houve gravação (sem a opção de revisão).
      */
-    private void showSimulationEndDialog() {
+    private void showSimulationEndDialog(Simulator recorded) {
         // O diálogo é mostrado, mas a janela do simulador continua aberta
-        String[] options = {"Voltar ao Menu", "Sair", "Continuar Visualizando"};
+        String[] options = recorded != null
+            ? new String[] {"Voltar ao Menu", "Sair", "Continuar Visualizando", "Rever Simulação"}
+            : new String[] {"Voltar ao Menu", "Sair", "Continuar Visualizando"};
         int choice = JOptionPane.showOptionDialog(null,
             "Simulação concluída!\nA simulação atingiu o número máximo de passos ou não é mais viável.\n\n" +
             "O que você deseja fazer?",
@@ -427,6 +476,22 @@ public class MainMenu extends JFrame {
         } else if (choice == 1) {
             // Sair
             System.exit(0); // Encerrar aplicação
+        } else if (choice == 3) {
+            // Rever - abre a linha do tempo gravada na própria janela do simulador
+            recorded.stopRecording(); // Fecha o arquivo antes de lê-lo
+            try {
+                final TimelinePlayer player = new TimelinePlayer(TIMELINE_FILE);
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        recorded.getView().startReplay(player);
+                    }
+                });
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(null,
+                    "Não foi possível abrir a gravação: " + e.getMessage(),
+                    "Erro", JOptionPane.ERROR_MESSAGE);
+            }
         }
         // Se escolher "Continuar Visualizando", não faz nada - a janela permanece aberta
     }
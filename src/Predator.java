@@ -1,5 +1,3 @@
-import java.util.Iterator;
-
 /**
  * Classe abstrata que representa um animal predador na simulação.
  * Predadores possuem sistema de fome e podem caçar outros animais.
@@ -9,28 +7,25 @@ import java.util.Iterator;
  */
 public abstract class Predator extends Animal {
     
-    // Nível atual de comida no estômago do predador
-    private int foodLevel;
+    // Máscara de dieta (um bit por espécie de presa), lida uma vez na criação
+    private final int dietMask;
 
     /**
      * Cria um novo predador.
      * 
      * @param randomAge Se true, o predador terá idade aleatória.
+     * @param speciesId O identificador da espécie na SpeciesRegistry.
      */
-    public Predator(boolean randomAge) {
-        super(randomAge);  // Chamar construtor da classe pai (Animal)
-        if (randomAge) {
-            // Se idade aleatória, comida também aleatória
-            foodLevel = RandomGenerator.nextInt(getMaxFoodValue());
-        } else {
-            // Se recém-nascido, começa com estômago cheio
-            foodLevel = getMaxFoodValue();
-        }
+    public Predator(boolean randomAge, int speciesId) {
+        // Com idade aleatória, comida também aleatória (pode começar em zero);
+        // recém-nascido começa com estômago cheio
+        super(randomAge, speciesId, 0);
+        dietMask = getDietMask();  // Guarda a dieta para a busca de presas
     }
 
     /**
      * Encontra a próxima localização para onde o predador deve se mover.
-     * Primeiro tenta encontrar comida, depois move aleatoriamente.
+     * Primeiro tenta encontrar comida, depois segue o rastro de presas.
      *
      * @param currentField O campo atual.
      * @param updatedField O campo atualizado.
@@ -38,70 +33,73 @@ public abstract class Predator extends Animal {
      */
     @Override
     public Location findNextLocation(Field currentField, Field updatedField) {
-        incrementHunger();  // Reduzir nível de comida a cada movimento
-        
+        // A fome (um por passo) é derivada do relógio em Animal; a morte por
+        // fome já foi verificada antes deste método ser chamado
         // Primeiro: tentar encontrar comida nas adjacências
         Location foodLocation = findFood(currentField, getLocation());
         if (foodLocation != null) {
             return foodLocation;  // Se encontrou comida, mover para lá
         }
         
-        // Segundo: se não encontrou comida, mover aleatoriamente
-        return updatedField.freeAdjacentLocation(getLocation());
+        // Segundo: se não encontrou comida, seguir o rastro de presas
+        return updatedField.freeAdjacentLocationByScent(getLocation(), updatedField.getPreyScent(), true);
     }
 
     /**
      * Procura por presas adjacentes à localização atual.
+     * A vizinhança 3x3 é filtrada pelos bitsets de ocupação por espécie do
+     * campo; só as células marcadas como presa são de fato consultadas.
      *
      * @param field O campo onde procurar.
      * @param location A localização atual do predador.
      * @return A localização da presa, ou null se não encontrar.
      */
     private Location findFood(Field field, Location location) {
-        // Obter iterador para todas as localizações adjacentes
-        Iterator<Location> it = field.adjacentLocations(location); 
+        // Células vizinhas ocupadas por alguma espécie da dieta (bit = (dr+1)*3 + (dc+1))
+        int candidates = field.preyNeighbourhood(location.getRow(), location.getCol(), dietMask);
         
-        // Verificar cada localização adjacente
-        while(it.hasNext()) {
-            Location where = it.next();  // Próxima localização adjacente
-            Object object = field.getObjectAt(where);  // Objeto naquela posição
+        // Verifica as candidatas em ordem aleatória
+        while (candidates != 0) {
+            int bit = selectRandomBit(candidates);
+            candidates &= ~(1 << bit);
+            Location where = new Location(location.getRow() + bit / 3 - 1,
+                                          location.getCol() + bit % 3 - 1);
+            Animal prey = (Animal) field.getObjectAt(where);  // Certamente um animal da dieta
             
-            // Verificar se é um animal (presa potencial)
-            if(object instanceof Animal) {
-                Animal prey = (Animal) object;  // Cast para Animal
-                
-                // Verificar se a presa está viva e se pode ser comida
-                if(prey.isAlive() && canEat(prey)) { 
-                    prey.setDead();  // Matar a presa
-                    this.foodLevel += prey.getFoodValue();  // Ganhar energia da presa
-                    
-                    // Não ultrapassar capacidade máxima do estômago
-                    if (this.foodLevel > getMaxFoodValue()) {
-                        this.foodLevel = getMaxFoodValue();
-                    }
-                    return where;  // Retornar localização da presa encontrada
-                }
+            // Verificar se a presa ainda está viva
+            if (prey.isAlive()) {
+                prey.setDead(DeathCause.EATEN);  // Matar a presa
+                // Ganhar energia da presa, sem ultrapassar a capacidade do estômago
+                setFoodLevel(Math.min(getFoodLevel() + prey.getFoodValue(), getMaxFoodValue()));
+                return where;  // Retornar localização da presa encontrada
             }
         }
         return null;  // Nenhuma presa encontrada
     }
 
     /**
-     * Aumenta a fome do predador. Pode resultar em morte por fome.
+     * Sorteia uniformemente um dos bits ligados da máscara.
+     *
+     * @param mask Máscara com pelo menos um bit ligado.
+     * @return A posição do bit sorteado.
      */
-    private void incrementHunger() {
-        foodLevel--;  // Reduzir nível de comida
-        if (foodLevel <= 0) {
-            setDead();  // Morrer se ficar sem comida
+    private static int selectRandomBit(int mask) {
+        int skip = RandomGenerator.nextInt(Integer.bitCount(mask));
+        for (int i = 0; i < skip; i++) {
+            mask &= mask - 1;  // Remove o bit ligado mais baixo
         }
+        return Integer.numberOfTrailingZeros(mask);
     }
-    
+
     /**
-     * Retorna o valor máximo de comida que este predador pode armazenar.
+     * Retorna a máscara de dieta deste predador: o bit (1 << id) está ligado
+     * para cada espécie que ele pode comer.
      * 
-     * @return A capacidade máxima do estômago.
+     * @return A máscara de dieta.
      */
-    public abstract int getMaxFoodValue();
+    public final int getDietMask() {
+        return SpeciesRegistry.getDietMask(getSpeciesId());
+    }
 
     /**
      * Verifica se este predador pode comer o animal especificado.
@@ -109,5 +107,8 @@ public abstract class Predator extends Animal {
      * @param animal O animal a verificar.
      * @return true se pode comer o animal, false caso contrário.
      */
-    public abstract boolean canEat(Object animal);
+    public boolean canEat(Object animal) {
+        return animal instanceof Animal
+                && (dietMask & (1 << ((Animal) animal).getSpeciesId())) != 0;
+    }
 }
\ No newline at end of file
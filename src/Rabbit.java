@@ -10,23 +10,8 @@
 public class Rabbit extends Herbivore {
     // --- Constantes Estáticas ---
     
-    /** Idade em que o coelho pode começar a procriar */
-    private static final int BREEDING_AGE = 5;
-    
-    /** Idade máxima que um coelho pode atingir */
-    private static final int MAX_AGE = 25;
-    
-    /** Probabilidade de procriação em cada passo (0.0 a 1.0) */
-    private static final double BREEDING_PROBABILITY = 0.6;
-    
-    /** Número máximo de filhotes por procriação */
-    private static final int MAX_LITTER_SIZE = 23;
-    
-    /** Valor nutricional quando comido por predadores */
-    private static final int FOOD_VALUE = 10;
-    
-    /** Probabilidade de criação durante a população inicial */
-    private static final double CREATION_PROBABILITY = 0.12;
+    /** Identificador compacto da espécie na tabela de espécies (ver Especies/padrao.txt) */
+    private static final int SPECIES_ID = SpeciesRegistry.idOf("Rabbit");
 
     /**
      * Cria um novo coelho.
@@ -34,7 +19,7 @@ public class Rabbit extends Herbivore {
      * @param randomAge Se true, o coelho terá idade aleatória.
      */
     public Rabbit(boolean randomAge) {
-        super(randomAge);
+        super(randomAge, SPECIES_ID);
     }
 
     /**
@@ -61,69 +46,19 @@ public class Rabbit extends Herbivore {
         return young;
     }
 
-    /**
-     * Retorna o valor nutricional deste animal quando for comido.
-     * 
-     * @return O valor nutricional do coelho.
-     */
-    @Override
-    public int getFoodValue() {
-        return FOOD_VALUE;
-    }
-
     /**
      * Marca o coelho como comido (morto por um predador).
      */
     public void setEaten() {
-        setDead();
+        setDead(DeathCause.EATEN);
     }
 
-    /**
-     * Retorna a idade máxima que um coelho pode atingir.
-     * 
-     * @return A idade máxima do coelho.
-     */
-    @Override
-    public int getMaxAge() {
-        return MAX_AGE;
-    }
-
-    /**
-     * Retorna a idade em que um coelho pode começar a procriar.
-     * 
-     * @return A idade de procriação do coelho.
-     */
-    @Override
-    public int getBreedingAge() {
-        return BREEDING_AGE;
-    }
-
-    /**
-     * Retorna a probabilidade de um coelho procriar em cada passo.
-     * 
-     * @return A probabilidade de procriação (0.0 a 1.0).
-     */
-    @Override
-    public double getBreedingProbability() {
-        return BREEDING_PROBABILITY;
-    }
-
-    /**
-     * Retorna o tamanho máximo da ninhada de coelhos.
-     * 
-     * @return O número máximo de filhotes por procriação.
-     */
-    @Override
-    public int getMaxLitterSize() {
-        return MAX_LITTER_SIZE;
-    }
-    
     /**
      * Retorna a probabilidade de criação de um coelho durante a população inicial.
      * 
      * @return A probabilidade de criação (0.0 a 1.0).
      */
     public static double getCreationProbability() {
-        return CREATION_PROBABILITY;
+        return SpeciesRegistry.getCreationProbability(SPECIES_ID);
     }
 }
\ No newline at end of file
@@ -19,6 +19,16 @@ public class RandomGenerator {
         return rand;
     }
     
+    /**
+     * Reinicia a sequência compartilhada a partir de uma semente, para que
+     * duas execuções com a mesma semente sorteiem os mesmos números.
+     *
+     * @param seed A semente.
+     */
+    public static void setSeed(long seed) {
+        rand.setSeed(seed);
+    }
+    
     /**
      * Gera um número inteiro aleatório no intervalo [0, bound).
      *
@@ -37,4 +47,42 @@ public class RandomGenerator {
     public static double nextDouble() {
         return rand.nextDouble();
     }
-}
\ No newline at end of file
+    
+    /**
+     * Sorteia o número de sucessos em n tentativas independentes com
+     * probabilidade p (distribuição binomial). Para médias pequenas conta
+     * os saltos geométricos entre sucessos; para médias grandes usa a
+     * aproximação normal.
+     *
+     * @param n O número de tentativas.
+     * @param p A probabilidade de sucesso de cada tentativa.
+     * @return O número de sucessos, entre 0 e n.
+     */
+    public static long binomial(long n, double p) {
+        if (n <= 0 || p <= 0.0) {
+            return 0;
+        }
+        if (p >= 1.0) {
+            return n;
+        }
+        if (p > 0.5) {
+            return n - binomial(n, 1.0 - p);  // Simetria: menos sucessos a contar
+        }
+        double mean = n * p;
+        if (mean < 10.0) {
+            // Salta direto de um sucesso ao próximo (custo proporcional à média)
+            double logFailure = Math.log1p(-p);
+            long successes = 0;
+            long position = 0;
+            while (true) {
+                position += (long) (Math.log(1.0 - rand.nextDouble()) / logFailure) + 1;
+                if (position > n) {
+                    return successes;
+                }
+                successes++;
+            }
+        }
+        long sample = Math.round(mean + Math.sqrt(mean * (1.0 - p)) * rand.nextGaussian());
+        return Math.max(0, Math.min(n, sample));
+    }
+}
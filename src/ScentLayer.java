@@ -0,0 +1,143 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Camada escalar (um float por célula) que se difunde e decai a cada passo.
+ * Usada para o rastro de presas e de predadores: animais depositam cheiro
+ * na sua célula e o cheiro se espalha pelas vizinhas através de um estêncil
+ * 3x3, perdendo intensidade com o tempo.
+ * 
+ * A atualização percorre a grade em faixas de linhas contíguas (blocos que
+ * cabem em cache) e, em campos grandes, as faixas são processadas em paralelo.
+ * O laço interno é uma operação simples sobre vetores de float, na forma que
+ * o compilador JIT consegue vetorizar automaticamente.
+ * 
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class ScentLayer {
+    
+    // Número de linhas de cada faixa processada de uma vez
+    private static final int BAND_ROWS = 64;
+    
+    // A partir deste número de células a atualização usa várias threads
+    private static final int PARALLEL_THRESHOLD = 256 * 256;
+    
+    // Dimensões da camada (iguais às do campo)
+    private final int depth, width;
+    
+    // Fração do cheiro de uma célula que se espalha para as vizinhas a cada passo
+    private final float diffusion;
+    
+    // Fração do cheiro que permanece após cada passo (0.0 a 1.0)
+    private final float retention;
+    
+    // Valores atuais e buffer para o próximo passo (linha * largura + coluna)
+    private float[] current;
+    private float[] next;
+
+    /**
+     * Cria uma camada vazia.
+     *
+     * @param depth A profundidade do campo.
+     * @param width A largura do campo.
+     * @param diffusion Fração que se espalha para as vizinhas (0.0 a 1.0).
+     * @param decay Fração perdida a cada passo (0.0 a 1.0).
+     */
+    public ScentLayer(int depth, int width, double diffusion, double decay) {
+        this.depth = depth;
+        this.width = width;
+        this.diffusion = (float) diffusion;
+        this.retention = (float) (1.0 - decay);
+        current = new float[depth * width];
+        next = new float[depth * width];
+    }
+
+    /**
+     * Adiciona cheiro em uma célula.
+     *
+     * @param location A célula.
+     * @param amount A quantidade depositada.
+     */
+    public void deposit(Location location, float amount) {
+        current[location.getRow() * width + location.getCol()] += amount;
+    }
+
+    /**
+     * Retorna a intensidade do cheiro em uma célula.
+     *
+     * @param row A linha.
+     * @param col A coluna.
+     * @return A intensidade atual.
+     */
+    public float get(int row, int col) {
+        return current[row * width + col];
+    }
+
+    /**
+     * Zera a camada inteira.
+     */
+    public void clear() {
+        Arrays.fill(current, 0f);
+    }
+
+    /**
+     * Avança a camada um passo: difusão pelo estêncil 3x3 seguida de decaimento.
+     * Nas bordas, as vizinhas inexistentes são substituídas pela própria célula.
+     */
+    public void step() {
+        int bands = (depth + BAND_ROWS - 1) / BAND_ROWS;
+        IntStream range = IntStream.range(0, bands);
+        if (depth * width >= PARALLEL_THRESHOLD) {
+            range = range.parallel();  // Faixas independentes: leem current, escrevem next
+        }
+        range.forEach(this::updateBand);
+        
+        // Troca os buffers: o resultado passa a ser o estado atual
+        float[] temp = current;
+        current = next;
+        next = temp;
+    }
+
+    /**
+     * Atualiza as linhas de uma faixa.
+     */
+    private void updateBand(int band) {
+        int rowEnd = Math.min((band + 1) * BAND_ROWS, depth);
+        float keep = retention * (1f - diffusion);           // Peso da própria célula
+        float spread = retention * diffusion / 8f;           // Peso de cada vizinha
+        for (int row = band * BAND_ROWS; row < rowEnd; row++) {
+            int up = (row > 0 ? row - 1 : row) * width;
+            int mid = row * width;
+            int down = (row < depth - 1 ? row + 1 : row) * width;
+            
+            // Colunas internas: laço sem desvios, candidato a vetorização pelo JIT
+            for (int col = 1; col < width - 1; col++) {
+                float neighbours = current[up + col - 1] + current[up + col] + current[up + col + 1]
+                        + current[mid + col - 1] + current[mid + col + 1]
+                        + current[down + col - 1] + current[down + col] + current[down + col + 1];
+                next[mid + col] = keep * current[mid + col] + spread * neighbours;
+            }
+            
+            // Colunas das bordas tratadas à parte
+            updateEdge(up, mid, down, 0);
+            if (width > 1) {
+                updateEdge(up, mid, down, width - 1);
+            }
+        }
+    }
+
+    /**
+     * Atualiza uma célula da primeira ou última coluna.
+     */
+    private void updateEdge(int up, int mid, int down, int col) {
+        int left = col > 0 ? col - 1 : col;
+        int right = col < width - 1 ? col + 1 : col;
+        float neighbours = current[up + left] + current[up + col] + current[up + right]
+                + current[mid + left] + current[mid + right]
+                + current[down + left] + current[down + col] + current[down + right];
+        float keep = retention * (1f - diffusion);
+        float spread = retention * diffusion / 8f;
+        next[mid + col] = keep * current[mid + col] + spread * neighbours;
+    }
+}
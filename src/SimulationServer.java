@@ -0,0 +1,964 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Servidor HTTP local que hospeda várias simulações (motor por passos,
+ * sem janela) e transmite os quadros para uma página com um canvas, para
+ * acompanhar execuções remotamente sem uma janela Swing por execução.
+ *
+ * Cada sessão roda na sua própria thread. Sessões sem espectador rodam
+ * sem pausa e sem capturar quadros; com pelo menos um espectador, a
+ * sessão publica o quadro de cada passo e espera frameInterval ms, como
+ * a janela. Cada espectador recebe sempre o quadro mais recente: um
+ * cliente lento pula quadros em vez de atrasar a sessão.
+ *
+ * Os animais guardam o estado da simulação em campos estáticos (clima,
+ * agenda de mortes, gerador compartilhado), então os passos das sessões
+ * são alternados sob uma trava única: antes de cada passo a sessão
+ * reinstala o seu estado (Simulator.activate()) e resemeia o gerador com
+ * a sua semente e o passo, de modo que a intercalação das sessões não
+ * muda o resultado de nenhuma delas.
+ *
+ * Endereços: GET / (página), GET /sessions (lista em JSON), POST
+ * /sessions?map=&amp;depth=&amp;width=&amp;hunters=&amp;seed=&amp;steps= (cria),
+ * DELETE /sessions/{id} (encerra) e GET /sessions/{id}/stream (quadros).
+ *
+ * O fluxo de quadros é uma resposta HTTP em partes (chunked) com
+ * mensagens (tamanho int + conteúdo): um cabeçalho 'H' com dimensões,
+ * paleta (terrenos, espécies e caçador), nomes das estações e terreno em
+ * sequências (RLE); depois quadros 'K' (códigos em RLE) ou 'D' (só as
+ * células alteradas desde o quadro anterior enviado a este espectador),
+ * com o passo, a estação e as populações. Os códigos de célula são os
+ * do TimelineRecorder, e a compressão segue o mesmo esquema.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class SimulationServer {
+
+    // Valores padrão
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_FRAME_INTERVAL = 100;  // Milissegundos entre quadros assistidos
+    public static final int DEFAULT_MAX_SESSIONS = 64;
+    public static final int MAX_FIELD_SIZE = 2000;         // Maior profundidade ou largura aceita
+
+    // Quadros entre dois quadros-chave enviados a um espectador
+    private static final int KEYFRAME_INTERVAL = 32;
+
+    // Tipos de mensagem do fluxo
+    private static final byte HEADER = 'H';
+
+    // Os passos de todas as sessões são alternados sob esta trava (ver comentário da classe)
+    private static final ReentrantLock ENGINE = new ReentrantLock(true);
+
+    private final HttpServer server;
+    private final ExecutorService sessionThreads;
+    private final Map<Integer, Session> sessions = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextSessionId = new AtomicInteger(1);
+    private volatile int frameInterval = DEFAULT_FRAME_INTERVAL;
+    private volatile int maxSessions = DEFAULT_MAX_SESSIONS;
+
+    /**
+     * Estados de uma sessão.
+     */
+    public enum State {
+        RUNNING,   // Executando passos
+        FINISHED,  // Atingiu o limite de passos ou a população se extinguiu
+        STOPPED    // Encerrada por pedido
+    }
+
+    /**
+     * Uma simulação hospedada e o último quadro publicado.
+     */
+    private final class Session implements Runnable {
+        final int id;
+        final String map;
+        final int hunterCount;
+        final long seed;
+        final int stepLimit;  // 0 = sem limite
+        final Simulator simulator;
+        final int depth, width;
+        final AtomicInteger watchers = new AtomicInteger();
+        volatile State state = State.RUNNING;
+        volatile double stepsPerSecond;
+
+        // Último quadro publicado (protegido pelo monitor da sessão)
+        final byte[] codes;
+        final int[] populations;
+        int frameStep;
+        int frameSeason;
+        int frameHunters;
+        long sequence;  // Quadros publicados
+
+        Session(int id, String map, int depth, int width, int hunterCount, long seed, int stepLimit) {
+            this.id = id;
+            this.map = map;
+            this.depth = depth;
+            this.width = width;
+            this.hunterCount = hunterCount;
+            this.seed = seed;
+            this.stepLimit = stepLimit;
+            TerrainType[][] terrain = Simulator.loadTerrain(depth, width, map, false);
+            ENGINE.lock();
+            try {
+                RandomGenerator.setSeed(seed);
+                simulator = new Simulator(depth, width, terrain, hunterCount);
+            } finally {
+                ENGINE.unlock();
+            }
+            codes = new byte[depth * width];
+            populations = new int[SpeciesRegistry.getSpeciesCount()];
+            publish();  // Estado inicial
+        }
+
+        /**
+         * Executa passos até o limite, a extinção ou um pedido de encerramento.
+         */
+        @Override
+        public void run() {
+            long windowStart = System.nanoTime();
+            int windowSteps = 0;
+            while (state == State.RUNNING && simulator.getStats().isViable(simulator.getField())
+                   && (stepLimit == 0 || simulator.getStep() < stepLimit)) {
+                ENGINE.lock();
+                try {
+                    RandomGenerator.setSeed(stepSeed(seed, simulator.getStep()));
+                    simulator.activate();
+                    simulator.simulateOneStep();
+                } finally {
+                    ENGINE.unlock();
+                }
+
+                // Passos por segundo, medidos em janelas de um segundo
+                windowSteps++;
+                long now = System.nanoTime();
+                if (now - windowStart >= 1_000_000_000L) {
+                    stepsPerSecond = windowSteps * 1e9 / (now - windowStart);
+                    windowStart = now;
+                    windowSteps = 0;
+                }
+
+                if (watchers.get() == 0) {
+                    continue;  // Ninguém assistindo: sem quadro e sem pausa
+                }
+                publish();
+                try {
+                    Thread.sleep(frameInterval);
+                } catch (InterruptedException e) {
+                    break;  // Servidor encerrado
+                }
+            }
+            if (state == State.RUNNING) {
+                state = State.FINISHED;
+            }
+            stepsPerSecond = 0;
+            publish();  // Último quadro, e acorda os espectadores para encerrarem
+        }
+
+        /**
+         * Copia o estado do campo como o quadro mais recente e acorda os espectadores.
+         */
+        synchronized void publish() {
+            Field field = simulator.getField();
+            TimelineRecorder.captureCodes(field, codes);
+            for (int species = 0; species < populations.length; species++) {
+                populations[species] = field.getSpeciesPopulation(species);
+            }
+            frameStep = simulator.getStep();
+            frameSeason = simulator.getWeatherSystem().getCurrentSeason().ordinal();
+            frameHunters = simulator.getHunters().size();
+            sequence++;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Cria um servidor no endereço local (loopback) e na porta dada.
+     * O servidor só começa a atender depois de start().
+     *
+     * @param port A porta (0 para uma porta livre qualquer).
+     * @throws IOException Se a porta não puder ser aberta.
+     */
+    public SimulationServer(int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Cria um servidor no endereço dado. Sem autenticação: fora do
+     * endereço local, qualquer um na rede pode criar e encerrar sessões.
+     *
+     * @param address O endereço e a porta.
+     * @throws IOException Se a porta não puder ser aberta.
+     */
+    public SimulationServer(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/", this::handlePage);
+        server.createContext("/sessions", this::handleSessions);
+        // Cada espectador ocupa uma thread enquanto assiste
+        server.setExecutor(Executors.newCachedThreadPool(daemonThreads("servidor-http-")));
+        sessionThreads = Executors.newCachedThreadPool(daemonThreads("sessao-simulacao-"));
+    }
+
+    /**
+     * @return Uma fábrica de threads daemon numeradas com o prefixo dado.
+     */
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Começa a atender pedidos.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Encerra o servidor e todas as sessões.
+     */
+    public void stop() {
+        for (Session session : sessions.values()) {
+            session.state = State.STOPPED;
+        }
+        server.stop(0);
+        sessionThreads.shutdownNow();
+    }
+
+    /**
+     * @return A porta em que o servidor atende.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Define a pausa entre os passos de uma sessão assistida.
+     *
+     * @param millis Milissegundos entre quadros (0 = sem pausa).
+     */
+    public void setFrameInterval(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Intervalo entre quadros inválido: " + millis);
+        }
+        frameInterval = millis;
+    }
+
+    /**
+     * Define quantas sessões podem existir ao mesmo tempo (as encerradas
+     * contam até serem removidas).
+     *
+     * @param sessionCount O número máximo de sessões.
+     */
+    public void setMaxSessions(int sessionCount) {
+        if (sessionCount <= 0) {
+            throw new IllegalArgumentException("Número de sessões inválido: " + sessionCount);
+        }
+        maxSessions = sessionCount;
+    }
+
+    /**
+     * Cria uma sessão e começa a executá-la.
+     *
+     * @param map O mapa ("GRASS_ONLY" ou o nome de um arquivo existente da pasta Mapas).
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param hunterCount Número de caçadores.
+     * @param seed A semente da sessão.
+     * @param stepLimit Passos a executar (0 = até a extinção ou o encerramento).
+     * @return O identificador da sessão.
+     */
+    public int createSession(String map, int depth, int width, int hunterCount, long seed, int stepLimit) {
+        if (depth <= 0 || width <= 0 || depth > MAX_FIELD_SIZE || width > MAX_FIELD_SIZE
+            || hunterCount < 0 || stepLimit < 0) {
+            throw new IllegalArgumentException("Parâmetros de sessão inválidos");
+        }
+        // Só nomes simples de arquivos que existem: o MapLoader trocaria um
+        // mapa ausente por grama em silêncio, e o nome volta para as páginas
+        if (!"GRASS_ONLY".equals(map) && (!map.matches("[A-Za-z0-9._-]+") || !new File("Mapas", map).isFile())) {
+            throw new IllegalArgumentException("Mapa inválido ou inexistente: " + map);
+        }
+        if (sessions.size() >= maxSessions) {
+            throw new IllegalStateException("Limite de " + maxSessions + " sessões atingido");
+        }
+        int id = nextSessionId.getAndIncrement();
+        Session session = new Session(id, map, depth, width, hunterCount, seed, stepLimit);
+        sessions.put(id, session);
+        sessionThreads.execute(session);
+        return id;
+    }
+
+    /**
+     * Encerra uma sessão e a remove da lista; os espectadores recebem o
+     * último quadro e o fim do fluxo.
+     *
+     * @param id O identificador da sessão.
+     * @return true se a sessão existia.
+     */
+    public boolean removeSession(int id) {
+        Session session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        if (session.state == State.RUNNING) {
+            session.state = State.STOPPED;
+        }
+        return true;
+    }
+
+    /**
+     * Semente do gerador compartilhado para um passo de uma sessão
+     * (mistura SplitMix64 da semente da sessão e do passo).
+     */
+    private static long stepSeed(long seed, int step) {
+        long z = seed + (step + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * GET / : a página do cliente.
+     */
+    private void handlePage(HttpExchange exchange) throws IOException {
+        try {
+            if (!"/".equals(exchange.getRequestURI().getPath())) {
+                sendText(exchange, 404, "text/plain", "Não encontrado");
+            } else if (!"GET".equals(exchange.getRequestMethod())) {
+                sendText(exchange, 405, "text/plain", "Método não permitido");
+            } else {
+                sendText(exchange, 200, "text/html", PAGE);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * /sessions e /sessions/{id}[/stream]: lista, criação, encerramento e fluxo.
+     */
+    private void handleSessions(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] parts = exchange.getRequestURI().getPath().split("/");  // "", "sessions", id, "stream"
+            if (!"GET".equals(method) && !sameOrigin(exchange)) {
+                sendText(exchange, 403, "text/plain", "Origem não permitida");
+            } else if (parts.length == 2 && "GET".equals(method)) {
+                sendText(exchange, 200, "application/json", listJson());
+            } else if (parts.length == 2 && "POST".equals(method)) {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                int id = createSession(query.getOrDefault("map", "GRASS_ONLY"),
+                                       Integer.parseInt(query.getOrDefault("depth", "100")),
+                                       Integer.parseInt(query.getOrDefault("width", "100")),
+                                       Integer.parseInt(query.getOrDefault("hunters", "0")),
+                                       Long.parseLong(query.getOrDefault("seed", "42")),
+                                       Integer.parseInt(query.getOrDefault("steps", "0")));
+                sendText(exchange, 201, "application/json", "{\"id\":" + id + "}");
+            } else if (parts.length >= 3 && sessions.containsKey(parseId(parts[2]))) {
+                int id = parseId(parts[2]);
+                if (parts.length == 3 && "DELETE".equals(method)) {
+                    removeSession(id);
+                    sendText(exchange, 200, "application/json", "{\"id\":" + id + "}");
+                } else if (parts.length == 4 && "stream".equals(parts[3]) && "GET".equals(method)) {
+                    stream(exchange, sessions.get(id));
+                } else {
+                    sendText(exchange, 405, "text/plain", "Método não permitido");
+                }
+            } else {
+                sendText(exchange, 404, "text/plain", "Sessão não encontrada");
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            sendText(exchange, 400, "text/plain", e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return true se o pedido não traz Origin ou vem de uma página deste
+     * servidor (impede que outro site crie ou encerre sessões).
+     */
+    private static boolean sameOrigin(HttpExchange exchange) {
+        String origin = exchange.getRequestHeaders().getFirst("Origin");
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        return origin == null || origin.equals("http://" + host);
+    }
+
+    /**
+     * @return O identificador do caminho, ou -1 se não for um número.
+     */
+    private static int parseId(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return Os parâmetros da consulta (chave=valor separados por &amp;).
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                          URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * @return A lista de sessões em JSON.
+     */
+    private String listJson() {
+        StringBuilder json = new StringBuilder("[");
+        for (Session session : sessions.values()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(session.id)
+                .append(",\"map\":\"").append(escapeJson(session.map)).append('"')
+                .append(",\"depth\":").append(session.depth)
+                .append(",\"width\":").append(session.width)
+                .append(",\"hunters\":").append(session.hunterCount)
+                .append(",\"seed\":").append(session.seed)
+                .append(",\"step\":").append(session.simulator.getStep())
+                .append(",\"stepsPerSecond\":").append(Math.round(session.stepsPerSecond))
+                .append(",\"watchers\":").append(session.watchers.get())
+                .append(",\"state\":\"").append(session.state).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * @return O texto com aspas, barras e controles escapados para JSON.
+     */
+    private static String escapeJson(String text) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Envia uma resposta de texto completa.
+     */
+    private static void sendText(HttpExchange exchange, int status, String type, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", type + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * GET /sessions/{id}/stream : envia o cabeçalho e, a cada quadro
+     * publicado, o quadro mais recente, até a sessão terminar ou o
+     * espectador desconectar.
+     */
+    private void stream(HttpExchange exchange, Session session) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(200, 0);  // Tamanho desconhecido: resposta em partes
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(exchange.getResponseBody(), 1 << 16));
+        FrameEncoder encoder = new FrameEncoder(session.depth * session.width);
+        int[] populations = new int[session.populations.length];
+
+        session.watchers.incrementAndGet();
+        try {
+            encoder.header(session);
+            encoder.send(out);
+            long seen;
+            synchronized (session) {
+                // Sessão em execução: espera o próximo passo (o quadro publicado pode ser antigo)
+                seen = session.state == State.RUNNING ? session.sequence : session.sequence - 1;
+            }
+            while (true) {
+                int step, season, hunters;
+                synchronized (session) {
+                    while (session.sequence == seen && session.state == State.RUNNING) {
+                        session.wait();
+                    }
+                    if (session.sequence == seen) {
+                        break;  // Sessão terminada e último quadro já enviado
+                    }
+                    seen = session.sequence;
+                    System.arraycopy(session.codes, 0, encoder.current, 0, encoder.current.length);
+                    System.arraycopy(session.populations, 0, populations, 0, populations.length);
+                    step = session.frameStep;
+                    season = session.frameSeason;
+                    hunters = session.frameHunters;
+                }
+                encoder.frame(step, season, populations, hunters);
+                encoder.send(out);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();  // Servidor encerrado
+        } catch (IOException e) {
+            // O espectador fechou a página ou parou de assistir
+        } finally {
+            session.watchers.decrementAndGet();
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            // A conexão já estava fechada
+        }
+    }
+
+    /**
+     * Codifica as mensagens do fluxo de um espectador. Guarda o último
+     * quadro enviado a ele, referência das diferenças do próximo.
+     */
+    private static final class FrameEncoder {
+        byte[] previous;
+        byte[] current;
+        int frames;
+
+        // Buffer reutilizável para o conteúdo de uma mensagem
+        byte[] payload = new byte[1024];
+        int payloadSize;
+
+        FrameEncoder(int cells) {
+            previous = new byte[cells];
+            current = new byte[cells];
+        }
+
+        /**
+         * Prepara o cabeçalho: dimensões, paleta, estações e terreno.
+         */
+        void header(Session session) {
+            Field field = session.simulator.getField();
+            Map<Class<?>, Color> colors = Simulator.getDefaultColors();
+            payloadSize = 0;
+            writeByte(HEADER);
+            writeInt(session.id);
+            writeInt(session.depth);
+            writeInt(session.width);
+            TerrainType[] terrains = TerrainType.values();
+            writeByte((byte) terrains.length);
+            for (TerrainType terrain : terrains) {
+                writeColor(terrain.getColor());
+            }
+            int speciesCount = SpeciesRegistry.getSpeciesCount();
+            writeByte((byte) speciesCount);
+            for (int id = 0; id < speciesCount; id++) {
+                writeColor(FrameExporter.colorOf(colors, SpeciesRegistry.getName(id)));
+                writeName(SpeciesRegistry.getName(id));
+            }
+            writeColor(FrameExporter.colorOf(colors, Hunter.class.getName()));
+            Season[] seasons = Season.values();
+            writeByte((byte) seasons.length);
+            for (Season season : seasons) {
+                writeName(season.toString());
+            }
+            byte[] terrain = new byte[session.depth * session.width];
+            for (int row = 0; row < session.depth; row++) {
+                for (int col = 0; col < session.width; col++) {
+                    terrain[row * session.width + col] = (byte) field.getTerrainAt(row, col).ordinal();
+                }
+            }
+            encodeRuns(terrain);
+        }
+
+        /**
+         * Prepara o quadro em current: quadro-chave no primeiro e a cada
+         * KEYFRAME_INTERVAL quadros, diferenças nos demais.
+         */
+        void frame(int step, int season, int[] populations, int hunters) {
+            boolean keyframe = frames % KEYFRAME_INTERVAL == 0;
+            payloadSize = 0;
+            writeByte(keyframe ? TimelineRecorder.KEYFRAME : TimelineRecorder.DELTA);
+            writeInt(step);
+            writeByte((byte) season);
+            for (int population : populations) {
+                writeInt(population);
+            }
+            writeInt(hunters);
+            if (keyframe) {
+                encodeRuns(current);
+            } else {
+                encodeDelta();
+            }
+
+            // O quadro atual passa a ser a referência do próximo
+            byte[] temp = previous;
+            previous = current;
+            current = temp;
+            frames++;
+        }
+
+        /**
+         * Envia a mensagem preparada (tamanho e conteúdo) e a despacha.
+         */
+        void send(DataOutputStream out) throws IOException {
+            out.writeInt(payloadSize);
+            out.write(payload, 0, payloadSize);
+            out.flush();
+        }
+
+        /**
+         * Codifica os valores como sequências (tamanho, valor).
+         */
+        private void encodeRuns(byte[] values) {
+            int i = 0;
+            while (i < values.length) {
+                byte value = values[i];
+                int start = i;
+                while (i < values.length && values[i] == value) {
+                    i++;
+                }
+                writeVarInt(i - start);
+                writeByte(value);
+            }
+        }
+
+        /**
+         * Codifica as diferenças para o quadro anterior como pares
+         * (células iguais, células alteradas + seus códigos novos).
+         */
+        private void encodeDelta() {
+            int cells = current.length;
+            int i = 0;
+            while (i < cells) {
+                int start = i;
+                while (i < cells && current[i] == previous[i]) {
+                    i++;
+                }
+                writeVarInt(i - start);
+                if (i == cells) {
+                    break;  // O resto do quadro não mudou
+                }
+                int changed = i;
+                while (i < cells && current[i] != previous[i]) {
+                    i++;
+                }
+                writeVarInt(i - changed);
+                for (int k = changed; k < i; k++) {
+                    writeByte(current[k]);
+                }
+            }
+        }
+
+        private void writeColor(Color color) {
+            writeByte((byte) color.getRed());
+            writeByte((byte) color.getGreen());
+            writeByte((byte) color.getBlue());
+        }
+
+        /**
+         * Acrescenta um nome: tamanho (byte) e bytes UTF-8.
+         */
+        private void writeName(String name) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            writeByte((byte) bytes.length);
+            for (byte b : bytes) {
+                writeByte(b);
+            }
+        }
+
+        private void writeInt(int value) {
+            writeByte((byte) (value >>> 24));
+            writeByte((byte) (value >>> 16));
+            writeByte((byte) (value >>> 8));
+            writeByte((byte) value);
+        }
+
+        /**
+         * Acrescenta um inteiro não negativo em 7 bits por byte.
+         */
+        private void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((byte) value);
+        }
+
+        /**
+         * Acrescenta um byte à mensagem, crescendo o buffer se preciso.
+         */
+        private void writeByte(byte value) {
+            if (payloadSize == payload.length) {
+                payload = Arrays.copyOf(payload, payloadSize * 2);
+            }
+            payload[payloadSize++] = value;
+        }
+    }
+
+    /**
+     * Inicia o servidor.
+     *
+     * @param args Porta (padrão 8080) e, opcionalmente, o endereço de
+     *             escuta (padrão: somente local) e o número de sessões
+     *             a criar no início.
+     * @throws IOException Se a porta não puder ser aberta.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        InetAddress address = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+        int initialSessions = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        SimulationServer simulationServer = new SimulationServer(new InetSocketAddress(address, port));
+        for (int s = 0; s < initialSessions; s++) {
+            simulationServer.createSession("GRASS_ONLY", 100, 100, 2, 42 + s, 0);
+        }
+        simulationServer.start();
+        System.out.println("Servidor de simulações em http://" + address.getHostAddress() + ":"
+                           + simulationServer.getPort() + "/");
+    }
+
+    // Página do cliente: lista de sessões, criação e um canvas para a sessão assistida
+    private static final String PAGE = """
+        <!DOCTYPE html>
+        <html lang="pt-BR">
+        <head>
+        <meta charset="utf-8">
+        <title>Simulações</title>
+        <style>
+          body { font-family: sans-serif; margin: 1em; }
+          table { border-collapse: collapse; margin-bottom: 1em; }
+          td, th { border: 1px solid #ccc; padding: 2px 8px; text-align: right; }
+          canvas { image-rendering: pixelated; border: 1px solid #888; }
+          #legend span { display: inline-block; margin-right: 1em; }
+        </style>
+        </head>
+        <body>
+        <form id="create">
+          Mapa <input name="map" value="GRASS_ONLY" size="12">
+          Profundidade <input name="depth" value="100" size="4">
+          Largura <input name="width" value="100" size="4">
+          Caçadores <input name="hunters" value="2" size="3">
+          Semente <input name="seed" value="42" size="6">
+          Passos <input name="steps" value="0" size="6">
+          <button>Criar sessão</button>
+        </form>
+        <table id="sessions"></table>
+        <div id="status"></div>
+        <div id="legend"></div>
+        <canvas id="canvas" width="1" height="1"></canvas>
+        <script>
+        const canvas = document.getElementById('canvas');
+        const context = canvas.getContext('2d');
+        let controller = null;
+
+        document.getElementById('create').onsubmit = async event => {
+          event.preventDefault();
+          const query = new URLSearchParams(new FormData(event.target));
+          const response = await fetch('/sessions?' + query, {method: 'POST'});
+          if (!response.ok) alert(await response.text());
+          refresh();
+        };
+
+        // A tabela é montada com textContent: nada vindo do servidor vira HTML
+        function row(table, tag, cells) {
+          const tr = table.insertRow();
+          for (const text of cells) {
+            const cell = document.createElement(tag);
+            cell.textContent = text;
+            tr.appendChild(cell);
+          }
+          return tr;
+        }
+
+        function button(label, action) {
+          const b = document.createElement('button');
+          b.textContent = label;
+          b.onclick = action;
+          return b;
+        }
+
+        async function refresh() {
+          const list = await (await fetch('/sessions')).json();
+          const table = document.getElementById('sessions');
+          table.replaceChildren();
+          row(table, 'th', ['Sessão', 'Mapa', 'Tamanho', 'Passo', 'Passos/s', 'Espectadores', 'Estado', '']);
+          for (const s of list) {
+            const tr = row(table, 'td', [s.id, s.map, s.depth + 'x' + s.width, s.step, s.stepsPerSecond,
+                                         s.watchers, s.state, '']);
+            tr.lastChild.append(button('Assistir', () => watch(s.id)), button('Encerrar', () => remove(s.id)));
+          }
+        }
+
+        async function remove(id) {
+          await fetch('/sessions/' + id, {method: 'DELETE'});
+          refresh();
+        }
+
+        async function watch(id) {
+          if (controller) controller.abort();
+          controller = new AbortController();
+          const status = document.getElementById('status');
+          let state = null;
+          let pending = new Uint8Array(0);
+          try {
+            const response = await fetch('/sessions/' + id + '/stream', {signal: controller.signal});
+            const reader = response.body.getReader();
+            for (;;) {
+              const {value, done} = await reader.read();
+              if (done) break;
+              const joined = new Uint8Array(pending.length + value.length);
+              joined.set(pending);
+              joined.set(value, pending.length);
+              let offset = 0;
+              while (joined.length - offset >= 4) {
+                const length = new DataView(joined.buffer, offset).getInt32(0);
+                if (joined.length - offset - 4 < length) break;
+                const message = new DataView(joined.buffer, offset + 4, length);
+                state = message.getUint8(0) === 72 ? header(message) : frame(state, message);
+                offset += 4 + length;
+              }
+              pending = joined.slice(offset);
+            }
+            status.textContent += ' - sessão encerrada';
+          } catch (e) {
+            if (e.name !== 'AbortError') status.textContent = 'Erro: ' + e;
+          }
+        }
+
+        function readName(reader) {
+          const length = reader.view.getUint8(reader.p++);
+          const bytes = new Uint8Array(reader.view.buffer, reader.view.byteOffset + reader.p, length);
+          reader.p += length;
+          return new TextDecoder().decode(bytes);
+        }
+
+        function readColor(reader) {
+          const v = reader.view;
+          const r = v.getUint8(reader.p), g = v.getUint8(reader.p + 1), b = v.getUint8(reader.p + 2);
+          reader.p += 3;
+          return 0xFF000000 | (b << 16) | (g << 8) | r;  // RGBA em little-endian
+        }
+
+        function readVarInt(reader) {
+          let value = 0, shift = 0, b;
+          do {
+            b = reader.view.getUint8(reader.p++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+          } while (b & 0x80);
+          return value;
+        }
+
+        function decodeRuns(reader, target) {
+          let i = 0;
+          while (reader.p < reader.view.byteLength) {
+            const count = readVarInt(reader);
+            target.fill(reader.view.getUint8(reader.p++), i, i + count);
+            i += count;
+          }
+        }
+
+        function header(view) {
+          const reader = {view: view, p: 1};
+          const s = {id: view.getInt32(1), depth: view.getInt32(5), width: view.getInt32(9)};
+          reader.p = 13;
+          s.terrainColors = [];
+          for (let n = view.getUint8(reader.p++); n > 0; n--) s.terrainColors.push(readColor(reader));
+          s.codeColors = new Uint32Array(256);
+          s.species = [];
+          const speciesCount = view.getUint8(reader.p++);
+          const legend = document.getElementById('legend');
+          legend.replaceChildren();
+          for (let id = 0; id < speciesCount; id++) {
+            const color = readColor(reader);
+            const name = readName(reader);
+            s.codeColors[id + 1] = color;
+            s.species.push(name);
+            const entry = document.createElement('span');
+            entry.style.color = '#' + ('00000' + ((color & 0xFF) << 16 | color & 0xFF00
+                                | (color >> 16) & 0xFF).toString(16)).slice(-6);
+            entry.textContent = '\u25A0 ' + name;
+            legend.appendChild(entry);
+          }
+          s.codeColors[255] = readColor(reader);
+          s.seasons = [];
+          for (let n = view.getUint8(reader.p++); n > 0; n--) s.seasons.push(readName(reader));
+          s.terrain = new Uint8Array(s.depth * s.width);
+          decodeRuns(reader, s.terrain);
+          s.codes = new Uint8Array(s.depth * s.width);
+          canvas.width = s.width;
+          canvas.height = s.depth;
+          const scale = Math.max(1, Math.floor(800 / Math.max(s.width, s.depth)));
+          canvas.style.width = (s.width * scale) + 'px';
+          canvas.style.height = (s.depth * scale) + 'px';
+          s.image = context.createImageData(s.width, s.depth);
+          s.pixels = new Uint32Array(s.image.data.buffer);
+          return s;
+        }
+
+        function frame(s, view) {
+          const reader = {view: view, p: 1};
+          const step = view.getInt32(1);
+          const season = s.seasons[view.getUint8(5)];
+          reader.p = 6;
+          let text = 'Sessão ' + s.id + ' - passo ' + step + ' - ' + season;
+          for (const name of s.species) {
+            text += ' - ' + name + ': ' + view.getInt32(reader.p);
+            reader.p += 4;
+          }
+          text += ' - caçadores: ' + view.getInt32(reader.p);
+          reader.p += 4;
+          if (view.getUint8(0) === 75) {
+            decodeRuns(reader, s.codes);
+          } else {
+            let i = 0;
+            while (reader.p < view.byteLength) {
+              i += readVarInt(reader);
+              if (reader.p >= view.byteLength) break;
+              for (let n = readVarInt(reader); n > 0; n--) s.codes[i++] = view.getUint8(reader.p++);
+            }
+          }
+          for (let i = 0; i < s.codes.length; i++) {
+            const code = s.codes[i];
+            s.pixels[i] = code ? s.codeColors[code] : s.terrainColors[s.terrain[i]];
+          }
+          context.putImageData(s.image, 0, 0);
+          document.getElementById('status').textContent = text;
+          return s;
+        }
+
+        refresh();
+        setInterval(refresh, 1000);
+        </script>
+        </body>
+        </html>
+        """;
+}
@@ -1,7 +1,9 @@
+import java.io.IOException;
 import java.util.Random;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.awt.Color;
 
 /**
@@ -17,10 +19,12 @@ public class Simulator {
     // Constantes de Configuração
     private static final int DEFAULT_WIDTH = 50;  // Largura padrão do campo em células
     private static final int DEFAULT_DEPTH = 50;  // Profundidade padrão do campo em células
+    private static final double SCENT_DIFFUSION = 0.5; // Fração do cheiro que se espalha por passo
+    private static final double SCENT_DECAY = 0.2;     // Fração do cheiro que se perde por passo
 
     // Campos de Instância
     private java.util.List<Animal> animals;      // Lista principal de todos os animais vivos
-    private java.util.List<Animal> newAnimals;   // Lista temporária para animais recém-nascidos
+    private java.util.List<Actor> newActors;     // Buffer reutilizável de atores criados no passo
     private java.util.List<Hunter> hunters;      // Lista de todos os caçadores ativos
     private Field field;                         // Campo representando o estado atual da simulação
     private Field updatedField;                  // Campo para construir o próximo estado
@@ -30,6 +34,21 @@ public class Simulator {
     private FieldStats stats;                    // Coletor de estatísticas populacionais
     private int maxSteps;                        // Número máximo de passos antes de parar
     private boolean simulationRunning;           // Flag que indica se simulação está ativa
+    private java.util.Map<Location, HomeDistanceMap> homeDistances; // Distâncias até cada casa (cache)
+    private ScentLayer preyScent;                // Rastro deixado pelos herbívoros
+    private ScentLayer threatScent;              // Rastro deixado pelos predadores
+    private VegetationLayer vegetation;          // Grama que alimenta os herbívoros
+    private DensityMap densityMap;               // Densidades por espécie (modo de capacidade de suporte)
+    private int densityRadius;                   // Raio da vizinhança da capacidade de suporte
+    private double carryingCapacity;             // Densidade em que a procriação para
+    private SpatialIndex preyIndex;              // Índice espacial dos animais (modo rastreador)
+    private int trackingRadius;                  // Raio de rastreamento dos caçadores
+    private TimingWheel<Animal> deathWheel;      // Mortes por velhice e fome agendadas por passo
+    private TimelineRecorder recorder;           // Gravação da linha do tempo (null se desligada)
+    private FrameExporter exporter;              // Exportação de imagens (null se desligada)
+    private SteadyStateMonitor steadyState;      // Parada em regime (null se desligada)
+    private TrajectoryTracer tracer;             // Registro das trajetórias (null se desligado)
+    private long[] populations;                  // Buffer das populações por espécie
 
     /**
      * Constrói um campo de simulação com tamanho padrão.
@@ -62,43 +81,121 @@ public class Simulator {
         }
 
         // Carregar mapa - decide entre mapa só de grama ou arquivo
-        TerrainType[][] terrainMap;
-        if (useGrassOnly || "GRASS_ONLY".equals(mapFileName)) {
-            // Cria um mapa uniforme de apenas grama
-            terrainMap = createGrassOnlyMap(width, depth);
-            System.out.println("Usando mapa somente de grama (" + width + "x" + depth + ")");
-        } else {
-            // Carrega mapa personalizado do arquivo
-            String mapPath = "Mapas/" + mapFileName;
-            terrainMap = MapLoader.loadMap(mapPath, width, depth);
-            System.out.println("Mapa carregado: " + mapFileName + " (" + width + "x" + depth + ")");
-        }
+        TerrainType[][] terrainMap = loadTerrain(depth, width, mapFileName, useGrassOnly);
+        initialize(depth, width, terrainMap);
+        
+        // Configurar interface gráfica
+        view = createView(depth, width);  // Cria a janela de visualização
+        
+        reset(hunterCount);  // Popula o campo com animais e caçadores iniciais
+    }
+
+    /**
+     * Cria uma simulação sem janela sobre o terreno dado, executada sem
+     * pausas entre os passos (para lotes, testes e comparação de motores).
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param terrainMap O terreno da simulação.
+     * @param hunterCount Número de caçadores a serem criados.
+     */
+    public Simulator(int depth, int width, TerrainType[][] terrainMap, int hunterCount) {
+        initialize(depth, width, terrainMap);
+        reset(hunterCount);
+    }
 
+    /**
+     * Cria os campos, camadas e sistemas auxiliares da simulação.
+     */
+    private void initialize(int depth, int width, TerrainType[][] terrainMap) {
         // Inicializar todas as listas e estruturas de dados
         animals = new ArrayList<Animal>();       // Lista para animais existentes
-        newAnimals = new ArrayList<Animal>();    // Lista para novos nascimentos
+        newActors = new ArrayList<Actor>();      // Buffer de atores criados (reutilizado)
         hunters = new ArrayList<Hunter>();       // Lista para caçadores
+        homeDistances = new java.util.HashMap<>(); // Cache de distâncias por casa de caçador
         field = new Field(depth, width, terrainMap);        // Campo atual
         updatedField = new Field(depth, width, terrainMap); // Campo próximo estado
         
+        // Camadas de cheiro compartilhadas pelos dois campos
+        preyScent = new ScentLayer(depth, width, SCENT_DIFFUSION, SCENT_DECAY);
+        threatScent = new ScentLayer(depth, width, SCENT_DIFFUSION, SCENT_DECAY);
+        field.setScentLayers(preyScent, threatScent);
+        updatedField.setScentLayers(preyScent, threatScent);
+        
+        // Grama compartilhada pelos dois campos
+        vegetation = new VegetationLayer(field);
+        field.setVegetation(vegetation);
+        updatedField.setVegetation(vegetation);
+        
         // Configurar sistemas auxiliares
         weatherSystem = new WeatherSystem();     // Sistema de estações do ano
         stats = new FieldStats();                // Coletor de estatísticas
         Animal.setWeatherSystem(weatherSystem);  // Compartilha clima com todos os animais
-        
-        // Configurar interface gráfica
-        view = new SimulatorView(depth, width);  // Cria a janela de visualização
-        view.setColor(Fox.class, Color.RED);              // Raposas em vermelho
-        view.setColor(Rabbit.class, Color.PINK);          // Coelhos em rosa
-        view.setColor(Hunter.class, Color.BLUE);          // Caçadores em azul
-        view.setColor(Buffalo.class, new Color(139, 69, 19)); // Búfalos em marrom
-        view.setColor(Lion.class, Color.YELLOW);          // Leões em amarelo
+        Animal.setDensityMap(null, 0, 1.0);      // Modo de capacidade de suporte começa desligado
+        Animal.setSpatialIndex(null);            // Modo rastreador começa desligado
+        deathWheel = new TimingWheel<>();        // Agenda de mortes por velhice e fome
+        Animal.setDeathWheel(deathWheel);
+        Animal.setCurrentStep(0);
 
         // Configurar parâmetros de execução
         maxSteps = 500;              // Limite padrão de 500 passos
         simulationRunning = true;    // Inicia como executando
-        
-        reset(hunterCount);  // Popula o campo com animais e caçadores iniciais
+    }
+
+    /**
+     * Carrega o terreno da simulação: um mapa só de grama ou um arquivo
+     * da pasta Mapas. Compartilhado com o motor orientado a eventos.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param mapFileName Nome do arquivo de mapa a ser carregado.
+     * @param useGrassOnly Se true, usa apenas terreno de grama.
+     * @return A matriz de terrenos.
+     */
+    static TerrainType[][] loadTerrain(int depth, int width, String mapFileName, boolean useGrassOnly) {
+        TerrainType[][] terrainMap;
+        if (useGrassOnly || "GRASS_ONLY".equals(mapFileName)) {
+            // Cria um mapa uniforme de apenas grama
+            terrainMap = createGrassOnlyMap(width, depth);
+            System.out.println("Usando mapa somente de grama (" + width + "x" + depth + ")");
+        } else {
+            // Carrega mapa personalizado do arquivo
+            String mapPath = "Mapas/" + mapFileName;
+            terrainMap = MapLoader.loadMap(mapPath, width, depth);
+            System.out.println("Mapa carregado: " + mapFileName + " (" + width + "x" + depth + ")");
+        }
+        return terrainMap;
+    }
+
+    /**
+     * Cria a janela de visualização com as cores de cada espécie.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @return A janela de visualização.
+     */
+    static SimulatorView createView(int depth, int width) {
+        SimulatorView view = new SimulatorView(depth, width);
+        for (Map.Entry<Class<?>, Color> entry : getDefaultColors().entrySet()) {
+            view.setColor(entry.getKey(), entry.getValue());
+        }
+        return view;
+    }
+
+    /**
+     * Cores de cada espécie e dos caçadores, usadas pela janela e pela
+     * exportação de quadros (FrameExporter).
+     *
+     * @return Um novo mapa de classe para cor.
+     */
+    static Map<Class<?>, Color> getDefaultColors() {
+        Map<Class<?>, Color> colors = new LinkedHashMap<>();
+        colors.put(Fox.class, Color.RED);              // Raposas em vermelho
+        colors.put(Rabbit.class, Color.PINK);          // Coelhos em rosa
+        colors.put(Hunter.class, Color.BLUE);          // Caçadores em azul
+        colors.put(Buffalo.class, new Color(139, 69, 19)); // Búfalos em marrom
+        colors.put(Lion.class, Color.YELLOW);          // Leões em amarelo
+        return colors;
     }
 
     /**
@@ -109,7 +206,7 @@ public class Simulator {
      * @param depth Profundidade do mapa.
      * @return Matriz com todos os terrenos como grama.
      */
-    private TerrainType[][] createGrassOnlyMap(int width, int depth) {
+    private static TerrainType[][] createGrassOnlyMap(int width, int depth) {
         TerrainType[][] grassMap = new TerrainType[depth][width];  // Cria matriz vazia
         // Preenche toda a matriz com terreno de grama
         for (int row = 0; row < depth; row++) {
@@ -137,9 +234,16 @@ public class Simulator {
     public void simulate(int numSteps) {
         simulationRunning = true;  // Marca simulação como ativa
         // Executa cada passo até atingir o limite ou condições de parada
-        for (int i = 0; i < numSteps && simulationRunning && view.isViable(field); i++) {
+        for (int i = 0; i < numSteps && simulationRunning && stats.isViable(field); i++) {
             simulateOneStep();  // Processa um único passo da simulação
+            if (reachedSteadyState()) {
+                System.out.println("Populações em regime no passo " + step + "; simulação encerrada");
+                break;
+            }
             
+            if (view == null) {
+                continue;  // Sem janela: sem pausa entre os passos
+            }
             try {
                 Thread.sleep(100);  // Pequena pausa para permitir visualização
             } catch (InterruptedException e) {
@@ -149,6 +253,9 @@ public class Simulator {
         
         // Marca que a simulação terminou
         simulationRunning = false;
+        flushRecording();  // Deixa a gravação completa no disco para revisão
+        stopFrameExport(); // Termina de gravar as imagens exportadas
+        stopTracing();     // Grava o último bloco e o índice das trajetórias
     }
 
     /**
@@ -159,40 +266,69 @@ public class Simulator {
         if (!simulationRunning) return;  // Verifica se a simulação deve continuar
         
         step++;           // Incrementa o contador de passos
-        newAnimals.clear();  // Limpa a lista de novos animais do passo anterior
+        newActors.clear();   // Esvazia o buffer do passo (mantém a capacidade)
+        
+        // Idade e fome derivam do relógio global; só os animais cuja morte
+        // foi agendada para este passo são tocados (eventos antigos, de antes
+        // de uma refeição, são ignorados por expireIfDue)
+        Animal.setCurrentStep(step);
+        deathWheel.advance(Animal::expireIfDue);
         
         weatherSystem.advanceTime();  // Avança o tempo no sistema climático
+        if (densityMap != null) {
+            densityMap.rebuild(field);  // Densidades do início do passo para a procriação
+        }
         updateHunterActivity();       // Atualiza atividade dos caçadores por estação
         
-        // Processa todos os caçadores - eles agem primeiro
-        for (Iterator<Hunter> iter = hunters.iterator(); iter.hasNext();) {
-            Hunter hunter = iter.next();
+        // Processa todos os caçadores - eles agem primeiro.
+        // Os vivos são compactados no início da lista em uma única passada,
+        // preservando a ordem de processamento (sem remoções O(n) no meio).
+        int liveHunters = 0;
+        for (int i = 0; i < hunters.size(); i++) {
+            Hunter hunter = hunters.get(i);
             if (hunter.isAlive()) {
-                java.util.List<Actor> newActors = new ArrayList<>();
                 hunter.act(field, updatedField, newActors);  // Executa ação do caçador
-            } else {
-                iter.remove();  // Remove caçadores que morreram
+                hunters.set(liveHunters++, hunter);
             }
         }
+        hunters.subList(liveHunters, hunters.size()).clear();  // Descarta caçadores mortos do fim
         
-        // Processa todos os animais
-        for (Iterator<Animal> iter = animals.iterator(); iter.hasNext();) {
-            Animal animal = iter.next();
+        // Processa todos os animais com a mesma compactação estável.
+        // Os filhotes são anexados diretamente ao fim da própria lista de animais;
+        // apenas os animais que existiam no início do passo agem.
+        int existing = animals.size();
+        int liveAnimals = 0;
+        for (int i = 0; i < existing; i++) {
+            Animal animal = animals.get(i);
             if (animal.isAlive()) {
-                // Executa ação do animal e coleta novos nascimentos
-                animal.actWithAnimals(field, updatedField, newAnimals);
-            } else {
-                iter.remove();  // Remove animais que morreram
+                // Executa ação do animal; nascimentos vão para o fim da lista
+                animal.actWithAnimals(field, updatedField, animals);
+                animals.set(liveAnimals++, animal);
             }
         }
+        animals.subList(liveAnimals, existing).clear();  // Descarta mortos, mantendo os filhotes
 
-        animals.addAll(newAnimals);  // Adiciona os novos animais à população
+        // Atores criados pelos caçadores (normalmente nenhum) entram na população
+        for (int i = 0; i < newActors.size(); i++) {
+            if (newActors.get(i) instanceof Animal) {
+                animals.add((Animal) newActors.get(i));
+            }
+        }
 
         // Troca os campos: o campo atualizado se torna o novo campo atual
         Field temp = field;
         field = updatedField;
         updatedField = temp;
         updatedField.clear();  // Limpa o campo antigo para reutilização
+        
+        updateScent();  // Deposita e espalha os rastros para o próximo passo
+        vegetation.regrow(weatherSystem.getCurrentSeason());  // Grama rebrota conforme a estação
+        recordStep();   // Grava o quadro do passo na linha do tempo, se ligada
+        exportStep();   // Põe o quadro do passo na fila de exportação, se ligada
+        traceStep();    // Registra a posição dos animais sorteados, se ligado
+        if (view == null) {
+            return;     // Sem janela para atualizar
+        }
 
         // Prepara dados finais para atualização da interface
         final int currentStep = step;
@@ -210,6 +346,25 @@ public class Simulator {
         });
     }
 
+    /**
+     * Cada animal vivo deixa rastro na sua célula (herbívoros no rastro de
+     * presas, predadores no de ameaça); em seguida as camadas se difundem.
+     */
+    private void updateScent() {
+        for (int i = 0; i < animals.size(); i++) {
+            Animal animal = animals.get(i);
+            if (animal.isAlive()) {
+                if (animal instanceof Predator) {
+                    threatScent.deposit(animal.getLocation(), 1f);
+                } else {
+                    preyScent.deposit(animal.getLocation(), 1f);
+                }
+            }
+        }
+        preyScent.step();
+        threatScent.step();
+    }
+
     /**
      * Atualiza a atividade dos caçadores baseado na estação atual.
      * Caçadores não caçam durante o inverno.
@@ -228,20 +383,37 @@ public class Simulator {
      * @param hunterCount Número de caçadores a criar.
      */
     public void reset(int hunterCount) {
+        stopTracing();      // Os identificadores recomeçam: as trajetórias anteriores se encerram
         step = 0;           // Reinicia contador de passos
+        Animal.setCurrentStep(step);  // Novos animais nascem no passo zero
+        deathWheel.reset(step);       // Descarta as mortes agendadas da execução anterior
         animals.clear();    // Remove todos os animais
         hunters.clear();    // Remove todos os caçadores
         field.clear();      // Limpa o campo atual
         updatedField.clear();  // Limpa o campo de atualização
         stats.reset();      // Reinicia estatísticas
+        preyScent.clear();     // Apaga os rastros da execução anterior
+        threatScent.clear();
+        vegetation.reset();    // Grama volta à capacidade máxima
+        if (preyIndex != null) {
+            preyIndex.clear();  // A nova população se registra ao ser posicionada
+        }
         
         weatherSystem = new WeatherSystem();     // Recria sistema climático
         Animal.setWeatherSystem(weatherSystem);  // Reconfigura clima para animais
         
+        homeDistances.clear();         // As casas são sorteadas de novo a cada reinício
+        Animal.resetIds();             // Mesma semente, mesmos identificadores
         populate(field, hunterCount);  // Recria população inicial
+        recordStep();                  // Estado inicial como quadro-chave, se gravando
+        if (steadyState != null) {
+            steadyState.reset();       // As observações anteriores não valem mais
+        }
         
         // Mostra estado inicial na interface
-        view.showStatus(step, field, weatherSystem.getCurrentSeason(), stats, hunters);
+        if (view != null) {
+            view.showStatus(step, field, weatherSystem.getCurrentSeason(), stats, hunters);
+        }
     }
 
     /**
@@ -293,11 +465,17 @@ public class Simulator {
         for (int i = 0; i < hunterCount; i++) {
             Location home = findValidLocationForHunter(field);  // Encontra localização válida
             Hunter hunter = new Hunter(home, stats);  // Cria caçador com casa
+            // Calcula (uma vez por casa) as distâncias usadas para voltar para casa
+            hunter.setHomeDistances(homeDistances.computeIfAbsent(home,
+                    h -> new HomeDistanceMap(field, h)));
+            if (preyIndex != null) {
+                hunter.setTracking(preyIndex, trackingRadius);  // Mantém o modo rastreador
+            }
             hunters.add(hunter);
             field.placeHunter(hunter, home);  // Posiciona no campo
         }
 
-        Collections.shuffle(animals);  // Embaralha animais para diversidade inicial
+        Collections.shuffle(animals, rand);  // Embaralha animais (gerador compartilhado: reproduzível)
         
         // Log da população inicial para debug
         System.out.println("População inicial:");
@@ -347,20 +525,288 @@ public class Simulator {
             attempts++;
         }
         
-        // Fallback: procura sequencialmente por grama vazia
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                Location loc = new Location(row, col);
-                if (field.getTerrainAt(loc) == TerrainType.GRASS && 
-                    field.getObjectAt(loc) == null) {
-                    return loc;  // Retorna primeira grama vazia encontrada
-                }
-            }
+        // Fallback: vai direto aos blocos do campo que ainda têm grama vazia
+        Location free = field.randomFreeGrassLocation(rand);
+        if (free != null) {
+            return free;  // Retorna grama vazia encontrada pelo resumo de ocupação
         }
         
         return new Location(0, 0);  // Último recurso: retorna origem
     }
 
+    /**
+     * Liga a gravação da linha do tempo: o estado atual e cada passo
+     * seguinte são gravados no arquivo, com um quadro-chave a cada
+     * keyframeInterval passos, para revisão posterior (ver TimelinePlayer).
+     *
+     * @param filename O arquivo de destino (substituído se existir).
+     * @param keyframeInterval Passos entre dois quadros-chave.
+     * @return true se a gravação foi iniciada.
+     */
+    public boolean enableRecording(String filename, int keyframeInterval) {
+        stopRecording();
+        try {
+            recorder = new TimelineRecorder(filename, field, keyframeInterval);
+        } catch (IOException e) {
+            System.err.println("Erro ao iniciar gravação: " + e.getMessage());
+            return false;
+        }
+        recordStep();
+        return recorder != null;
+    }
+
+    /**
+     * Encerra a gravação da linha do tempo, se houver, fechando o arquivo.
+     */
+    public void stopRecording() {
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar gravação: " + e.getMessage());
+            }
+            recorder = null;
+        }
+    }
+
+    /**
+     * Grava o estado atual como o próximo quadro; em caso de erro a
+     * gravação é desligada e a simulação continua.
+     */
+    private void recordStep() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.record(step, weatherSystem.getCurrentSeason(), stats.getHunterKills(), field);
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar passo " + step + ": " + e.getMessage());
+            stopRecording();
+        }
+    }
+
+    /**
+     * Envia ao arquivo os quadros ainda no buffer da gravação.
+     */
+    private void flushRecording() {
+        if (recorder != null) {
+            try {
+                recorder.flush();
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar: " + e.getMessage());
+                stopRecording();
+            }
+        }
+    }
+
+    /**
+     * Liga a parada em regime: simulate() termina antes do número de
+     * passos pedido quando as populações de cada espécie se repetem de um
+     * ciclo de estações para o seguinte (ver SteadyStateMonitor).
+     *
+     * @param window Passos de cada janela comparada.
+     * @param tolerance Diferença relativa aceita entre os ciclos.
+     */
+    public void enableSteadyStateStop(int window, double tolerance) {
+        steadyState = new SteadyStateMonitor(SpeciesRegistry.getSpeciesCount(), window, tolerance);
+        populations = new long[SpeciesRegistry.getSpeciesCount()];
+    }
+
+    /**
+     * Desliga a parada em regime.
+     */
+    public void disableSteadyStateStop() {
+        steadyState = null;
+    }
+
+    /**
+     * Passa as populações do passo ao monitor de regime, se ligado.
+     *
+     * @return true se as populações estão em regime.
+     */
+    private boolean reachedSteadyState() {
+        if (steadyState == null) {
+            return false;
+        }
+        for (int id = 0; id < populations.length; id++) {
+            populations[id] = field.getSpeciesPopulation(id);
+        }
+        return steadyState.observe(populations);
+    }
+
+    /**
+     * Liga a exportação de imagens: o estado atual e cada passo seguinte
+     * viram um PNG ou um quadro do GIF animado no diretório dado. A
+     * codificação roda em outras threads (ver FrameExporter); a exportação
+     * termina com stopFrameExport() ou ao fim de simulate().
+     *
+     * @param directory O diretório de saída.
+     * @param format O formato das imagens.
+     * @return true se a exportação foi iniciada.
+     */
+    public boolean enableFrameExport(String directory, FrameExporter.Format format) {
+        stopFrameExport();
+        try {
+            exporter = new FrameExporter(directory, format, field);
+        } catch (IOException e) {
+            System.err.println("Erro ao iniciar exportação: " + e.getMessage());
+            return false;
+        }
+        exportStep();
+        return exporter != null;
+    }
+
+    /**
+     * Encerra a exportação de imagens, se houver, esperando os quadros na fila.
+     */
+    public void stopFrameExport() {
+        if (exporter != null) {
+            try {
+                exporter.close();
+                System.out.println(exporter.getFramesWritten() + " quadros exportados em "
+                                   + exporter.getDirectory());
+            } catch (IOException e) {
+                System.err.println("Erro ao exportar quadros: " + e.getMessage());
+            }
+            exporter = null;
+        }
+    }
+
+    /**
+     * Põe o estado atual na fila de exportação; em caso de erro a
+     * exportação é desligada e a simulação continua.
+     */
+    private void exportStep() {
+        if (exporter == null) {
+            return;
+        }
+        try {
+            exporter.exportFrame(field);
+        } catch (IOException e) {
+            System.err.println("Erro ao exportar passo " + step + ": " + e.getMessage());
+            stopFrameExport();
+        }
+    }
+
+    /**
+     * Reinstala nos campos estáticos de Animal o estado desta simulação
+     * (clima, agenda de mortes, passo e modos ligados). Uma simulação
+     * sozinha no processo não precisa dele; serve para alternar os passos
+     * de várias simulações no mesmo processo (ver SimulationServer).
+     */
+    public void activate() {
+        Animal.setWeatherSystem(weatherSystem);
+        Animal.setDeathWheel(deathWheel);
+        Animal.setCurrentStep(step);
+        if (densityMap != null) {
+            Animal.setDensityMap(densityMap, densityRadius, carryingCapacity);
+        } else {
+            Animal.setDensityMap(null, 0, 1.0);
+        }
+        Animal.setSpatialIndex(preyIndex);
+        Animal.setTracer(tracer);
+    }
+
+    /**
+     * Liga o registro de trajetórias: a posição, idade e comida de cada
+     * animal sorteado no estado atual e no fim de cada passo seguinte, e
+     * a causa da sua morte (ver TrajectoryTracer). O registro termina com
+     * stopTracing(), ao fim de simulate() ou ao reiniciar a simulação.
+     *
+     * @param filename O arquivo de destino (substituído se existir).
+     * @param fraction A fração dos animais registrada (0.0 a 1.0).
+     * @return true se o registro foi iniciado.
+     */
+    public boolean enableTracing(String filename, double fraction) {
+        stopTracing();
+        try {
+            tracer = new TrajectoryTracer(filename, field, fraction);
+        } catch (IOException e) {
+            System.err.println("Erro ao iniciar registro de trajetórias: " + e.getMessage());
+            return false;
+        }
+        Animal.setTracer(tracer);
+        traceStep();
+        return tracer != null;
+    }
+
+    /**
+     * Encerra o registro de trajetórias, se houver, gravando o índice.
+     */
+    public void stopTracing() {
+        if (tracer != null) {
+            Animal.setTracer(null);
+            try {
+                tracer.close();
+                System.out.println(tracer.getRowsRecorded() + " registros de trajetória em "
+                                   + tracer.getBlockCount() + " blocos");
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar trajetórias: " + e.getMessage());
+            }
+            tracer = null;
+        }
+    }
+
+    /**
+     * Registra as posições do passo; em caso de erro o registro é
+     * desligado e a simulação continua.
+     */
+    private void traceStep() {
+        if (tracer == null) {
+            return;
+        }
+        try {
+            tracer.recordStep(step, animals);
+        } catch (IOException e) {
+            System.err.println("Erro ao registrar trajetórias do passo " + step + ": " + e.getMessage());
+            stopTracing();
+        }
+    }
+
+    /**
+     * Liga o modo de capacidade de suporte: a procriação de cada animal cai
+     * com a densidade da sua espécie no raio dado.
+     *
+     * @param radius O raio da vizinhança (em células).
+     * @param capacity A densidade (0.0 a 1.0) em que a procriação para.
+     */
+    public void enableCarryingCapacity(int radius, double capacity) {
+        densityMap = new DensityMap(field.getDepth(), field.getWidth());
+        densityRadius = radius;
+        carryingCapacity = capacity;
+        Animal.setDensityMap(densityMap, radius, capacity);
+    }
+
+    /**
+     * Desliga o modo de capacidade de suporte.
+     */
+    public void disableCarryingCapacity() {
+        densityMap = null;
+        Animal.setDensityMap(null, 0, 1.0);
+    }
+
+    /**
+     * Liga o modo rastreador dos caçadores: sem presa adjacente, eles seguem
+     * o animal vivo mais próximo dentro do raio, localizado por um índice
+     * espacial mantido incrementalmente pelos próprios animais.
+     *
+     * @param radius O raio máximo de rastreamento (em células).
+     */
+    public void enableHunterTracking(int radius) {
+        trackingRadius = radius;
+        preyIndex = new SpatialIndex(field.getDepth(), field.getWidth());
+        Animal.setSpatialIndex(preyIndex);
+        // Registra a população atual
+        for (Animal animal : animals) {
+            if (animal.isAlive()) {
+                preyIndex.move(animal, null, animal.getLocation());
+            }
+        }
+        for (Hunter hunter : hunters) {
+            hunter.setTracking(preyIndex, radius);
+        }
+    }
+
     /**
      * Retorna o sistema de clima.
      *
@@ -1,5 +1,6 @@
 import java.awt.*;
 import javax.swing.*;
+import java.io.IOException;
 import java.util.HashMap;
 
 /**
@@ -32,6 +33,14 @@ public class SimulatorView extends JFrame {
     
     // Um objeto de estatísticas que calcula e armazena informações da simulação
     private final FieldStats stats;
+    
+    // Painel inferior (população e, no modo de revisão, os controles)
+    private final JPanel bottomPanel;
+    
+    // Modo de revisão: linha do tempo aberta, barra de quadros e reprodução automática
+    private TimelinePlayer player;
+    private JSlider replaySlider;
+    private javax.swing.Timer replayTimer;
 
     /**
      * Cria uma visão da largura e altura fornecidas.
@@ -64,7 +73,9 @@ public class SimulatorView extends JFrame {
         // Organiza os componentes na janela
         contents.add(topPanel, BorderLayout.NORTH);      // Painel superior
         contents.add(fieldView, BorderLayout.CENTER);    // Campo no centro
-        contents.add(population, BorderLayout.SOUTH);    // População embaixo
+        bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(population, BorderLayout.CENTER);
+        contents.add(bottomPanel, BorderLayout.SOUTH);   // População embaixo
         
         pack();  // Ajusta tamanho da janela ao conteúdo
         setVisible(true);  // Torna a janela visível
@@ -134,20 +145,18 @@ public class SimulatorView extends JFrame {
             }
         }
         
-        // Desenha todos os atores vivos no campo
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                Actor actor = field.getObjectAt(row, col);  // Obtém ator na posição
-                if (actor != null && actor.isAlive()) {
-                    if (actor instanceof Animal) {
-                        // Processa animais
-                        Animal animal = (Animal) actor;
-                        this.stats.incrementCount(animal.getClass());  // Conta nas estatísticas internas
-                        stats.incrementCount(animal.getClass());       // Conta nas estatísticas externas
-                        fieldView.drawMark(col, row, getColor(animal.getClass()));  // Desenha animal
-                    } else if (actor instanceof Hunter) {
-                        // Processa caçadores
-                        fieldView.drawMark(col, row, getColor(Hunter.class));  // Desenha caçador
+        // Desenha todos os atores vivos no campo, pulando blocos vazios
+        int tileSize = field.getTileSize();
+        for (int tileRow = 0; tileRow < field.getTileRows(); tileRow++) {
+            for (int tileCol = 0; tileCol < field.getTileCols(); tileCol++) {
+                if (field.isTileEmpty(tileRow, tileCol)) {
+                    continue;  // Bloco sem atores - só terreno
+                }
+                int rowEnd = Math.min((tileRow + 1) * tileSize, field.getDepth());
+                int colEnd = Math.min((tileCol + 1) * tileSize, field.getWidth());
+                for (int row = tileRow * tileSize; row < rowEnd; row++) {
+                    for (int col = tileCol * tileSize; col < colEnd; col++) {
+                        drawActor(field.getObjectAt(row, col), row, col, stats);
                     }
                 }
             }
@@ -161,6 +170,29 @@ public class SimulatorView extends JFrame {
         fieldView.repaint();  // Redesenha o campo
     }
 
+    /**
+     * Desenha um ator (se vivo) e o contabiliza nas estatísticas.
+     *
+     * @param actor O ator na célula (pode ser null).
+     * @param row A linha da célula.
+     * @param col A coluna da célula.
+     * @param stats As estatísticas externas da simulação.
+     */
+    private void drawActor(Actor actor, int row, int col, FieldStats stats) {
+        if (actor != null && actor.isAlive()) {
+            if (actor instanceof Animal) {
+                // Processa animais
+                Animal animal = (Animal) actor;
+                this.stats.incrementCount(animal.getClass());  // Conta nas estatísticas internas
+                stats.incrementCount(animal.getClass());       // Conta nas estatísticas externas
+                fieldView.drawMark(col, row, getColor(animal.getClass()));  // Desenha animal
+            } else if (actor instanceof Hunter) {
+                // Processa caçadores
+                fieldView.drawMark(col, row, getColor(Hunter.class));  // Desenha caçador
+            }
+        }
+    }
+
     /**
      * Determina se a simulação deve continuar a ser executada.
      *
@@ -171,6 +203,148 @@ public class SimulatorView extends JFrame {
         return stats.isViable(field);  // Delega para FieldStats verificar viabilidade
     }
 
+    /**
+     * Entra no modo de revisão: mostra os quadros de uma linha do tempo
+     * gravada, com uma barra para ir a qualquer passo, botões para voltar
+     * e avançar um passo e reprodução automática. Deve ser chamado na
+     * thread do Swing (EDT).
+     *
+     * @param timeline A linha do tempo aberta (fechada ao sair da janela).
+     */
+    public void startReplay(TimelinePlayer timeline) {
+        if (player != null) {
+            return;  // Já está em modo de revisão
+        }
+        player = timeline;
+        int last = Math.max(0, player.getFrameCount() - 1);
+        
+        replaySlider = new JSlider(0, last, last);
+        replaySlider.addChangeListener(e -> showFrame(replaySlider.getValue()));
+        
+        JButton first = new JButton("|<");
+        JButton back = new JButton("<");
+        JButton play = new JButton("Reproduzir");
+        JButton forward = new JButton(">");
+        JButton end = new JButton(">|");
+        first.addActionListener(e -> replaySlider.setValue(0));
+        back.addActionListener(e -> replaySlider.setValue(replaySlider.getValue() - 1));
+        forward.addActionListener(e -> replaySlider.setValue(replaySlider.getValue() + 1));
+        end.addActionListener(e -> replaySlider.setValue(replaySlider.getMaximum()));
+        
+        // Reprodução automática: avança um quadro a cada 100 ms até o fim
+        replayTimer = new javax.swing.Timer(100, e -> {
+            if (replaySlider.getValue() >= replaySlider.getMaximum()) {
+                replayTimer.stop();
+                play.setText("Reproduzir");
+            } else {
+                replaySlider.setValue(replaySlider.getValue() + 1);
+            }
+        });
+        play.addActionListener(e -> {
+            if (replayTimer.isRunning()) {
+                replayTimer.stop();
+                play.setText("Reproduzir");
+            } else {
+                if (replaySlider.getValue() >= replaySlider.getMaximum()) {
+                    replaySlider.setValue(0);  // Recomeça do início
+                }
+                replayTimer.start();
+                play.setText("Pausar");
+            }
+        });
+        
+        JPanel buttons = new JPanel(new FlowLayout());
+        buttons.add(first);
+        buttons.add(back);
+        buttons.add(play);
+        buttons.add(forward);
+        buttons.add(end);
+        JPanel replayPanel = new JPanel(new BorderLayout());
+        replayPanel.setBorder(BorderFactory.createTitledBorder("Revisão"));
+        replayPanel.add(replaySlider, BorderLayout.CENTER);
+        replayPanel.add(buttons, BorderLayout.SOUTH);
+        bottomPanel.add(replayPanel, BorderLayout.SOUTH);
+        
+        // Fecha o arquivo junto com a janela
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                try {
+                    player.close();
+                } catch (IOException ex) {
+                    System.err.println("Erro ao fechar linha do tempo: " + ex.getMessage());
+                }
+            }
+        });
+        
+        pack();
+        showFrame(last);
+    }
+
+    /**
+     * Mostra um quadro da linha do tempo em revisão.
+     *
+     * @param frame O número do quadro.
+     */
+    private void showFrame(int frame) {
+        byte[] codes;
+        try {
+            codes = player.seek(frame);
+        } catch (IOException e) {
+            System.err.println("Erro ao ler quadro " + frame + ": " + e.getMessage());
+            return;
+        }
+        int depth = player.getDepth();
+        int width = player.getWidth();
+        
+        stepLabel.setText(STEP_PREFIX + player.getStep(frame));
+        seasonLabel.setText(SEASON_PREFIX + player.getSeason(frame).toString());
+        hunterLabel.setText(HUNTER_PREFIX + player.getHunterKills(frame) + " caças");
+        
+        // Cor de cada código de célula (espécie pelo nome da classe)
+        int speciesCount = SpeciesRegistry.getSpeciesCount();
+        Color[] speciesColors = new Color[speciesCount];
+        for (int id = 0; id < speciesCount; id++) {
+            speciesColors[id] = UNKNOWN_COLOR;
+            for (Class<?> animalClass : colors.keySet()) {
+                if (animalClass.getName().equals(SpeciesRegistry.getName(id))) {
+                    speciesColors[id] = colors.get(animalClass);
+                }
+            }
+        }
+        
+        fieldView.preparePaint();
+        int[] counts = new int[speciesCount];
+        int hunterCount = 0;
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                int code = codes[row * width + col] & 0xFF;
+                if (code == TimelineRecorder.EMPTY) {
+                    fieldView.drawMark(col, row, player.getTerrainAt(row, col).getColor());
+                } else if (code == (TimelineRecorder.HUNTER & 0xFF)) {
+                    fieldView.drawMark(col, row, getColor(Hunter.class));
+                    hunterCount++;
+                } else if (code - 1 < speciesCount) {
+                    fieldView.drawMark(col, row, speciesColors[code - 1]);
+                    counts[code - 1]++;
+                }
+            }
+        }
+        
+        // População no mesmo formato do modo ao vivo
+        StringBuilder details = new StringBuilder();
+        for (int id = 0; id < speciesCount; id++) {
+            if (counts[id] > 0) {
+                details.append(SpeciesRegistry.getName(id)).append(": ").append(counts[id]).append(' ');
+            }
+        }
+        if (hunterCount > 0) {
+            details.append("Caçadores: ").append(hunterCount).append(' ');
+        }
+        population.setText(POPULATION_PREFIX + details);
+        fieldView.repaint();
+    }
+
     /**
      * Fornece uma visão gráfica de um campo retangular.
      * Classe interna responsável pelo desenho do campo.
@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Índice espacial de grade uniforme para os animais vivos.
+ * O campo é dividido em baldes quadrados de tamanho fixo e cada balde
+ * guarda a lista dos animais que estão nele. O índice é atualizado de
+ * forma incremental (nascimento, movimento entre baldes e morte), de modo
+ * que a busca do animal mais próximo só visita os baldes ao redor da origem.
+ * 
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class SpatialIndex {
+    
+    // Lado de cada balde, em células
+    private static final int BUCKET_SIZE = 8;
+    
+    // Número de linhas e colunas de baldes
+    private final int bucketRows, bucketCols;
+    
+    // Animais de cada balde (linha de balde * bucketCols + coluna de balde)
+    private final List<List<Animal>> buckets;
+
+    /**
+     * Cria um índice vazio para um campo.
+     *
+     * @param depth A profundidade do campo.
+     * @param width A largura do campo.
+     */
+    public SpatialIndex(int depth, int width) {
+        bucketRows = (depth + BUCKET_SIZE - 1) / BUCKET_SIZE;
+        bucketCols = (width + BUCKET_SIZE - 1) / BUCKET_SIZE;
+        buckets = new ArrayList<>(bucketRows * bucketCols);
+        for (int i = 0; i < bucketRows * bucketCols; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Remove todos os animais do índice.
+     */
+    public void clear() {
+        for (List<Animal> bucket : buckets) {
+            bucket.clear();
+        }
+    }
+
+    /**
+     * Atualiza o índice quando um animal muda de localização.
+     * Um 'from' null significa que o animal acabou de entrar no campo e um
+     * 'to' null que ele saiu (morreu). Movimentos dentro do mesmo balde não
+     * custam nada.
+     *
+     * @param animal O animal.
+     * @param from A localização anterior, ou null.
+     * @param to A nova localização, ou null.
+     */
+    public void move(Animal animal, Location from, Location to) {
+        int oldBucket = (from != null) ? bucketOf(from.getRow(), from.getCol()) : -1;
+        int newBucket = (to != null) ? bucketOf(to.getRow(), to.getCol()) : -1;
+        if (oldBucket == newBucket) {
+            return;
+        }
+        if (oldBucket >= 0) {
+            // Remoção por troca com o último elemento (ordem do balde não importa)
+            List<Animal> bucket = buckets.get(oldBucket);
+            int index = bucket.indexOf(animal);
+            if (index >= 0) {
+                int last = bucket.size() - 1;
+                bucket.set(index, bucket.get(last));
+                bucket.remove(last);
+            }
+        }
+        if (newBucket >= 0) {
+            buckets.get(newBucket).add(animal);
+        }
+    }
+
+    /**
+     * Encontra o animal vivo mais próximo (em passos, vizinhança de 8 células)
+     * dentro do raio dado. Os baldes são visitados em anéis crescentes e a
+     * busca para assim que nenhum anel restante pode conter algo mais perto.
+     *
+     * @param origin A localização de origem.
+     * @param radius O raio máximo de busca, em células.
+     * @return O animal mais próximo, ou null se não houver nenhum no raio.
+     */
+    public Animal findNearest(Location origin, int radius) {
+        int row = origin.getRow();
+        int col = origin.getCol();
+        int centerRow = row / BUCKET_SIZE;
+        int centerCol = col / BUCKET_SIZE;
+        int maxRing = radius / BUCKET_SIZE + 1;
+        
+        Animal best = null;
+        int bestDistance = radius + 1;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Animais de um anel estão a pelo menos (ring - 1) * BUCKET_SIZE + 1 passos
+            if (ring > 0 && (ring - 1) * BUCKET_SIZE + 1 >= bestDistance) {
+                break;
+            }
+            for (int bucketRow = centerRow - ring; bucketRow <= centerRow + ring; bucketRow++) {
+                if (bucketRow < 0 || bucketRow >= bucketRows) {
+                    continue;
+                }
+                // Nas linhas internas do anel só as colunas das bordas pertencem a ele
+                boolean edgeRow = bucketRow == centerRow - ring || bucketRow == centerRow + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int bucketCol = centerCol - ring; bucketCol <= centerCol + ring; bucketCol += step) {
+                    if (bucketCol < 0 || bucketCol >= bucketCols) {
+                        continue;
+                    }
+                    for (Animal animal : buckets.get(bucketRow * bucketCols + bucketCol)) {
+                        Location where = animal.getLocation();
+                        int distance = Math.max(Math.abs(where.getRow() - row),
+                                                Math.abs(where.getCol() - col));
+                        if (distance < bestDistance && animal.isAlive()) {
+                            best = animal;
+                            bestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return O índice do balde que contém a célula.
+     */
+    private int bucketOf(int row, int col) {
+        return (row / BUCKET_SIZE) * bucketCols + col / BUCKET_SIZE;
+    }
+}
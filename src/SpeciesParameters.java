@@ -0,0 +1,222 @@
+/**
+ * Cópia independente dos parâmetros das espécies da SpeciesRegistry.
+ *
+ * A SpeciesRegistry é global e vale para toda a aplicação; esta cópia
+ * pode ser alterada sem afetar outras simulações, o que permite executar
+ * ao mesmo tempo, na mesma JVM, várias instâncias do motor em reticulado
+ * com parâmetros diferentes (ver SweepRunner). O motor por passos só lê
+ * a registry; para ele, a cópia alterada é instalada nela (ver
+ * SpeciesRegistry.install) em um processo à parte. Os identificadores
+ * das espécies são os mesmos da registry.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class SpeciesParameters {
+
+    // Parâmetros indexados pelo identificador da espécie
+    private final int[] breedingAge;
+    private final int[] maxAge;
+    private final double[] breedingProbability;
+    private final int[] maxLitterSize;
+    private final int[] foodValue;
+    private final int[] maxFoodValue;
+    private final double[] creationProbability;
+    private final int[] dietMask;
+
+    /**
+     * Cria uma tabela zerada para o número de espécies dado.
+     */
+    private SpeciesParameters(int count) {
+        breedingAge = new int[count];
+        maxAge = new int[count];
+        breedingProbability = new double[count];
+        maxLitterSize = new int[count];
+        foodValue = new int[count];
+        maxFoodValue = new int[count];
+        creationProbability = new double[count];
+        dietMask = new int[count];
+    }
+
+    /**
+     * @return Uma cópia dos parâmetros atuais da SpeciesRegistry.
+     */
+    public static SpeciesParameters fromRegistry() {
+        int count = SpeciesRegistry.getSpeciesCount();
+        SpeciesParameters parameters = new SpeciesParameters(count);
+        for (int id = 0; id < count; id++) {
+            parameters.breedingAge[id] = SpeciesRegistry.getBreedingAge(id);
+            parameters.maxAge[id] = SpeciesRegistry.getMaxAge(id);
+            parameters.breedingProbability[id] = SpeciesRegistry.getBreedingProbability(id);
+            parameters.maxLitterSize[id] = SpeciesRegistry.getMaxLitterSize(id);
+            parameters.foodValue[id] = SpeciesRegistry.getFoodValue(id);
+            parameters.maxFoodValue[id] = SpeciesRegistry.getMaxFoodValue(id);
+            parameters.creationProbability[id] = SpeciesRegistry.getCreationProbability(id);
+            parameters.dietMask[id] = SpeciesRegistry.getDietMask(id);
+        }
+        return parameters;
+    }
+
+    /**
+     * @return Uma cópia independente desta tabela.
+     */
+    public SpeciesParameters copy() {
+        int count = getSpeciesCount();
+        SpeciesParameters parameters = new SpeciesParameters(count);
+        System.arraycopy(breedingAge, 0, parameters.breedingAge, 0, count);
+        System.arraycopy(maxAge, 0, parameters.maxAge, 0, count);
+        System.arraycopy(breedingProbability, 0, parameters.breedingProbability, 0, count);
+        System.arraycopy(maxLitterSize, 0, parameters.maxLitterSize, 0, count);
+        System.arraycopy(foodValue, 0, parameters.foodValue, 0, count);
+        System.arraycopy(maxFoodValue, 0, parameters.maxFoodValue, 0, count);
+        System.arraycopy(creationProbability, 0, parameters.creationProbability, 0, count);
+        System.arraycopy(dietMask, 0, parameters.dietMask, 0, count);
+        return parameters;
+    }
+
+    /**
+     * Altera um parâmetro pelo nome, na forma usada pelas varreduras:
+     * "Espécie.parâmetro" (ex. "Fox.breedingProbability"). Os parâmetros
+     * aceitos são breedingProbability, maxLitterSize, maxFoodValue e
+     * creationProbability; os inteiros são arredondados.
+     *
+     * @param key A espécie e o parâmetro.
+     * @param value O novo valor.
+     * @throws IllegalArgumentException Se a espécie ou o parâmetro não existir,
+     *         ou se o valor não servir para o parâmetro (ver check).
+     */
+    public void set(String key, double value) {
+        int id = speciesOf(key);
+        String parameter = check(key, value);
+        switch (parameter) {
+            case "breedingProbability":
+                breedingProbability[id] = value;
+                break;
+            case "maxLitterSize":
+                maxLitterSize[id] = (int) Math.round(value);
+                break;
+            case "maxFoodValue":
+                maxFoodValue[id] = (int) Math.round(value);
+                break;
+            default:
+                creationProbability[id] = value;
+                break;
+        }
+    }
+
+    /**
+     * Verifica, sem alterar nada, se um valor serve para um parâmetro: as
+     * probabilidades ficam em [0, 1] e os inteiros, depois de arredondados,
+     * devem ser positivos (os motores sorteiam de 0 até eles, exclusive) e
+     * caber em um short (o reticulado guarda a comida assim).
+     *
+     * @param key A espécie e o parâmetro, como em set.
+     * @param value O valor a verificar.
+     * @return O nome do parâmetro (sem a espécie).
+     * @throws IllegalArgumentException Se o parâmetro não existir ou o valor não servir.
+     */
+    public static String check(String key, double value) {
+        speciesOf(key);
+        String parameter = key.substring(key.indexOf('.') + 1);
+        switch (parameter) {
+            case "breedingProbability":
+            case "creationProbability":
+                if (!(value >= 0 && value <= 1)) {
+                    throw new IllegalArgumentException("Probabilidade fora de [0, 1] em " + key + ": " + value);
+                }
+                return parameter;
+            case "maxLitterSize":
+            case "maxFoodValue":
+                long rounded = Math.round(value);
+                if (Double.isNaN(value) || rounded < 1 || rounded > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Valor inteiro fora de [1, " + Short.MAX_VALUE + "] em "
+                                                       + key + ": " + value);
+                }
+                return parameter;
+            default:
+                throw new IllegalArgumentException("Parâmetro desconhecido: " + parameter);
+        }
+    }
+
+    /**
+     * @return O identificador da espécie de uma chave "Espécie.parâmetro".
+     */
+    private static int speciesOf(String key) {
+        int dot = key.indexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Parâmetro sem espécie: " + key);
+        }
+        return SpeciesRegistry.idOf(key.substring(0, dot));
+    }
+
+    /**
+     * @return O número de espécies.
+     */
+    public int getSpeciesCount() {
+        return breedingAge.length;
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A idade em que a espécie pode começar a procriar.
+     */
+    public int getBreedingAge(int id) {
+        return breedingAge[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A idade máxima da espécie.
+     */
+    public int getMaxAge(int id) {
+        return maxAge[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A probabilidade de procriação da espécie.
+     */
+    public double getBreedingProbability(int id) {
+        return breedingProbability[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return O tamanho máximo da ninhada.
+     */
+    public int getMaxLitterSize(int id) {
+        return maxLitterSize[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return O valor nutricional da espécie como presa.
+     */
+    public int getFoodValue(int id) {
+        return foodValue[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return O nível máximo de comida da espécie.
+     */
+    public int getMaxFoodValue(int id) {
+        return maxFoodValue[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A probabilidade de criação da espécie no povoamento inicial.
+     */
+    public double getCreationProbability(int id) {
+        return creationProbability[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A máscara de bits das presas da espécie (bit 1 << id da presa).
+     */
+    public int getDietMask(int id) {
+        return dietMask[id];
+    }
+}
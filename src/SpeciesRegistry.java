@@ -0,0 +1,272 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tabela de parâmetros das espécies, carregada de um arquivo de configuração.
+ * Cada espécie recebe um identificador inteiro pequeno e seus parâmetros
+ * ficam em vetores simples indexados por esse identificador, de modo que
+ * os laços quentes (procriação, fome, caça) leem posições de vetor em vez
+ * de chamar métodos virtuais das subclasses.
+ * 
+ * O arquivo padrão é "Especies/padrao.txt"; outro conjunto de parâmetros
+ * pode ser escolhido pela propriedade de sistema "simulador.especies" ou
+ * recarregado em tempo de execução com {@link #load(String)}.
+ * 
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class SpeciesRegistry {
+    
+    // Arquivo de parâmetros usado quando nenhum outro é indicado
+    public static final String DEFAULT_FILE = "Especies/padrao.txt";
+    
+    // Parâmetros embutidos, usados se o arquivo não puder ser lido (mesmo formato do arquivo)
+    private static final String[] BUILT_IN = {
+        "Rabbit   5  25  0.6    23  10  8   0.12   -",
+        "Fox      10 90  0.023  9   12  12  0.04   Rabbit",
+        "Buffalo  15 120 0.08   2   20  20  0.008  -",
+        "Lion     20 100 0.01   5   16  25  0.010  Rabbit,Buffalo,Fox"
+    };
+    
+    // Nomes das espécies, na ordem dos identificadores
+    private static final List<String> names = new ArrayList<>();
+    
+    // Vetores de parâmetros indexados pelo identificador da espécie
+    private static int[] breedingAge = new int[0];
+    private static int[] maxAge = new int[0];
+    private static double[] breedingProbability = new double[0];
+    private static int[] maxLitterSize = new int[0];
+    private static int[] foodValue = new int[0];
+    private static int[] maxFoodValue = new int[0];
+    private static double[] creationProbability = new double[0];
+    private static int[] dietMask = new int[0];
+
+    static {
+        load(System.getProperty("simulador.especies", DEFAULT_FILE));
+    }
+
+    /**
+     * Construtor privado - classe utilitária com estado estático.
+     */
+    private SpeciesRegistry() {
+    }
+
+    /**
+     * Carrega (ou recarrega) os parâmetros das espécies de um arquivo.
+     * Espécies já conhecidas mantêm seu identificador; novas espécies
+     * recebem o próximo identificador livre. Em caso de erro, os parâmetros
+     * embutidos são usados.
+     *
+     * @param filename O arquivo de parâmetros.
+     */
+    public static synchronized void load(String filename) {
+        List<String> lines = new ArrayList<>();
+        // Usar try-with-resources para garantir fechamento do arquivo
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            parse(lines);
+        } catch (IOException e) {
+            // Erro de leitura do arquivo - usar parâmetros embutidos
+            System.err.println("Erro ao carregar espécies: " + e.getMessage());
+            parse(Arrays.asList(BUILT_IN));
+        } catch (IllegalArgumentException e) {
+            // Erro no formato do arquivo - usar parâmetros embutidos
+            System.err.println("Erro no formato das espécies: " + e.getMessage());
+            parse(Arrays.asList(BUILT_IN));
+        }
+    }
+
+    /**
+     * Interpreta as linhas do arquivo e preenche os vetores de parâmetros.
+     * As dietas são resolvidas depois que todos os nomes são conhecidos.
+     */
+    private static void parse(List<String> lines) {
+        List<String[]> records = new ArrayList<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;  // Ignora linhas vazias e comentários
+            }
+            String[] columns = line.split("\\s+");
+            if (columns.length != 9) {
+                throw new IllegalArgumentException("Esperadas 9 colunas, encontradas "
+                        + columns.length + ": " + line);
+            }
+            records.add(columns);
+            if (!names.contains(columns[0])) {
+                names.add(columns[0]);  // Nova espécie recebe o próximo identificador
+            }
+        }
+        
+        // Garante que os vetores comportam todas as espécies conhecidas
+        int count = names.size();
+        breedingAge = Arrays.copyOf(breedingAge, count);
+        maxAge = Arrays.copyOf(maxAge, count);
+        breedingProbability = Arrays.copyOf(breedingProbability, count);
+        maxLitterSize = Arrays.copyOf(maxLitterSize, count);
+        foodValue = Arrays.copyOf(foodValue, count);
+        maxFoodValue = Arrays.copyOf(maxFoodValue, count);
+        creationProbability = Arrays.copyOf(creationProbability, count);
+        dietMask = Arrays.copyOf(dietMask, count);
+        
+        for (String[] columns : records) {
+            int id = names.indexOf(columns[0]);
+            try {
+                breedingAge[id] = Integer.parseInt(columns[1]);
+                maxAge[id] = Integer.parseInt(columns[2]);
+                breedingProbability[id] = Double.parseDouble(columns[3]);
+                maxLitterSize[id] = Integer.parseInt(columns[4]);
+                foodValue[id] = Integer.parseInt(columns[5]);
+                maxFoodValue[id] = Integer.parseInt(columns[6]);
+                creationProbability[id] = Double.parseDouble(columns[7]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valor inválido para " + columns[0] + ": " + e.getMessage());
+            }
+            dietMask[id] = parseDiet(columns[8]);
+        }
+    }
+
+    /**
+     * Converte uma lista de nomes de presas em uma máscara de bits.
+     */
+    private static int parseDiet(String diet) {
+        int mask = 0;
+        if (!diet.equals("-")) {
+            for (String prey : diet.split(",")) {
+                int id = names.indexOf(prey);
+                if (id < 0) {
+                    throw new IllegalArgumentException("Presa desconhecida na dieta: " + prey);
+                }
+                mask |= 1 << id;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Substitui os parâmetros de todas as espécies pelos de uma tabela
+     * (ex. uma cópia alterada por uma varredura). Só serve para um
+     * processo com uma simulação por vez, como o EnsembleWorker: os
+     * animais leem a tabela global a cada uso.
+     *
+     * @param parameters Os novos parâmetros, com as mesmas espécies.
+     * @throws IllegalArgumentException Se o número de espécies for diferente.
+     */
+    public static synchronized void install(SpeciesParameters parameters) {
+        if (parameters.getSpeciesCount() != names.size()) {
+            throw new IllegalArgumentException("Esperadas " + names.size() + " espécies, recebidas "
+                                               + parameters.getSpeciesCount());
+        }
+        for (int id = 0; id < names.size(); id++) {
+            breedingAge[id] = parameters.getBreedingAge(id);
+            maxAge[id] = parameters.getMaxAge(id);
+            breedingProbability[id] = parameters.getBreedingProbability(id);
+            maxLitterSize[id] = parameters.getMaxLitterSize(id);
+            foodValue[id] = parameters.getFoodValue(id);
+            maxFoodValue[id] = parameters.getMaxFoodValue(id);
+            creationProbability[id] = parameters.getCreationProbability(id);
+            dietMask[id] = parameters.getDietMask(id);
+        }
+    }
+
+    /**
+     * Retorna o identificador de uma espécie pelo nome.
+     *
+     * @param name O nome da espécie (ex. "Rabbit").
+     * @return O identificador compacto da espécie.
+     * @throws IllegalArgumentException se a espécie não estiver na tabela.
+     */
+    public static int idOf(String name) {
+        int id = names.indexOf(name);
+        if (id < 0) {
+            throw new IllegalArgumentException("Espécie não cadastrada: " + name);
+        }
+        return id;
+    }
+
+    /**
+     * @return O número de espécies cadastradas.
+     */
+    public static int getSpeciesCount() {
+        return names.size();
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return O nome da espécie.
+     */
+    public static String getName(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A idade em que a espécie pode começar a procriar.
+     */
+    public static int getBreedingAge(int id) {
+        return breedingAge[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A idade máxima da espécie.
+     */
+    public static int getMaxAge(int id) {
+        return maxAge[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A probabilidade de procriação em cada passo (0.0 a 1.0).
+     */
+    public static double getBreedingProbability(int id) {
+        return breedingProbability[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return O número máximo de filhotes por procriação.
+     */
+    public static int getMaxLitterSize(int id) {
+        return maxLitterSize[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return O valor nutricional quando comido por predadores.
+     */
+    public static int getFoodValue(int id) {
+        return foodValue[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A capacidade máxima do estômago.
+     */
+    public static int getMaxFoodValue(int id) {
+        return maxFoodValue[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A probabilidade de criação durante a população inicial.
+     */
+    public static double getCreationProbability(int id) {
+        return creationProbability[id];
+    }
+
+    /**
+     * @param id O identificador da espécie.
+     * @return A máscara de dieta (bit 1 << id de cada presa).
+     */
+    public static int getDietMask(int id) {
+        return dietMask[id];
+    }
+}
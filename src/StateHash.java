@@ -0,0 +1,72 @@
+/**
+ * Hash do estado do mundo no estilo de Zobrist: cada célula ocupada
+ * contribui com um valor de 64 bits que depende só da posição e do
+ * estado do ator, e o hash do campo é o XOR de todas as contribuições.
+ * Colocar, retirar ou alterar um ator custa um XOR para sair e outro
+ * para entrar, então o Field mantém o hash atualizado em O(1).
+ *
+ * Em vez de uma tabela de chaves aleatórias por (célula, código), as
+ * chaves vêm de um hash (finalizador do SplitMix64), o que dispensa
+ * memória proporcional ao mapa. O estado de um animal entra pelos seus
+ * marcos de tempo (nascimento e passo em que passaria fome), que não
+ * mudam com o passar dos passos; idade e comida derivadas deles, não.
+ * Atores mortos não contribuem, como células vazias.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class StateHash {
+
+    // Constantes de espalhamento (razão áurea e primos grandes de 64 bits)
+    private static final long CELL_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long CODE_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+    private static final long STATE_MULTIPLIER = 0x165667B19E3779F9L;
+
+    /**
+     * Construtor privado - classe utilitária.
+     */
+    private StateHash() {
+    }
+
+    /**
+     * Calcula a contribuição de um ator em uma célula.
+     *
+     * @param cell O índice da célula (linha * largura + coluna).
+     * @param actor O ator (pode ser null).
+     * @return A contribuição da célula ao hash (0 se vazia ou com ator morto).
+     */
+    public static long of(int cell, Actor actor) {
+        if (actor == null || !actor.isAlive()) {
+            return 0L;
+        }
+        long code = TimelineRecorder.codeOf(actor) & 0xFF;
+        long state = actor instanceof Animal ? ((Animal) actor).getStateKey() : 0L;
+        return mix(cell * CELL_MULTIPLIER + code * CODE_MULTIPLIER + mix(state) * STATE_MULTIPLIER);
+    }
+
+    /**
+     * Recalcula do zero o hash de um campo (para conferir o incremental).
+     *
+     * @param field O campo.
+     * @return O XOR das contribuições de todas as células.
+     */
+    public static long compute(Field field) {
+        long hash = 0L;
+        int width = field.getWidth();
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < width; col++) {
+                hash ^= of(row * width + col, field.getObjectAt(row, col));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizador do SplitMix64: espalha os bits de forma uniforme.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.Arrays;
+
+/**
+ * Detecta, durante a execução, quando as populações entraram em regime:
+ * o mesmo comportamento a cada ciclo de estações. Serve para parar
+ * execuções em lote assim que o resto delas não traria informação nova.
+ *
+ * Para cada espécie são mantidas duas janelas deslizantes de W passos: a
+ * dos últimos W passos e a que terminou exatamente um ciclo de estações
+ * antes (mesma fase do ciclo do WeatherSystem). Média e variância de cada
+ * janela são atualizadas em O(1) por passo pelo método de Welford com
+ * remoção do valor que sai da janela. O regime é declarado quando, para
+ * todas as espécies, médias e desvios das duas janelas diferem menos que
+ * a tolerância, relativa à média da janela anterior (no mínimo um
+ * animal, para espécies raras ou extintas).
+ *
+ * Como a comparação é entre ciclos, a primeira decisão só acontece depois
+ * de um ciclo completo mais uma janela de observações.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class SteadyStateMonitor {
+
+    // Valores padrão
+    public static final int DEFAULT_WINDOW = 50;          // Passos por janela
+    public static final double DEFAULT_TOLERANCE = 0.05;  // Diferença relativa aceita
+
+    private final int speciesCount;
+    private final int window;
+    private final int period;
+    private final double tolerance;
+
+    // Histórico das populações: ciclo + janela passos por espécie (anel)
+    private final double[][] history;
+
+    // Média e soma dos quadrados dos desvios (Welford) das duas janelas
+    private final double[] currentMean, currentM2;
+    private final double[] laggedMean, laggedM2;
+
+    private int observations;
+    private boolean steady;
+
+    /**
+     * Cria um monitor que compara ciclos completos de estações.
+     *
+     * @param speciesCount Número de espécies observadas.
+     * @param window Passos de cada janela.
+     * @param tolerance Diferença relativa aceita entre as janelas.
+     */
+    public SteadyStateMonitor(int speciesCount, int window, double tolerance) {
+        this(speciesCount, window, Season.values().length * WeatherSystem.getSeasonDuration(), tolerance);
+    }
+
+    /**
+     * Cria um monitor com um período de comparação qualquer.
+     *
+     * @param speciesCount Número de espécies observadas.
+     * @param window Passos de cada janela.
+     * @param period Distância, em passos, entre as janelas comparadas.
+     * @param tolerance Diferença relativa aceita entre as janelas.
+     */
+    public SteadyStateMonitor(int speciesCount, int window, int period, double tolerance) {
+        if (window <= 0 || period <= 0 || tolerance < 0) {
+            throw new IllegalArgumentException("Parâmetros do monitor inválidos");
+        }
+        this.speciesCount = speciesCount;
+        this.window = window;
+        this.period = period;
+        this.tolerance = tolerance;
+        history = new double[speciesCount][period + window];
+        currentMean = new double[speciesCount];
+        currentM2 = new double[speciesCount];
+        laggedMean = new double[speciesCount];
+        laggedM2 = new double[speciesCount];
+    }
+
+    /**
+     * Esquece todas as observações (por exemplo, ao reiniciar a simulação).
+     */
+    public void reset() {
+        observations = 0;
+        steady = false;
+        Arrays.fill(currentMean, 0);
+        Arrays.fill(currentM2, 0);
+        Arrays.fill(laggedMean, 0);
+        Arrays.fill(laggedM2, 0);
+    }
+
+    /**
+     * Registra as populações de um passo.
+     *
+     * @param populations A população de cada espécie, pelo identificador.
+     * @return true se as populações estão em regime.
+     */
+    public boolean observe(long[] populations) {
+        int length = period + window;
+        int t = observations;
+        int slot = t % length;
+        for (int s = 0; s < speciesCount; s++) {
+            double[] values = history[s];
+            double value = populations[s];
+
+            // Janela atual: entra o valor novo, sai o de W passos atrás
+            if (t < window) {
+                add(currentMean, currentM2, s, value, t + 1);
+            } else {
+                replace(currentMean, currentM2, s, values[(t - window) % length], value);
+            }
+
+            // Janela de um ciclo atrás: entra o valor de t - ciclo, sai o de t - ciclo - W
+            if (t >= period) {
+                double entering = values[(t - period) % length];
+                if (t < length) {
+                    add(laggedMean, laggedM2, s, entering, t - period + 1);
+                } else {
+                    replace(laggedMean, laggedM2, s, values[slot], entering);  // Lido antes de sobrescrever
+                }
+            }
+            values[slot] = value;
+        }
+        observations++;
+        steady = observations >= length && withinTolerance();
+        return steady;
+    }
+
+    /**
+     * Acrescenta um valor a uma janela que ainda não está cheia.
+     */
+    private static void add(double[] mean, double[] m2, int s, double value, int count) {
+        double delta = value - mean[s];
+        mean[s] += delta / count;
+        m2[s] += delta * (value - mean[s]);
+    }
+
+    /**
+     * Troca o valor mais antigo de uma janela cheia pelo novo.
+     */
+    private void replace(double[] mean, double[] m2, int s, double leaving, double entering) {
+        double oldMean = mean[s];
+        mean[s] = oldMean + (entering - leaving) / window;
+        m2[s] += (entering - leaving) * (entering - mean[s] + leaving - oldMean);
+    }
+
+    /**
+     * @return true se as duas janelas de todas as espécies estão dentro da tolerância.
+     */
+    private boolean withinTolerance() {
+        for (int s = 0; s < speciesCount; s++) {
+            double scale = Math.max(laggedMean[s], 1.0);
+            if (Math.abs(currentMean[s] - laggedMean[s]) > tolerance * scale) {
+                return false;
+            }
+            double currentDeviation = Math.sqrt(Math.max(currentM2[s], 0) / window);
+            double laggedDeviation = Math.sqrt(Math.max(laggedM2[s], 0) / window);
+            if (Math.abs(currentDeviation - laggedDeviation) > tolerance * scale) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true se a última observação estava em regime.
+     */
+    public boolean isSteady() {
+        return steady;
+    }
+
+    /**
+     * @return O número de passos observados.
+     */
+    public int getObservations() {
+        return observations;
+    }
+
+    /**
+     * @param speciesId O identificador da espécie.
+     * @return A média da população na janela atual.
+     */
+    public double getMean(int speciesId) {
+        return currentMean[speciesId];
+    }
+
+    /**
+     * @param speciesId O identificador da espécie.
+     * @return A variância da população na janela atual.
+     */
+    public double getVariance(int speciesId) {
+        int count = Math.min(observations, window);
+        return count == 0 ? 0.0 : Math.max(currentM2[speciesId], 0) / count;
+    }
+}
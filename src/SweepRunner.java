@@ -0,0 +1,751 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Executa varreduras de parâmetros: muitas simulações com combinações
+ * diferentes de parâmetros das espécies, números de caçadores, mapas e
+ * sementes.
+ *
+ * Cada dimensão da varredura é um parâmetro "Espécie.parâmetro" (ver
+ * SpeciesParameters.set) com uma lista de valores; mapas e números de
+ * caçadores são listas à parte. O plano pode ser a grade completa (todas
+ * as combinações) ou um sorteio de pontos dentro dos limites de cada
+ * dimensão.
+ *
+ * Por padrão as execuções usam o motor por passos (Simulator), o modelo
+ * que se quer ajustar. Como ele guarda parâmetros e estado em campos
+ * estáticos, cada execução roda em um processo de trabalho do
+ * EnsembleRunner, que instala os parâmetros da configuração só para ela;
+ * os processos retiram as configurações de uma fila comum, então
+ * execuções longas e curtas se equilibram sozinhas, e uma configuração
+ * que estoura a memória derruba só o seu processo.
+ *
+ * O motor em reticulado (Engine.LATTICE) fica como triagem rápida
+ * opcional: ele roda na própria JVM, com os parâmetros de cada instância,
+ * em um ForkJoinPool cujas threads livres roubam metades da lista das
+ * ocupadas. Ele não tem caçadores, grama nem fome dos herbívoros, então
+ * uma região viável nele só indica onde vale a pena varrer com o motor
+ * por passos.
+ *
+ * Uma execução é abortada assim que a população se extingue (o critério
+ * de FieldStats.isViable: nenhum animal vivo) ou explode, já que o
+ * resultado dela está decidido. Só conta como explosão a ocupação acima
+ * do limite depois que todos os predadores se extinguiram: sem eles nada
+ * mais reduz a população (no reticulado, sem fome, o mapa cheio é até o
+ * estado normal).
+ * Cada resultado é acrescentado ao arquivo CSV assim que termina; ao
+ * rodar de novo com o mesmo arquivo, as configurações já gravadas são
+ * puladas, de modo que uma varredura interrompida continua de onde parou.
+ *
+ * Opcionalmente, uma execução também para quando as populações entram
+ * em regime (ver SteadyStateMonitor), já que o resto dela repetiria o
+ * mesmo ciclo de estações.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class SweepRunner {
+
+    /**
+     * O motor que executa as configurações.
+     */
+    public enum Engine {
+        AGENTS,   // Motor por passos, em processos de trabalho
+        LATTICE   // Motor em reticulado, na própria JVM (triagem rápida, sem caçadores)
+    }
+
+    /**
+     * Como terminou uma execução.
+     */
+    public enum Outcome {
+        COMPLETED,  // Chegou ao número máximo de passos
+        COLLAPSED,  // Todos os animais morreram
+        STEADY,     // As populações entraram em regime
+        EXPLODED,   // Mapa cheio e sem predadores
+        FAILED,     // A configuração derrubou o motor ou o processo (ver o erro no console)
+        TIMED_OUT   // O processo passou do tempo limite (ver setRunTimeout)
+    }
+
+    /**
+     * Um ponto do plano: mapa, caçadores, semente e valor de cada dimensão.
+     */
+    public static final class Configuration {
+        private final String map;
+        private final int hunters;
+        private final long seed;
+        private final double[] values;
+
+        Configuration(String map, int hunters, long seed, double[] values) {
+            this.map = map;
+            this.hunters = hunters;
+            this.seed = seed;
+            this.values = values;
+        }
+
+        /**
+         * @return O mapa da execução.
+         */
+        public String getMap() {
+            return map;
+        }
+
+        /**
+         * @return O número de caçadores da execução.
+         */
+        public int getHunters() {
+            return hunters;
+        }
+
+        /**
+         * @return A semente da execução.
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @param dimension O índice da dimensão.
+         * @return O valor da dimensão nesta configuração.
+         */
+        public double getValue(int dimension) {
+            return values[dimension];
+        }
+
+        /**
+         * @return Identificação da configuração no arquivo (mapa, caçadores, semente e valores).
+         */
+        String signature() {
+            StringBuilder text = new StringBuilder();
+            text.append(map).append(',').append(hunters).append(',').append(seed);
+            for (double value : values) {
+                text.append(',').append(value);
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * O resultado de uma execução.
+     */
+    public static final class Result {
+        private final Configuration configuration;
+        private final Outcome outcome;
+        private final int steps;
+        private final long[] populations;
+
+        Result(Configuration configuration, Outcome outcome, int steps, long[] populations) {
+            this.configuration = configuration;
+            this.outcome = outcome;
+            this.steps = steps;
+            this.populations = populations;
+        }
+
+        /**
+         * @return A configuração executada.
+         */
+        public Configuration getConfiguration() {
+            return configuration;
+        }
+
+        /**
+         * @return Como a execução terminou.
+         */
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @return O número de passos executados.
+         */
+        public int getSteps() {
+            return steps;
+        }
+
+        /**
+         * @param speciesId O identificador da espécie.
+         * @return A população final da espécie.
+         */
+        public long getPopulation(int speciesId) {
+            return populations[speciesId];
+        }
+    }
+
+    // Valores padrão
+    private static final int DEFAULT_SIZE = 50;                   // Profundidade e largura do campo
+    private static final int DEFAULT_MAX_STEPS = 500;             // Passos por execução
+    private static final double DEFAULT_EXPLOSION_OCCUPANCY = 0.95; // Fração de células ocupadas
+
+    private final String resultsFile;
+    private final List<String> keys;
+    private final List<double[]> dimensionValues;
+    private final List<String> maps;
+    private final List<Integer> hunterCounts;
+    private Engine engine;
+    private int heapMegabytes;          // 0 = padrão do EnsembleRunner
+    private double timeoutSeconds;      // 0 = sem limite
+    private int replicates;
+    private long seed;
+    private int maxSteps;
+    private int depth, width;
+    private double explosionOccupancy;
+    private int parallelism;
+    private int steadyWindow;           // 0 = sem parada em regime
+    private double steadyTolerance;
+
+    // Estado de uma chamada a run()
+    private Map<String, TerrainType[][]> terrains;
+    private BufferedWriter writer;
+    private List<Result> results;
+
+    /**
+     * Cria uma varredura sem dimensões, no mapa só de grama, sem caçadores
+     * e no motor por passos.
+     *
+     * @param resultsFile O arquivo CSV de resultados (continuado se existir).
+     */
+    public SweepRunner(String resultsFile) {
+        this.resultsFile = resultsFile;
+        keys = new ArrayList<>();
+        dimensionValues = new ArrayList<>();
+        maps = new ArrayList<>();
+        maps.add("GRASS_ONLY");
+        hunterCounts = new ArrayList<>();
+        hunterCounts.add(0);
+        engine = Engine.AGENTS;
+        replicates = 1;
+        seed = 42;
+        maxSteps = DEFAULT_MAX_STEPS;
+        depth = DEFAULT_SIZE;
+        width = DEFAULT_SIZE;
+        explosionOccupancy = DEFAULT_EXPLOSION_OCCUPANCY;
+        parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Acrescenta uma dimensão à varredura.
+     *
+     * @param key O parâmetro, como "Fox.breedingProbability".
+     * @param values Os valores da grade (o sorteio usa o menor e o maior).
+     * @throws IllegalArgumentException Se o parâmetro não existir, não houver
+     *         valores ou algum valor não servir (ver SpeciesParameters.check).
+     */
+    public void addDimension(String key, double... values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("Dimensão sem valores: " + key);
+        }
+        // Verificar cada valor basta também para o sorteio: ele fica entre o
+        // menor e o maior, e o arredondamento dos inteiros preserva a ordem
+        for (double value : values) {
+            SpeciesParameters.check(key, value);
+        }
+        keys.add(key);
+        dimensionValues.add(values.clone());
+    }
+
+    /**
+     * @param mapFiles Os mapas da varredura ("GRASS_ONLY" ou arquivos em Mapas/).
+     */
+    public void setMaps(String... mapFiles) {
+        maps.clear();
+        Collections.addAll(maps, mapFiles);
+    }
+
+    /**
+     * @param counts Os números de caçadores da varredura (só 0 no reticulado).
+     * @throws IllegalArgumentException Se não houver valores ou algum for negativo.
+     */
+    public void setHunterCounts(int... counts) {
+        if (counts.length == 0) {
+            throw new IllegalArgumentException("Nenhum número de caçadores");
+        }
+        for (int count : counts) {
+            if (count < 0) {
+                throw new IllegalArgumentException("Número de caçadores inválido: " + count);
+            }
+        }
+        hunterCounts.clear();
+        for (int count : counts) {
+            hunterCounts.add(count);
+        }
+    }
+
+    /**
+     * @param sweepEngine O motor das execuções (padrão: AGENTS).
+     */
+    public void setEngine(Engine sweepEngine) {
+        engine = sweepEngine;
+    }
+
+    /**
+     * @param megabytes A memória máxima de cada processo de trabalho (só no motor por passos).
+     */
+    public void setHeapLimit(int megabytes) {
+        heapMegabytes = megabytes;
+    }
+
+    /**
+     * @param seconds O tempo máximo de uma execução (0 = sem limite; só no motor por passos).
+     */
+    public void setRunTimeout(double seconds) {
+        timeoutSeconds = seconds;
+    }
+
+    /**
+     * @param count Execuções (sementes diferentes) por ponto da grade.
+     */
+    public void setReplicates(int count) {
+        replicates = Math.max(1, count);
+    }
+
+    /**
+     * @param baseSeed Semente da primeira réplica; as seguintes somam 1.
+     */
+    public void setSeed(long baseSeed) {
+        seed = baseSeed;
+    }
+
+    /**
+     * @param steps Passos de uma execução que não é abortada.
+     */
+    public void setMaxSteps(int steps) {
+        maxSteps = steps;
+    }
+
+    /**
+     * @param fieldDepth Profundidade do campo.
+     * @param fieldWidth Largura do campo.
+     */
+    public void setFieldSize(int fieldDepth, int fieldWidth) {
+        depth = fieldDepth;
+        width = fieldWidth;
+    }
+
+    /**
+     * @param occupancy Fração das células transitáveis ocupadas a partir da
+     *                  qual, sem predadores vivos, a execução é abortada
+     *                  como explosão.
+     */
+    public void setExplosionOccupancy(double occupancy) {
+        explosionOccupancy = occupancy;
+    }
+
+    /**
+     * @param threads Número de threads do pool (reticulado) ou de
+     *                processos de trabalho (motor por passos).
+     */
+    public void setParallelism(int threads) {
+        parallelism = Math.max(1, threads);
+    }
+
+    /**
+     * Liga a parada das execuções que entram em regime.
+     *
+     * @param window Passos de cada janela comparada (0 desliga).
+     * @param tolerance Diferença relativa aceita entre os ciclos de estações.
+     */
+    public void setSteadyStateDetection(int window, double tolerance) {
+        steadyWindow = Math.max(0, window);
+        steadyTolerance = tolerance;
+    }
+
+    /**
+     * @return A grade completa: cada mapa, cada número de caçadores, cada
+     *         combinação de valores e cada réplica, em ordem fixa.
+     */
+    public List<Configuration> gridDesign() {
+        List<Configuration> design = new ArrayList<>();
+        int[] choice = new int[keys.size()];
+        for (String map : maps) {
+            for (int hunters : hunterCounts) {
+                boolean more = true;
+                while (more) {
+                    double[] values = new double[keys.size()];
+                    for (int d = 0; d < values.length; d++) {
+                        values[d] = dimensionValues.get(d)[choice[d]];
+                    }
+                    for (int r = 0; r < replicates; r++) {
+                        design.add(new Configuration(map, hunters, seed + r, values));
+                    }
+                    // Próxima combinação (contador com base variável)
+                    more = false;
+                    for (int d = choice.length - 1; d >= 0 && !more; d--) {
+                        choice[d]++;
+                        if (choice[d] < dimensionValues.get(d).length) {
+                            more = true;
+                        } else {
+                            choice[d] = 0;
+                        }
+                    }
+                }
+            }
+        }
+        return design;
+    }
+
+    /**
+     * Sorteia pontos uniformemente entre o menor e o maior valor de cada
+     * dimensão; o mapa e o número de caçadores são sorteados das suas
+     * listas. O mesmo designSeed gera sempre o mesmo plano, o que
+     * permite continuar uma varredura interrompida.
+     *
+     * @param count Número de pontos.
+     * @param designSeed Semente do sorteio.
+     * @return O plano sorteado, com as réplicas de cada ponto.
+     */
+    public List<Configuration> randomDesign(int count, long designSeed) {
+        Random rand = new Random(designSeed);
+        List<Configuration> design = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String map = maps.get(rand.nextInt(maps.size()));
+            int hunters = hunterCounts.get(rand.nextInt(hunterCounts.size()));
+            double[] values = new double[keys.size()];
+            for (int d = 0; d < values.length; d++) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (double value : dimensionValues.get(d)) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                values[d] = min + rand.nextDouble() * (max - min);
+            }
+            for (int r = 0; r < replicates; r++) {
+                design.add(new Configuration(map, hunters, seed + r, values));
+            }
+        }
+        return design;
+    }
+
+    /**
+     * Executa as configurações do plano que ainda não estão no arquivo de
+     * resultados, acrescentando cada resultado ao arquivo assim que sai.
+     *
+     * @param design O plano da varredura.
+     * @return Os resultados das execuções feitas nesta chamada.
+     * @throws IOException Se o arquivo de resultados não puder ser lido ou gravado.
+     */
+    public List<Result> run(List<Configuration> design) throws IOException {
+        String header = header();
+        Set<String> done = loadCompleted(header);
+        List<Configuration> pending = new ArrayList<>();
+        for (Configuration configuration : design) {
+            if (engine == Engine.LATTICE && configuration.hunters != 0) {
+                throw new IllegalArgumentException("O motor em reticulado não tem caçadores: " + configuration.hunters);
+            }
+            if (!done.contains(signatureOf(configuration))) {
+                pending.add(configuration);
+            }
+        }
+        System.out.println("Varredura: " + pending.size() + " de " + design.size()
+                           + " configurações a executar");
+
+        results = Collections.synchronizedList(new ArrayList<>());
+        File file = new File(resultsFile);
+        boolean fresh = !file.exists() || file.length() == 0;
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8, true));
+        try {
+            if (fresh) {
+                writer.write(header);
+                writer.newLine();
+                writer.flush();
+            } else if (!endsWithNewline(file)) {
+                writer.newLine();  // Encerra a linha cortada por uma interrupção
+                writer.flush();
+            }
+            if (pending.isEmpty()) {
+                // Nada a executar
+            } else if (engine == Engine.AGENTS) {
+                runAgents(pending);
+            } else {
+                runLattice(pending);
+            }
+        } finally {
+            writer.close();
+            writer = null;
+        }
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Executa as configurações no motor por passos, cada uma em um
+     * processo de trabalho do EnsembleRunner com os seus parâmetros.
+     */
+    private void runAgents(List<Configuration> pending) throws IOException {
+        EnsembleRunner runner = new EnsembleRunner();
+        runner.setWorkers(parallelism);
+        runner.setFieldSize(depth, width);
+        if (heapMegabytes > 0) {
+            runner.setHeapLimit(heapMegabytes);
+        }
+        runner.setRunTimeout(timeoutSeconds);
+        runner.setExplosionOccupancy(explosionOccupancy);
+        runner.setSteadyStateDetection(steadyWindow, steadyTolerance);
+
+        String[] parameterKeys = keys.toArray(new String[0]);
+        List<EnsembleRunner.RunSpec> specs = new ArrayList<>();
+        Map<EnsembleRunner.RunSpec, Configuration> configurations = new IdentityHashMap<>();
+        for (Configuration configuration : pending) {
+            EnsembleRunner.RunSpec spec = new EnsembleRunner.RunSpec(configuration.map, configuration.hunters,
+                configuration.seed, maxSteps, parameterKeys, configuration.values);
+            specs.add(spec);
+            configurations.put(spec, configuration);
+        }
+        int speciesCount = SpeciesRegistry.getSpeciesCount();
+        runner.run(specs, summary -> {
+            long[] populations = new long[speciesCount];
+            for (int id = 0; id < speciesCount; id++) {
+                populations[id] = summary.getPopulation(id);
+            }
+            record(new Result(configurations.get(summary.getSpec()), outcomeOf(summary.getOutcome()),
+                              summary.getSteps(), populations));
+        });
+    }
+
+    /**
+     * @return O desfecho da varredura correspondente ao de uma réplica do lote.
+     */
+    private static Outcome outcomeOf(EnsembleRunner.Outcome outcome) {
+        switch (outcome) {
+            case COMPLETED:
+                return Outcome.COMPLETED;
+            case COLLAPSED:
+                return Outcome.COLLAPSED;
+            case STEADY:
+                return Outcome.STEADY;
+            case EXPLODED:
+                return Outcome.EXPLODED;
+            case TIMED_OUT:
+                return Outcome.TIMED_OUT;
+            default:
+                return Outcome.FAILED;  // O processo morreu no meio da execução
+        }
+    }
+
+    /**
+     * Executa as configurações no motor em reticulado, nas threads de um
+     * ForkJoinPool desta JVM.
+     */
+    private void runLattice(List<Configuration> pending) {
+        // Terrenos carregados uma vez e compartilhados (só leitura)
+        terrains = new HashMap<>();
+        for (Configuration configuration : pending) {
+            if (!terrains.containsKey(configuration.map)) {
+                terrains.put(configuration.map, Simulator.loadTerrain(depth, width, configuration.map, false));
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new SweepTask(pending, 0, pending.size()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Divide uma faixa do plano ao meio até sobrar uma configuração; as
+     * metades pendentes podem ser roubadas por outras threads do pool.
+     */
+    private final class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Configuration> design;
+        private final int from, to;
+
+        SweepTask(List<Configuration> design, int from, int to) {
+            this.design = design;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                Configuration configuration = design.get(from);
+                Result result;
+                try {
+                    result = execute(configuration);
+                } catch (RuntimeException e) {
+                    // Um ponto ruim não pode abortar a varredura inteira
+                    System.err.println("Configuração " + configuration.signature() + " falhou: " + e);
+                    result = new Result(configuration, Outcome.FAILED, 0,
+                                        new long[SpeciesRegistry.getSpeciesCount()]);
+                }
+                record(result);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SweepTask(design, from, middle), new SweepTask(design, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Executa uma configuração no reticulado até o fim ou até a população
+     * se extinguir ou explodir.
+     */
+    private Result execute(Configuration configuration) {
+        SpeciesParameters parameters = SpeciesParameters.fromRegistry();
+        for (int d = 0; d < keys.size(); d++) {
+            parameters.set(keys.get(d), configuration.values[d]);
+        }
+        LatticeSimulator simulator = new LatticeSimulator(terrains.get(configuration.map),
+                                                          configuration.seed, parameters);
+        int speciesCount = parameters.getSpeciesCount();
+        long openCells = simulator.getFreeCells() + totalPopulation(simulator, speciesCount);
+        long explosionLimit = (long) Math.ceil(explosionOccupancy * openCells);
+
+        SteadyStateMonitor monitor = steadyWindow > 0
+            ? new SteadyStateMonitor(speciesCount, steadyWindow, steadyTolerance) : null;
+        long[] populations = new long[speciesCount];
+
+        Outcome outcome = Outcome.COMPLETED;
+        while (simulator.getStep() < maxSteps) {
+            simulator.simulateOneStep();
+            for (int id = 0; id < speciesCount; id++) {
+                populations[id] = simulator.getPopulation(id);
+            }
+            long total = totalPopulation(simulator, speciesCount);
+            if (total == 0) {
+                outcome = Outcome.COLLAPSED;
+                break;
+            }
+            if (total >= explosionLimit && predatorPopulation(simulator, parameters) == 0) {
+                outcome = Outcome.EXPLODED;
+                break;
+            }
+            if (monitor != null && monitor.observe(populations)) {
+                outcome = Outcome.STEADY;
+                break;
+            }
+        }
+        return new Result(configuration, outcome, simulator.getStep(), populations);
+    }
+
+    /**
+     * @return A soma das populações de todas as espécies.
+     */
+    private static long totalPopulation(LatticeSimulator simulator, int speciesCount) {
+        long total = 0;
+        for (int id = 0; id < speciesCount; id++) {
+            total += simulator.getPopulation(id);
+        }
+        return total;
+    }
+
+    /**
+     * @return A soma das populações das espécies que caçam outras.
+     */
+    private static long predatorPopulation(LatticeSimulator simulator, SpeciesParameters parameters) {
+        long total = 0;
+        for (int id = 0; id < parameters.getSpeciesCount(); id++) {
+            if (parameters.getDietMask(id) != 0) {
+                total += simulator.getPopulation(id);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Acrescenta um resultado ao arquivo (e o envia ao disco, para que uma
+     * interrupção perca no máximo as execuções em andamento).
+     */
+    private void record(Result result) {
+        StringBuilder line = new StringBuilder(signatureOf(result.configuration));
+        line.append(',').append(result.outcome).append(',').append(result.steps);
+        for (long population : result.populations) {
+            line.append(',').append(population);
+        }
+        synchronized (this) {
+            try {
+                writer.write(line.toString());
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar resultado: " + e.getMessage());
+            }
+        }
+        results.add(result);
+    }
+
+    /**
+     * @return Identificação de uma configuração no arquivo, precedida do
+     *         motor (triagem e motor por passos não se confundem).
+     */
+    private String signatureOf(Configuration configuration) {
+        return engine + "," + configuration.signature();
+    }
+
+    /**
+     * @return A linha de cabeçalho do CSV desta varredura.
+     */
+    private String header() {
+        StringBuilder line = new StringBuilder("motor,mapa,caçadores,semente");
+        for (String key : keys) {
+            line.append(',').append(key);
+        }
+        line.append(",resultado,passos");
+        for (int id = 0; id < SpeciesRegistry.getSpeciesCount(); id++) {
+            line.append(',').append(SpeciesRegistry.getName(id));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Lê as configurações já gravadas no arquivo de resultados.
+     *
+     * @throws IOException Se o arquivo for de outra varredura (cabeçalho diferente).
+     */
+    private Set<String> loadCompleted(String header) throws IOException {
+        Set<String> done = new HashSet<>();
+        File file = new File(resultsFile);
+        if (!file.exists() || file.length() == 0) {
+            return done;
+        }
+        int signatureColumns = 4 + keys.size();
+        int columnCount = header.split(",").length;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String first = reader.readLine();
+            if (!header.equals(first)) {
+                throw new IOException("O arquivo " + resultsFile + " é de outra varredura");
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split(",");
+                if (columns.length != columnCount) {
+                    continue;  // Linha incompleta (interrupção durante a gravação)
+                }
+                done.add(String.join(",", Arrays.copyOf(columns, signatureColumns)));
+            }
+        }
+        return done;
+    }
+
+    /**
+     * @return true se o arquivo termina com uma quebra de linha.
+     */
+    private static boolean endsWithNewline(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+}
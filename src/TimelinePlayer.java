@@ -0,0 +1,309 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Lê uma linha do tempo gravada pelo TimelineRecorder e reconstrói
+ * qualquer quadro dela.
+ *
+ * Ao abrir, o arquivo é percorrido uma vez para montar o índice de
+ * registros (posição no arquivo, passo, estação e quadro-chave anterior
+ * de cada quadro). Ir para um quadro custa no máximo K decodificações a
+ * partir do quadro-chave anterior; avançar um quadro em relação ao último
+ * mostrado decodifica só uma diferença. Como o arquivo só cresce,
+ * refresh() acrescenta ao índice os quadros gravados desde a abertura.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class TimelinePlayer {
+
+    // Tamanho fixo do início de um registro: tipo, passo, estação, caças, tamanho
+    private static final int RECORD_HEADER = 1 + 4 + 1 + 4 + 4;
+
+    private final RandomAccessFile file;
+    private final int depth, width;
+    private final int keyframeInterval;
+    private final TerrainType[] terrain;
+
+    // Índice de quadros
+    private long[] offsets;       // Posição do conteúdo de cada registro
+    private int[] lengths;        // Tamanho do conteúdo
+    private int[] steps;          // Passo da simulação
+    private byte[] seasons;       // Ordinal da estação
+    private int[] hunterKills;    // Total de caças dos caçadores
+    private int[] keyframes;      // Quadro-chave anterior (ou o próprio quadro)
+    private int frameCount;
+    private long endOffset;       // Fim do último registro completo
+
+    // Quadro decodificado atualmente e seu número (-1 se nenhum)
+    private final byte[] codes;
+    private int currentFrame;
+
+    // Buffers reutilizáveis para o conteúdo e o início dos registros lidos
+    private byte[] payload;
+    private final byte[] recordHeader = new byte[RECORD_HEADER];
+
+    /**
+     * Abre uma linha do tempo e monta o índice dos quadros.
+     *
+     * @param filename O arquivo gravado.
+     * @throws IOException Se o arquivo não puder ser lido ou não for uma linha do tempo.
+     */
+    public TimelinePlayer(String filename) throws IOException {
+        file = new RandomAccessFile(filename, "r");
+        if (file.readInt() != TimelineRecorder.MAGIC) {
+            file.close();
+            throw new IOException("Arquivo não é uma linha do tempo: " + filename);
+        }
+        int version = file.readInt();
+        if (version != TimelineRecorder.VERSION) {
+            file.close();
+            throw new IOException("Versão de linha do tempo não suportada: " + version);
+        }
+        depth = file.readInt();
+        width = file.readInt();
+        keyframeInterval = file.readInt();
+
+        // Terreno em RLE
+        payload = new byte[1024];
+        byte[] terrainCodes = new byte[depth * width];
+        int length = file.readInt();
+        long terrainStart = file.getFilePointer();
+        readPayload(terrainStart, length);
+        decodeRuns(length, terrainCodes);
+        TerrainType[] types = TerrainType.values();
+        terrain = new TerrainType[depth * width];
+        for (int i = 0; i < terrain.length; i++) {
+            terrain[i] = types[terrainCodes[i]];
+        }
+
+        offsets = new long[64];
+        lengths = new int[64];
+        steps = new int[64];
+        seasons = new byte[64];
+        hunterKills = new int[64];
+        keyframes = new int[64];
+        endOffset = terrainStart + length;
+        codes = new byte[depth * width];
+        currentFrame = -1;
+        refresh();
+    }
+
+    /**
+     * Acrescenta ao índice os quadros gravados desde a última leitura.
+     * Um registro incompleto no fim (ainda sendo gravado) é ignorado.
+     *
+     * @return O número de quadros depois da atualização.
+     * @throws IOException Se a leitura falhar.
+     */
+    public int refresh() throws IOException {
+        long fileLength = file.length();
+        while (endOffset + RECORD_HEADER <= fileLength) {
+            // Lê o início do registro de uma vez (uma chamada ao sistema)
+            file.seek(endOffset);
+            file.readFully(recordHeader);
+            ByteBuffer header = ByteBuffer.wrap(recordHeader);
+            byte type = header.get();
+            int step = header.getInt();
+            byte season = header.get();
+            int kills = header.getInt();
+            int length = header.getInt();
+            long start = endOffset + RECORD_HEADER;
+            if (start + length > fileLength) {
+                break;  // Registro ainda incompleto
+            }
+            if (type != TimelineRecorder.KEYFRAME && type != TimelineRecorder.DELTA) {
+                throw new IOException("Registro inválido na posição " + endOffset);
+            }
+            if (frameCount == 0 && type != TimelineRecorder.KEYFRAME) {
+                throw new IOException("Linha do tempo não começa com quadro-chave");
+            }
+            if (frameCount == offsets.length) {
+                grow();
+            }
+            offsets[frameCount] = start;
+            lengths[frameCount] = length;
+            steps[frameCount] = step;
+            seasons[frameCount] = season;
+            hunterKills[frameCount] = kills;
+            keyframes[frameCount] = type == TimelineRecorder.KEYFRAME ? frameCount : keyframes[frameCount - 1];
+            frameCount++;
+            endOffset = start + length;
+        }
+        return frameCount;
+    }
+
+    /**
+     * Reconstrói o quadro dado.
+     *
+     * @param frame O número do quadro (0 a getFrameCount() - 1).
+     * @return Os códigos de célula do quadro (linha * largura + coluna); o
+     *         vetor é reutilizado e vale até a próxima chamada.
+     * @throws IOException Se a leitura falhar.
+     */
+    public byte[] seek(int frame) throws IOException {
+        if (frame < 0 || frame >= frameCount) {
+            throw new IndexOutOfBoundsException("Quadro inexistente: " + frame);
+        }
+        int key = keyframes[frame];
+        int from;
+        if (currentFrame >= key && currentFrame <= frame) {
+            from = currentFrame + 1;  // Continua a partir do quadro já decodificado
+        } else {
+            from = key;
+        }
+        for (int f = from; f <= frame; f++) {
+            readPayload(offsets[f], lengths[f]);
+            if (f == keyframes[f]) {
+                decodeRuns(lengths[f], codes);
+            } else {
+                decodeDelta(lengths[f]);
+            }
+        }
+        currentFrame = frame;
+        return codes;
+    }
+
+    /**
+     * Lê o conteúdo de um registro para o buffer.
+     */
+    private void readPayload(long offset, int length) throws IOException {
+        if (payload.length < length) {
+            payload = new byte[Math.max(length, payload.length * 2)];
+        }
+        file.seek(offset);
+        file.readFully(payload, 0, length);
+    }
+
+    /**
+     * Decodifica sequências (tamanho, valor) para o vetor dado.
+     */
+    private void decodeRuns(int length, byte[] target) {
+        int[] position = {0};
+        int cell = 0;
+        while (position[0] < length) {
+            int run = readVarInt(position);
+            byte value = payload[position[0]++];
+            Arrays.fill(target, cell, cell + run, value);
+            cell += run;
+        }
+    }
+
+    /**
+     * Aplica ao quadro atual as diferenças (células iguais, células alteradas).
+     */
+    private void decodeDelta(int length) {
+        int[] position = {0};
+        int cell = 0;
+        while (position[0] < length) {
+            cell += readVarInt(position);
+            if (position[0] == length) {
+                break;
+            }
+            int changed = readVarInt(position);
+            System.arraycopy(payload, position[0], codes, cell, changed);
+            position[0] += changed;
+            cell += changed;
+        }
+    }
+
+    /**
+     * Lê um inteiro de 7 bits por byte a partir da posição dada, avançando-a.
+     */
+    private int readVarInt(int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = payload[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Dobra a capacidade do índice.
+     */
+    private void grow() {
+        int capacity = offsets.length * 2;
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        steps = Arrays.copyOf(steps, capacity);
+        seasons = Arrays.copyOf(seasons, capacity);
+        hunterKills = Arrays.copyOf(hunterKills, capacity);
+        keyframes = Arrays.copyOf(keyframes, capacity);
+    }
+
+    /**
+     * @return O número de quadros no índice.
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @param frame O número do quadro.
+     * @return O passo da simulação gravado no quadro.
+     */
+    public int getStep(int frame) {
+        return steps[frame];
+    }
+
+    /**
+     * @param frame O número do quadro.
+     * @return A estação gravada no quadro.
+     */
+    public Season getSeason(int frame) {
+        return Season.values()[seasons[frame]];
+    }
+
+    /**
+     * @param frame O número do quadro.
+     * @return O total de caças dos caçadores gravado no quadro.
+     */
+    public int getHunterKills(int frame) {
+        return hunterKills[frame];
+    }
+
+    /**
+     * @param row A linha.
+     * @param col A coluna.
+     * @return O terreno da célula.
+     */
+    public TerrainType getTerrainAt(int row, int col) {
+        return terrain[row * width + col];
+    }
+
+    /**
+     * @return A profundidade do campo gravado.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return A largura do campo gravado.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return O intervalo entre quadros-chave (K).
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Fecha o arquivo.
+     *
+     * @throws IOException Se o fechamento falhar.
+     */
+    public void close() throws IOException {
+        file.close();
+    }
+}
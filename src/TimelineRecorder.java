@@ -0,0 +1,280 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Grava a linha do tempo de uma simulação em um arquivo somente de
+ * acréscimo, para revê-la depois sem executá-la de novo (ver
+ * TimelinePlayer).
+ *
+ * Cada quadro guarda um código por célula (vazia, espécie ou caçador).
+ * A cada keyframeInterval quadros é gravado um quadro-chave completo,
+ * comprimido em sequências (RLE); entre eles, só as diferenças para o
+ * quadro anterior: sequências alternadas de células iguais (puladas) e
+ * de células alteradas (com os novos códigos). Assim, qualquer quadro é
+ * reconstruído decodificando no máximo keyframeInterval registros a
+ * partir do quadro-chave anterior.
+ *
+ * Formato: cabeçalho (MAGIC, versão, profundidade, largura, intervalo e
+ * terreno em RLE) seguido dos registros (tipo, passo, estação, caças dos
+ * caçadores, tamanho e conteúdo). Inteiros de comprimento variável são
+ * gravados em 7 bits por byte.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class TimelineRecorder {
+
+    // Identificação e versão do formato
+    public static final int MAGIC = 0x544C4E31;  // "TLN1"
+    public static final int VERSION = 1;
+
+    // Tipos de registro
+    public static final byte KEYFRAME = 'K';
+    public static final byte DELTA = 'D';
+
+    // Códigos de célula: 0 = vazia, id + 1 = espécie, HUNTER = caçador
+    public static final byte EMPTY = 0;
+    public static final byte HUNTER = (byte) 0xFF;
+
+    // Intervalo padrão entre quadros-chave
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+
+    private final DataOutputStream out;
+    private final int depth, width;
+    private final int keyframeInterval;
+
+    // Códigos do quadro anterior e do atual
+    private byte[] previous;
+    private byte[] current;
+
+    // Buffer reutilizável para o conteúdo de um registro
+    private byte[] payload;
+    private int payloadSize;
+
+    // Quadros gravados e passo do último quadro
+    private int frames;
+    private int lastStep;
+
+    /**
+     * Cria o arquivo (substituindo um existente) e grava o cabeçalho com
+     * as dimensões e o terreno do campo.
+     *
+     * @param filename O arquivo de destino.
+     * @param field O campo a ser gravado.
+     * @param keyframeInterval Quadros entre dois quadros-chave (K).
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    public TimelineRecorder(String filename, Field field, int keyframeInterval) throws IOException {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Intervalo de quadros-chave inválido: " + keyframeInterval);
+        }
+        File file = new File(filename);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        this.depth = field.getDepth();
+        this.width = field.getWidth();
+        this.keyframeInterval = keyframeInterval;
+        previous = new byte[depth * width];
+        current = new byte[depth * width];
+        payload = new byte[1024];
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(depth);
+        out.writeInt(width);
+        out.writeInt(keyframeInterval);
+
+        // Terreno (ordinal de TerrainType por célula) em RLE
+        byte[] terrain = new byte[depth * width];
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                terrain[row * width + col] = (byte) field.getTerrainAt(row, col).ordinal();
+            }
+        }
+        payloadSize = 0;
+        encodeRuns(terrain);
+        out.writeInt(payloadSize);
+        out.write(payload, 0, payloadSize);
+    }
+
+    /**
+     * Grava o estado do campo como o próximo quadro. Um quadro-chave é
+     * gravado a cada keyframeInterval quadros e sempre que o passo não
+     * segue o anterior (por exemplo, depois de reiniciar a simulação).
+     *
+     * @param step O passo atual.
+     * @param season A estação atual.
+     * @param hunterKills O total de caças dos caçadores.
+     * @param field O campo a ser gravado.
+     * @throws IOException Se a gravação falhar.
+     */
+    public void record(int step, Season season, int hunterKills, Field field) throws IOException {
+        capture(field);
+        boolean keyframe = frames % keyframeInterval == 0 || step != lastStep + 1;
+
+        payloadSize = 0;
+        if (keyframe) {
+            encodeRuns(current);
+        } else {
+            encodeDelta();
+        }
+        out.writeByte(keyframe ? KEYFRAME : DELTA);
+        out.writeInt(step);
+        out.writeByte(season.ordinal());
+        out.writeInt(hunterKills);
+        out.writeInt(payloadSize);
+        out.write(payload, 0, payloadSize);
+
+        // O quadro atual passa a ser a referência do próximo
+        byte[] temp = previous;
+        previous = current;
+        current = temp;
+        frames++;
+        lastStep = step;
+    }
+
+    /**
+     * Preenche os códigos do quadro atual.
+     */
+    private void capture(Field field) {
+        captureCodes(field, current);
+    }
+
+    /**
+     * Preenche um vetor com o código de cada célula do campo (linha *
+     * largura + coluna), pulando os blocos vazios. Também usado pelo
+     * FrameExporter para copiar o quadro antes de desenhá-lo.
+     *
+     * @param field O campo.
+     * @param codes O vetor de destino, com profundidade * largura posições.
+     */
+    static void captureCodes(Field field, byte[] codes) {
+        Arrays.fill(codes, EMPTY);
+        int depth = field.getDepth();
+        int width = field.getWidth();
+        int tileSize = field.getTileSize();
+        for (int tileRow = 0; tileRow < field.getTileRows(); tileRow++) {
+            for (int tileCol = 0; tileCol < field.getTileCols(); tileCol++) {
+                if (field.isTileEmpty(tileRow, tileCol)) {
+                    continue;
+                }
+                int rowEnd = Math.min((tileRow + 1) * tileSize, depth);
+                int colEnd = Math.min((tileCol + 1) * tileSize, width);
+                for (int row = tileRow * tileSize; row < rowEnd; row++) {
+                    for (int col = tileCol * tileSize; col < colEnd; col++) {
+                        codes[row * width + col] = codeOf(field.getObjectAt(row, col));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param actor Um ator (pode ser null).
+     * @return O código de célula do ator.
+     */
+    public static byte codeOf(Actor actor) {
+        if (actor == null || !actor.isAlive()) {
+            return EMPTY;
+        }
+        if (actor instanceof Animal) {
+            return (byte) (((Animal) actor).getSpeciesId() + 1);
+        }
+        return HUNTER;
+    }
+
+    /**
+     * Codifica os valores como sequências (tamanho, valor).
+     */
+    private void encodeRuns(byte[] values) {
+        int i = 0;
+        while (i < values.length) {
+            byte value = values[i];
+            int start = i;
+            while (i < values.length && values[i] == value) {
+                i++;
+            }
+            writeVarInt(i - start);
+            writeByte(value);
+        }
+    }
+
+    /**
+     * Codifica as diferenças para o quadro anterior como pares
+     * (células iguais, células alteradas + seus códigos novos).
+     */
+    private void encodeDelta() {
+        int cells = current.length;
+        int i = 0;
+        while (i < cells) {
+            int start = i;
+            while (i < cells && current[i] == previous[i]) {
+                i++;
+            }
+            writeVarInt(i - start);
+            if (i == cells) {
+                break;  // O resto do quadro não mudou
+            }
+            int changed = i;
+            while (i < cells && current[i] != previous[i]) {
+                i++;
+            }
+            writeVarInt(i - changed);
+            for (int k = changed; k < i; k++) {
+                writeByte(current[k]);
+            }
+        }
+    }
+
+    /**
+     * Acrescenta um inteiro não negativo em 7 bits por byte.
+     */
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeByte((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((byte) value);
+    }
+
+    /**
+     * Acrescenta um byte ao conteúdo do registro, crescendo o buffer se preciso.
+     */
+    private void writeByte(byte value) {
+        if (payloadSize == payload.length) {
+            payload = Arrays.copyOf(payload, payloadSize * 2);
+        }
+        payload[payloadSize++] = value;
+    }
+
+    /**
+     * Envia ao arquivo os registros ainda no buffer.
+     *
+     * @throws IOException Se a gravação falhar.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Fecha o arquivo.
+     *
+     * @throws IOException Se a gravação falhar.
+     */
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * @return O número de quadros gravados.
+     */
+    public int getFrameCount() {
+        return frames;
+    }
+}
@@ -0,0 +1,151 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Roda de temporização hierárquica para eventos agendados por passo.
+ * O primeiro nível tem uma posição por passo dentro do bloco atual de
+ * 256 passos; o segundo nível tem uma posição por bloco para os próximos
+ * 64 blocos; eventos ainda mais distantes ficam em uma lista de estouro.
+ * Ao entrar em um novo bloco, os eventos do segundo nível descem para o
+ * primeiro, de modo que agendar e disparar custam O(1) amortizado.
+ * 
+ * A roda não cancela eventos: quem os consome deve conferir se o evento
+ * disparado ainda é válido (cancelamento preguiçoso).
+ * 
+ * @param <T> O tipo dos itens agendados.
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class TimingWheel<T> {
+    
+    // Bits do passo usados pelo primeiro nível (256 passos por bloco)
+    private static final int STEP_BITS = 8;
+    private static final int STEP_SLOTS = 1 << STEP_BITS;
+    
+    // Número de blocos cobertos pelo segundo nível
+    private static final int BLOCK_SLOTS = 64;
+    
+    // Primeiro nível: eventos do bloco atual, por passo
+    private final List<List<Entry<T>>> steps;
+    
+    // Segundo nível: eventos dos próximos blocos, por bloco
+    private final List<List<Entry<T>>> blocks;
+    
+    // Eventos além do alcance do segundo nível
+    private final List<Entry<T>> overflow;
+    
+    // Passo atual da roda (último passo disparado)
+    private int now;
+
+    /**
+     * Um item agendado e o passo em que deve disparar.
+     */
+    private static class Entry<T> {
+        private final T item;
+        private final int step;
+
+        private Entry(T item, int step) {
+            this.item = item;
+            this.step = step;
+        }
+    }
+
+    /**
+     * Cria uma roda vazia no passo zero.
+     */
+    public TimingWheel() {
+        steps = new ArrayList<>(STEP_SLOTS);
+        for (int i = 0; i < STEP_SLOTS; i++) {
+            steps.add(new ArrayList<>());
+        }
+        blocks = new ArrayList<>(BLOCK_SLOTS);
+        for (int i = 0; i < BLOCK_SLOTS; i++) {
+            blocks.add(new ArrayList<>());
+        }
+        overflow = new ArrayList<>();
+        now = 0;
+    }
+
+    /**
+     * Remove todos os eventos e reposiciona a roda no passo dado.
+     *
+     * @param step O novo passo atual.
+     */
+    public void reset(int step) {
+        for (List<Entry<T>> slot : steps) {
+            slot.clear();
+        }
+        for (List<Entry<T>> slot : blocks) {
+            slot.clear();
+        }
+        overflow.clear();
+        now = step;
+    }
+
+    /**
+     * Agenda um item para o passo dado. Passos que já passaram (ou o
+     * passo atual) disparam na próxima chamada de advance.
+     *
+     * @param item O item.
+     * @param step O passo do disparo.
+     */
+    public void schedule(T item, int step) {
+        insert(new Entry<>(item, Math.max(step, now + 1)));
+    }
+
+    /**
+     * Avança a roda para o passo seguinte e entrega os itens que vencem nele.
+     * Deve ser chamado uma vez por passo, sem pular passos.
+     *
+     * @param action O que fazer com cada item vencido.
+     */
+    public void advance(Consumer<T> action) {
+        now++;
+        if ((now & (STEP_SLOTS - 1)) == 0) {
+            int block = now >> STEP_BITS;
+            // A cada volta do segundo nível, reavalia os eventos distantes
+            if (block % BLOCK_SLOTS == 0) {
+                List<Entry<T>> pending = new ArrayList<>(overflow);
+                overflow.clear();
+                for (Entry<T> entry : pending) {
+                    insert(entry);
+                }
+            }
+            // Eventos do novo bloco descem para o primeiro nível
+            List<Entry<T>> slot = blocks.get(block % BLOCK_SLOTS);
+            List<Entry<T>> pending = new ArrayList<>(slot);
+            slot.clear();
+            for (Entry<T> entry : pending) {
+                insert(entry);
+            }
+        }
+        
+        List<Entry<T>> due = steps.get(now & (STEP_SLOTS - 1));
+        for (int i = 0; i < due.size(); i++) {
+            action.accept(due.get(i).item);
+        }
+        due.clear();
+    }
+
+    /**
+     * Coloca um evento no nível adequado à sua distância do passo atual.
+     */
+    private void insert(Entry<T> entry) {
+        int blockDistance = (entry.step >> STEP_BITS) - (now >> STEP_BITS);
+        if (blockDistance == 0) {
+            steps.get(entry.step & (STEP_SLOTS - 1)).add(entry);
+        } else if (blockDistance < BLOCK_SLOTS) {
+            blocks.get((entry.step >> STEP_BITS) % BLOCK_SLOTS).add(entry);
+        } else {
+            overflow.add(entry);
+        }
+    }
+
+    /**
+     * @return O passo atual da roda.
+     */
+    public int getCurrentStep() {
+        return now;
+    }
+}
@@ -0,0 +1,326 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lê arquivos de trajetórias gravados pelo TrajectoryTracer. O índice do
+ * fim do arquivo é carregado na abertura; uma leitura por faixa de passos
+ * só decodifica os blocos cuja faixa de passos a intersecta.
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class TrajectoryReader implements AutoCloseable {
+
+    /**
+     * Uma linha de trajetória: um animal em um passo.
+     */
+    public static final class Record {
+        private final int id;
+        private final int speciesCode;
+        private final int step;
+        private final int row, col;
+        private final int age;
+        private final int food;
+        private final DeathCause cause;
+
+        Record(int id, int speciesCode, int step, int row, int col, int age, int food, DeathCause cause) {
+            this.id = id;
+            this.speciesCode = speciesCode;
+            this.step = step;
+            this.row = row;
+            this.col = col;
+            this.age = age;
+            this.food = food;
+            this.cause = cause;
+        }
+
+        /**
+         * @return O identificador do animal.
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return O código da espécie no dicionário do arquivo (ver getSpeciesName).
+         */
+        public int getSpeciesCode() {
+            return speciesCode;
+        }
+
+        /**
+         * @return O passo.
+         */
+        public int getStep() {
+            return step;
+        }
+
+        /**
+         * @return A linha da célula.
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * @return A coluna da célula.
+         */
+        public int getCol() {
+            return col;
+        }
+
+        /**
+         * @return A idade do animal.
+         */
+        public int getAge() {
+            return age;
+        }
+
+        /**
+         * @return O nível de comida do animal.
+         */
+        public int getFood() {
+            return food;
+        }
+
+        /**
+         * @return A causa da morte, ou null se o animal está vivo neste registro.
+         */
+        public DeathCause getCause() {
+            return cause;
+        }
+    }
+
+    private final FileChannel channel;
+    private final int depth, width;
+    private final double fraction;
+    private final String[] speciesNames;
+    private final DeathCause[] causes;  // Pelo código gravado - 1
+
+    // Índice: posição, primeiro e último passo de cada bloco; o índice começa onde o último bloco termina
+    private final long indexPosition;
+    private final long[] blockPositions;
+    private final int[] blockFirstSteps, blockLastSteps;
+
+    /**
+     * Abre um arquivo de trajetórias e carrega o índice.
+     *
+     * @param filename O arquivo.
+     * @throws IOException Se o arquivo não puder ser lido ou não estiver completo.
+     */
+    public TrajectoryReader(String filename) throws IOException {
+        channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = readBytes(0, (int) Math.min(channel.size(), 1 << 16));
+            if (header.getInt() != TrajectoryTracer.MAGIC || header.getInt() != TrajectoryTracer.VERSION) {
+                throw new IOException("Arquivo de trajetórias inválido: " + filename);
+            }
+            depth = header.getInt();
+            width = header.getInt();
+            fraction = header.getDouble();
+            speciesNames = new String[header.get() & 0xFF];
+            for (int i = 0; i < speciesNames.length; i++) {
+                speciesNames[i] = getName(header);
+            }
+            causes = new DeathCause[header.get() & 0xFF];
+            for (int i = 0; i < causes.length; i++) {
+                causes[i] = DeathCause.valueOf(getName(header));
+            }
+
+            // Rodapé: número de blocos, posição do índice e marcador
+            ByteBuffer footer = readBytes(channel.size() - 16, 16);
+            int blocks = footer.getInt();
+            indexPosition = footer.getLong();
+            if (footer.getInt() != TrajectoryTracer.INDEX_MAGIC) {
+                throw new IOException("Arquivo de trajetórias sem índice (gravação não encerrada): " + filename);
+            }
+            ByteBuffer entries = readBytes(indexPosition, blocks * 20);
+            blockPositions = new long[blocks];
+            blockFirstSteps = new int[blocks];
+            blockLastSteps = new int[blocks];
+            for (int b = 0; b < blocks; b++) {
+                blockPositions[b] = entries.getLong();
+                entries.getInt();  // Linhas (também no cabeçalho do bloco)
+                blockFirstSteps[b] = entries.getInt();
+                blockLastSteps[b] = entries.getInt();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lê um nome: tamanho (short) e bytes UTF-8.
+     */
+    private static String getName(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Os bytes do arquivo a partir da posição dada.
+     */
+    private ByteBuffer readBytes(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Arquivo de trajetórias truncado");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Lê as linhas dos passos dados, em ordem de bloco e, dentro de cada
+     * bloco, por animal e passo.
+     *
+     * @param fromStep O primeiro passo (inclusive).
+     * @param toStep O último passo (inclusive).
+     * @return As linhas da faixa de passos.
+     * @throws IOException Se o arquivo não puder ser lido.
+     */
+    public List<Record> read(int fromStep, int toStep) throws IOException {
+        List<Record> records = new ArrayList<>();
+        for (int b = 0; b < blockPositions.length; b++) {
+            if (blockLastSteps[b] < fromStep || blockFirstSteps[b] > toStep) {
+                continue;  // Faixa do bloco fora da pedida
+            }
+            long end = b + 1 < blockPositions.length ? blockPositions[b + 1] : indexPosition;
+            ByteBuffer block = readBytes(blockPositions[b], (int) (end - blockPositions[b]));
+            decode(block, fromStep, toStep, records);
+        }
+        return records;
+    }
+
+    /**
+     * Decodifica as colunas de um bloco e acrescenta as linhas da faixa.
+     */
+    private void decode(ByteBuffer block, int fromStep, int toStep, List<Record> records) {
+        int rows = block.getInt();
+        block.getInt();  // Primeiro e último passo (já no índice)
+        block.getInt();
+        int[] ids = deltaColumn(block, rows);
+        byte[] species = byteColumn(block, rows);
+        int[] steps = deltaColumn(block, rows);
+        int[] cells = deltaColumn(block, rows);
+        int[] ages = plainColumn(block, rows, false);
+        int[] foods = plainColumn(block, rows, true);
+        byte[] codes = byteColumn(block, rows);
+        for (int r = 0; r < rows; r++) {
+            if (steps[r] < fromStep || steps[r] > toStep) {
+                continue;
+            }
+            DeathCause cause = codes[r] == TrajectoryTracer.ALIVE ? null : causes[codes[r] - 1];
+            records.add(new Record(ids[r], species[r] & 0xFF, steps[r], cells[r] / width, cells[r] % width,
+                                   ages[r], foods[r], cause));
+        }
+    }
+
+    /**
+     * Lê uma coluna de diferenças em zigue-zague.
+     */
+    private static int[] deltaColumn(ByteBuffer block, int rows) {
+        block.getInt();  // Tamanho da coluna
+        int[] values = new int[rows];
+        int previous = 0;
+        for (int r = 0; r < rows; r++) {
+            previous += unzigzag(getVarint(block));
+            values[r] = previous;
+        }
+        return values;
+    }
+
+    /**
+     * Lê uma coluna de inteiros (em zigue-zague se puderem ser negativos).
+     */
+    private static int[] plainColumn(ByteBuffer block, int rows, boolean signed) {
+        block.getInt();
+        int[] values = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            int value = getVarint(block);
+            values[r] = signed ? unzigzag(value) : value;
+        }
+        return values;
+    }
+
+    /**
+     * Lê uma coluna de um byte por linha.
+     */
+    private static byte[] byteColumn(ByteBuffer block, int rows) {
+        block.getInt();
+        byte[] values = new byte[rows];
+        block.get(values);
+        return values;
+    }
+
+    /**
+     * Lê um inteiro sem sinal de 7 bits por byte.
+     */
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * @return O inteiro original de um valor em zigue-zague.
+     */
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return O número de blocos do arquivo.
+     */
+    public int getBlockCount() {
+        return blockPositions.length;
+    }
+
+    /**
+     * @param code O código da espécie no arquivo.
+     * @return O nome da espécie.
+     */
+    public String getSpeciesName(int code) {
+        return speciesNames[code];
+    }
+
+    /**
+     * @return A profundidade do campo registrado.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return A largura do campo registrado.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return A fração dos animais registrada.
+     */
+    public double getFraction() {
+        return fraction;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,494 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Grava a trajetória de cada animal (identificador, espécie, passo,
+ * célula, idade, nível de comida e causa da morte) em um arquivo binário
+ * organizado por colunas, para análises de movimento (ver TrajectoryReader).
+ *
+ * A thread da simulação só acrescenta os valores às colunas do bloco
+ * atual. Ao fim de um passo em que o bloco passou de blockRows linhas, ele
+ * vai para a fila de uma thread gravadora, que ordena as linhas por animal
+ * (e passo), codifica as colunas e grava o bloco inteiro com uma escrita
+ * no FileChannel. Há dois blocos em uso, então a simulação só espera se a
+ * gravadora estiver um bloco inteiro atrasada.
+ *
+ * Codificação das colunas de um bloco: identificador, passo e célula
+ * (linha * largura + coluna) como diferenças para a linha anterior, em
+ * zigue-zague e 7 bits por byte (na ordem por animal, a diferença do passo
+ * costuma ser 1 e a da célula, um vizinho); espécie e causa como códigos
+ * de um byte de dicionários gravados no cabeçalho; idade e comida em 7
+ * bits por byte. Cada coluna é precedida do seu tamanho, para que um
+ * leitor pule as que não usa.
+ *
+ * Como os blocos só são fechados entre passos, cada um cobre uma faixa de
+ * passos disjunta das outras; o índice no fim do arquivo (posição, linhas
+ * e primeiro e último passo de cada bloco) permite ler só os blocos de
+ * uma faixa de passos.
+ *
+ * Com populações muito grandes, só uma fração dos animais é registrada:
+ * a escolha é feita por um hash do identificador, então cada animal é
+ * registrado durante a vida toda ou nunca, e a fração não depende do
+ * tamanho da população.
+ *
+ * Formato: cabeçalho (MAGIC, versão, profundidade, largura, fração, nomes
+ * das espécies e das causas), blocos (linhas, primeiro e último passo e
+ * as colunas), índice e rodapé (número de blocos, posição do índice e
+ * INDEX_MAGIC).
+ *
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class TrajectoryTracer {
+
+    // Identificação e versão do formato
+    public static final int MAGIC = 0x54524A31;        // "TRJ1"
+    public static final int INDEX_MAGIC = 0x54524A58;  // "TRJX"
+    public static final int VERSION = 1;
+
+    // Linhas a partir das quais o bloco é gravado (no fim do passo)
+    public static final int DEFAULT_BLOCK_ROWS = 1 << 16;
+
+    // Código da causa de animais vivos; as causas de morte são ordinal() + 1
+    public static final byte ALIVE = 0;
+
+    // Tamanho máximo de uma linha codificada: 5 colunas de até 5 bytes e 2 de um byte
+    private static final int MAX_ROW_BYTES = 5 * 5 + 2;
+
+    // Cabeçalho do bloco (linhas, primeiro e último passo) e prefixo de cada uma das 7 colunas
+    private static final int BLOCK_HEADER_BYTES = 3 * 4 + 7 * 4;
+
+    // Marcador de fim na fila de blocos
+    private static final Block END = new Block(0);
+
+    /**
+     * As colunas de um bloco em construção.
+     */
+    private static final class Block {
+        int rows;
+        int[] id, step, cell, age, food;
+        byte[] species, cause;
+
+        Block(int capacity) {
+            id = new int[capacity];
+            step = new int[capacity];
+            cell = new int[capacity];
+            age = new int[capacity];
+            food = new int[capacity];
+            species = new byte[capacity];
+            cause = new byte[capacity];
+        }
+
+        /**
+         * Dobra a capacidade das colunas (passo com mais registros que o previsto).
+         */
+        void grow() {
+            int capacity = Math.max(16, id.length * 2);
+            id = Arrays.copyOf(id, capacity);
+            step = Arrays.copyOf(step, capacity);
+            cell = Arrays.copyOf(cell, capacity);
+            age = Arrays.copyOf(age, capacity);
+            food = Arrays.copyOf(food, capacity);
+            species = Arrays.copyOf(species, capacity);
+            cause = Arrays.copyOf(cause, capacity);
+        }
+    }
+
+    private final FileChannel channel;
+    private final int width;
+    private final double fraction;
+    private final int blockRows;
+
+    // Bloco sendo preenchido, blocos livres e blocos à espera da gravadora
+    private Block current;
+    private final BlockingQueue<Block> freeBlocks;
+    private final BlockingQueue<Block> fullBlocks;
+    private final Thread writer;
+
+    // Estado da gravadora: buffer de saída, posição no arquivo e índice dos blocos
+    private ByteBuffer output;
+    private long position;
+    private final List<long[]> index = new ArrayList<>();  // {posição, linhas, primeiro passo, último passo}
+
+    private long rowsRecorded;
+    private volatile IOException error;
+    private boolean closed;
+
+    /**
+     * Cria um registro com o tamanho de bloco padrão.
+     *
+     * @param filename O arquivo de destino (substituído se existir).
+     * @param field O campo da simulação (dimensões).
+     * @param fraction A fração dos animais registrada (0.0 a 1.0).
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    public TrajectoryTracer(String filename, Field field, double fraction) throws IOException {
+        this(filename, field, fraction, DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * Cria um registro.
+     *
+     * @param filename O arquivo de destino (substituído se existir).
+     * @param field O campo da simulação (dimensões).
+     * @param fraction A fração dos animais registrada (0.0 a 1.0).
+     * @param blockRows Linhas a partir das quais um bloco é gravado.
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    public TrajectoryTracer(String filename, Field field, double fraction, int blockRows) throws IOException {
+        if (fraction < 0 || fraction > 1 || blockRows <= 0) {
+            throw new IllegalArgumentException("Parâmetros do registro de trajetórias inválidos");
+        }
+        this.width = field.getWidth();
+        this.fraction = fraction;
+        this.blockRows = blockRows;
+        Path path = Paths.get(filename);
+        if (path.getParent() != null) {
+            path.getParent().toFile().mkdirs();
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING);
+        output = ByteBuffer.allocateDirect(BLOCK_HEADER_BYTES + blockRows * MAX_ROW_BYTES);
+        writeHeader(field.getDepth());
+
+        freeBlocks = new ArrayBlockingQueue<>(2);
+        freeBlocks.add(new Block(blockRows));
+        current = new Block(blockRows);
+        fullBlocks = new LinkedBlockingQueue<>();
+        writer = new Thread(this::writeBlocks, "gravador-trajetorias");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Grava o cabeçalho: dimensões, fração e os dicionários de espécies e causas.
+     */
+    private void writeHeader(int depth) throws IOException {
+        output.clear();
+        output.putInt(MAGIC).putInt(VERSION).putInt(depth).putInt(width).putDouble(fraction);
+        int speciesCount = SpeciesRegistry.getSpeciesCount();
+        output.put((byte) speciesCount);
+        for (int id = 0; id < speciesCount; id++) {
+            putName(SpeciesRegistry.getName(id));
+        }
+        DeathCause[] causes = DeathCause.values();
+        output.put((byte) causes.length);
+        for (DeathCause cause : causes) {
+            putName(cause.name());
+        }
+        output.flip();
+        writeOutput();
+    }
+
+    /**
+     * Acrescenta um nome ao buffer de saída: tamanho (short) e bytes UTF-8.
+     */
+    private void putName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        output.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * @param animal O animal.
+     * @return true se a trajetória do animal é registrada.
+     */
+    public boolean isSampled(Animal animal) {
+        if (fraction >= 1.0) {
+            return true;
+        }
+        // Hash do identificador (finalizador do SplitMix64) como valor uniforme em [0, 1)
+        long z = animal.getId() * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53 < fraction;
+    }
+
+    /**
+     * Registra a posição de cada animal vivo e sorteado no fim de um passo
+     * e, se o bloco estiver cheio, o envia à gravadora.
+     *
+     * @param step O passo.
+     * @param animals Os animais da simulação.
+     * @throws IOException Se a gravadora falhou ou a espera foi interrompida.
+     */
+    public void recordStep(int step, List<Animal> animals) throws IOException {
+        checkOpen();
+        for (int i = 0; i < animals.size(); i++) {
+            Animal animal = animals.get(i);
+            if (animal.isAlive() && isSampled(animal)) {
+                add(animal, step, ALIVE);
+            }
+        }
+        if (current.rows >= blockRows) {
+            submit();
+        }
+    }
+
+    /**
+     * Registra a morte de um animal sorteado, na última posição dele.
+     * Chamado pelo Animal ao morrer.
+     *
+     * @param animal O animal.
+     * @param step O passo da morte.
+     * @param cause A causa da morte.
+     */
+    public void recordDeath(Animal animal, int step, DeathCause cause) {
+        if (!closed && isSampled(animal)) {
+            add(animal, step, (byte) (cause.ordinal() + 1));
+        }
+    }
+
+    /**
+     * Acrescenta uma linha ao bloco atual.
+     */
+    private void add(Animal animal, int step, byte cause) {
+        Location location = animal.getLocation();
+        if (location == null) {
+            return;  // Ainda não posicionado
+        }
+        Block block = current;
+        if (block.rows == block.id.length) {
+            block.grow();
+        }
+        int row = block.rows++;
+        block.id[row] = animal.getId();
+        block.species[row] = (byte) animal.getSpeciesId();
+        block.step[row] = step;
+        block.cell[row] = location.getRow() * width + location.getCol();
+        block.age[row] = animal.getAge();
+        block.food[row] = animal.getFoodLevel();
+        block.cause[row] = cause;
+        rowsRecorded++;
+    }
+
+    /**
+     * Põe o bloco atual na fila da gravadora e pega um bloco livre.
+     */
+    private void submit() throws IOException {
+        fullBlocks.add(current);
+        try {
+            current = freeBlocks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Registro de trajetórias interrompido", e);
+        }
+        current.rows = 0;
+    }
+
+    /**
+     * Laço da gravadora: codifica e grava blocos até o marcador de fim.
+     */
+    private void writeBlocks() {
+        while (true) {
+            Block block;
+            try {
+                block = fullBlocks.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (block == END) {
+                return;
+            }
+            try {
+                if (error == null) {
+                    writeBlock(block);
+                }
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                freeBlocks.add(block);
+            }
+        }
+    }
+
+    /**
+     * Ordena as linhas do bloco por animal e passo e grava as colunas.
+     */
+    private void writeBlock(Block block) throws IOException {
+        int rows = block.rows;
+        // As linhas chegam em ordem de passo; ordenar por (id, ordem de chegada) dá (id, passo)
+        long[] order = new long[rows];
+        int firstStep = Integer.MAX_VALUE, lastStep = Integer.MIN_VALUE;
+        for (int r = 0; r < rows; r++) {
+            order[r] = ((long) block.id[r] << 32) | r;
+            firstStep = Math.min(firstStep, block.step[r]);
+            lastStep = Math.max(lastStep, block.step[r]);
+        }
+        Arrays.sort(order);
+
+        int needed = BLOCK_HEADER_BYTES + rows * MAX_ROW_BYTES;
+        if (output.capacity() < needed) {
+            output = ByteBuffer.allocateDirect(needed);
+        }
+        output.clear();
+        output.putInt(rows).putInt(firstStep).putInt(lastStep);
+        putDeltaColumn(block.id, order);
+        putByteColumn(block.species, order);
+        putDeltaColumn(block.step, order);
+        putDeltaColumn(block.cell, order);
+        putPlainColumn(block.age, order, false);
+        putPlainColumn(block.food, order, true);
+        putByteColumn(block.cause, order);
+        output.flip();
+
+        index.add(new long[] {position, rows, firstStep, lastStep});
+        writeOutput();
+    }
+
+    /**
+     * Coluna de diferenças entre linhas consecutivas, em zigue-zague.
+     */
+    private void putDeltaColumn(int[] values, long[] order) {
+        int start = beginColumn();
+        int previous = 0;
+        for (long entry : order) {
+            int value = values[(int) entry];
+            putVarint(zigzag(value - previous));
+            previous = value;
+        }
+        endColumn(start);
+    }
+
+    /**
+     * Coluna de valores inteiros (em zigue-zague se puderem ser negativos).
+     */
+    private void putPlainColumn(int[] values, long[] order, boolean signed) {
+        int start = beginColumn();
+        for (long entry : order) {
+            int value = values[(int) entry];
+            putVarint(signed ? zigzag(value) : value);
+        }
+        endColumn(start);
+    }
+
+    /**
+     * Coluna de códigos de dicionário, um byte por linha.
+     */
+    private void putByteColumn(byte[] values, long[] order) {
+        int start = beginColumn();
+        for (long entry : order) {
+            output.put(values[(int) entry]);
+        }
+        endColumn(start);
+    }
+
+    /**
+     * Reserva o tamanho da coluna.
+     *
+     * @return A posição do tamanho reservado.
+     */
+    private int beginColumn() {
+        int start = output.position();
+        output.putInt(0);
+        return start;
+    }
+
+    /**
+     * Preenche o tamanho reservado com o número de bytes da coluna.
+     */
+    private void endColumn(int start) {
+        output.putInt(start, output.position() - start - 4);
+    }
+
+    /**
+     * @return O inteiro em zigue-zague: pequenos em módulo viram pequenos não negativos.
+     */
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Acrescenta um inteiro sem sinal em 7 bits por byte.
+     */
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            output.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.put((byte) value);
+    }
+
+    /**
+     * Grava o conteúdo do buffer de saída no fim do arquivo.
+     */
+    private void writeOutput() throws IOException {
+        while (output.hasRemaining()) {
+            position += channel.write(output, position);
+        }
+    }
+
+    /**
+     * @throws IOException Se a gravadora falhou.
+     */
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Registro de trajetórias já encerrado");
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Grava o último bloco, espera a gravadora e acrescenta o índice.
+     *
+     * @throws IOException Se a gravação falhar.
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (current.rows > 0) {
+                fullBlocks.add(current);
+            }
+            fullBlocks.add(END);
+            writer.join();
+            if (error != null) {
+                throw error;
+            }
+
+            // Índice dos blocos e rodapé
+            long indexPosition = position;
+            output = ByteBuffer.allocate(index.size() * 20 + 16);
+            for (long[] entry : index) {
+                output.putLong(entry[0]).putInt((int) entry[1]).putInt((int) entry[2]).putInt((int) entry[3]);
+            }
+            output.putInt(index.size()).putLong(indexPosition).putInt(INDEX_MAGIC);
+            output.flip();
+            writeOutput();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Registro de trajetórias interrompido", e);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return O número de linhas registradas.
+     */
+    public long getRowsRecorded() {
+        return rowsRecorded;
+    }
+
+    /**
+     * @return O número de blocos gravados (completo só depois de close()).
+     */
+    public int getBlockCount() {
+        return index.size();
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.stream.IntStream;
+
+/**
+ * Camada de biomassa de grama, em unidades de comida por célula.
+ * Só células de grama têm capacidade; água e árvores ficam sempre em zero.
+ * A grama rebrota a cada passo proporcionalmente à sua capacidade e ao
+ * fator da estação, e os herbívoros a consomem ao se mover, o que limita
+ * a população de herbívoros à produção do terreno.
+ * 
+ * Assim como a ScentLayer, a atualização percorre faixas de linhas
+ * (em paralelo em campos grandes) com um laço interno sem desvios.
+ * 
+ * @author TP_Grupo08
+ * @version 2025
+ */
+public class VegetationLayer {
+    
+    // Quantidade máxima de comida em uma célula de grama
+    private static final float GRASS_CAPACITY = 10f;
+    
+    // Fração da capacidade que rebrota por passo (multiplicada pelo fator da estação)
+    private static final float REGROWTH_RATE = 0.1f;
+    
+    // Número de células de cada faixa processada de uma vez
+    private static final int BAND_CELLS = 64 * 1024;
+    
+    // A partir deste número de células a rebrota usa várias threads
+    private static final int PARALLEL_THRESHOLD = 256 * 256;
+    
+    // Largura do campo (para converter localização em índice)
+    private final int width;
+    
+    // Capacidade de cada célula (GRASS_CAPACITY na grama, 0 nos demais terrenos)
+    private final float[] capacity;
+    
+    // Biomassa atual de cada célula (linha * largura + coluna)
+    private final float[] biomass;
+
+    /**
+     * Cria a camada com toda a grama em capacidade máxima.
+     *
+     * @param field O campo cujo terreno define onde há grama.
+     */
+    public VegetationLayer(Field field) {
+        width = field.getWidth();
+        int cells = field.getDepth() * width;
+        capacity = new float[cells];
+        biomass = new float[cells];
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < width; col++) {
+                if (field.getTerrainAt(row, col) == TerrainType.GRASS) {
+                    capacity[row * width + col] = GRASS_CAPACITY;
+                }
+            }
+        }
+        reset();
+    }
+
+    /**
+     * Restaura toda a grama à capacidade máxima.
+     */
+    public void reset() {
+        System.arraycopy(capacity, 0, biomass, 0, capacity.length);
+    }
+
+    /**
+     * Faz a grama rebrotar por um passo.
+     *
+     * @param season A estação atual (o fator de procriação escala a rebrota).
+     */
+    public void regrow(Season season) {
+        float rate = REGROWTH_RATE * (float) season.getBreedingFactor();
+        int bands = (biomass.length + BAND_CELLS - 1) / BAND_CELLS;
+        IntStream range = IntStream.range(0, bands);
+        if (biomass.length >= PARALLEL_THRESHOLD) {
+            range = range.parallel();  // Faixas independentes
+        }
+        range.forEach(band -> regrowBand(band, rate));
+    }
+
+    /**
+     * Rebrota uma faixa de células: b = min(cap, b + rate * cap).
+     */
+    private void regrowBand(int band, float rate) {
+        int end = Math.min((band + 1) * BAND_CELLS, biomass.length);
+        for (int i = band * BAND_CELLS; i < end; i++) {
+            biomass[i] = Math.min(capacity[i], biomass[i] + rate * capacity[i]);
+        }
+    }
+
+    /**
+     * Consome até a quantidade pedida de comida de uma célula.
+     *
+     * @param location A célula onde o herbívoro está.
+     * @param wanted A quantidade desejada.
+     * @return A quantidade efetivamente consumida.
+     */
+    public int consume(Location location, int wanted) {
+        int index = location.getRow() * width + location.getCol();
+        int eaten = Math.min(wanted, (int) biomass[index]);
+        biomass[index] -= eaten;
+        return eaten;
+    }
+
+    /**
+     * Retorna a biomassa de uma célula.
+     *
+     * @param row A linha.
+     * @param col A coluna.
+     * @return A quantidade de comida disponível.
+     */
+    public float get(int row, int col) {
+        return biomass[row * width + col];
+    }
+}
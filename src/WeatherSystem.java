@@ -39,6 +39,23 @@ public class WeatherSystem {
         }
     }
 
+    /**
+     * Salta direto para o início da próxima estação.
+     * Usado pelo motor orientado a eventos, em que a troca de estação é um
+     * evento agendado em vez de uma contagem de dias.
+     */
+    public void advanceToNextSeason() {
+        changeSeason();
+        dayCounter = 0;
+    }
+
+    /**
+     * @return A duração de cada estação, em dias de simulação.
+     */
+    public static int getSeasonDuration() {
+        return SEASON_DURATION;
+    }
+
     /**
      * Muda para a próxima estação.
      */